@@ -0,0 +1,84 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.pagination.CursorPage;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page of the booker's and the owner's bookings for each state, answered by the
+ * {@code Slice} queries that replaced the in-memory state filtering. The bookings are spread
+ * evenly over ten bookers, over past, current and future times and over the statuses; all items
+ * belong to one owner.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookingStateBenchmark {
+
+    private static final int BOOKERS = 10;
+    private static final int ITEMS = 100;
+    private static final long BOOKER_ID = Fixtures.OWNER_ID + 1;
+    private static final BookingStatus[] STATUSES = {BookingStatus.APPROVED, BookingStatus.WAITING,
+            BookingStatus.REJECTED};
+
+    @Param({"1000", "100000"})
+    private int bookings;
+
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    private String state;
+
+    private ServerContext server;
+    private BookingService bookingService;
+
+    @Setup
+    public void setUp() {
+        server = ServerContext.start("booking-state");
+        server.insert("insert into users (id, name, email) values (?, ?, ?)", BOOKERS + 1, i -> new Object[]{
+                Fixtures.OWNER_ID + i, "user " + i, "user" + i + "@mail.com"});
+        server.insert("insert into items (id, name, description, available, user_id) values (?, ?, ?, ?, ?)",
+                ITEMS, i -> new Object[]{i + 1, Fixtures.word(i), "a " + Fixtures.word(i * 3 + 1), true,
+                        Fixtures.OWNER_ID});
+        LocalDateTime now = LocalDateTime.now();
+        server.insert("insert into bookings (id, start_time, end_time, status, booker_id, item_id) "
+                + "values (?, ?, ?, ?, ?, ?)", bookings, i -> {
+            LocalDateTime start;
+            switch (i % 3) {
+                case 0:
+                    start = now.minusHours(i + 2L);
+                    break;
+                case 1:
+                    start = now.minusMinutes(i + 1L);
+                    break;
+                default:
+                    start = now.plusHours(i + 1L);
+            }
+            LocalDateTime end = i % 3 == 1 ? now.plusMinutes(i + 1L) : start.plusHours(1);
+            return new Object[]{i + 1, start, end, STATUSES[i / 3 % STATUSES.length].name(),
+                    BOOKER_ID + i % BOOKERS, i % ITEMS + 1};
+        });
+        bookingService = server.getBean(BookingService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public CursorPage<BookingResponseDto> booker() {
+        return bookingService.getAllBookingByUserId(BOOKER_ID, state, 0, null, 20);
+    }
+
+    @Benchmark
+    public CursorPage<BookingResponseDto> owner() {
+        return bookingService.getAllBookingByOwnerId(Fixtures.OWNER_ID, state, 0, null, 20);
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.benchmarks;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingTimelineIndex;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last/next booking lookups of the item views, answered by the in-memory timeline index. The
+ * booking lists filtered by state are measured by {@link BookingStateBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookingTimelineBenchmark {
+
+    @Param({"10", "1000"})
+    private int bookings;
+
+    private BookingTimelineIndex index;
+    private long itemId;
+    private LocalDateTime now;
+
+    @Setup
+    public void setUp() {
+        index = new BookingTimelineIndex(null, null, null,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        Item item = Fixtures.items(1).get(0);
+        itemId = item.getId();
+        index.addItem(itemId);
+        for (Booking booking : Fixtures.bookings(item, bookings)) {
+            index.update(booking);
+        }
+        now = Fixtures.NOW.plusHours(1);
+    }
+
+    @Benchmark
+    public Optional<BookingItemDto> lastBooking() {
+        return index.findLastBooking(itemId, now);
+    }
+
+    @Benchmark
+    public Optional<BookingItemDto> nextBooking() {
+        return index.findNextBooking(itemId, now);
+    }
+}
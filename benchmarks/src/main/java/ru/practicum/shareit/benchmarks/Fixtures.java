@@ -0,0 +1,64 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+final class Fixtures {
+
+    static final LocalDateTime NOW = LocalDateTime.of(2022, 9, 1, 12, 0);
+    static final long OWNER_ID = 1;
+    private static final String[] WORDS = {"drill", "hammer", "saw", "ladder", "bike", "tent", "kayak", "camera",
+            "projector", "guitar", "mixer", "vacuum", "cordless", "electric", "wooden", "folding"};
+
+    private Fixtures() {
+    }
+
+    /**
+     * The same settings as the object mapper that Spring Boot gives to the applications.
+     */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    static User user(long id) {
+        return new User(id, "user " + id, "user" + id + "@mail.com");
+    }
+
+    static List<Item> items(int count) {
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(item(i));
+        }
+        return items;
+    }
+
+    static Item item(int index) {
+        ItemRequest request = index % 3 == 0
+                ? new ItemRequest((long) index, "need " + word(index), user(2), NOW.minusDays(index)) : null;
+        return new Item((long) index + 1, user(OWNER_ID), word(index) + " " + word(index * 7 + 3),
+                "a " + word(index * 5 + 1) + " " + word(index * 3 + 2) + " in good condition", true, request);
+    }
+
+    static List<Booking> bookings(Item item, int count) {
+        User booker = user(3);
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = NOW.plusDays(2L * i - count);
+            bookings.add(new Booking((long) i + 1, item, booker, start, start.plusDays(1), BookingStatus.APPROVED));
+        }
+        return bookings;
+    }
+
+    static String word(int index) {
+        return WORDS[Math.floorMod(index, WORDS.length)];
+    }
+}
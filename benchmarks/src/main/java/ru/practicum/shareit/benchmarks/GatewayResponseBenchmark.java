@@ -0,0 +1,83 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Gateway handling of an upstream response up to the bytes written to the caller: relaying
+ * raw bytes versus parsing the body into objects and serializing it again. The upstream
+ * answers from memory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GatewayResponseBenchmark {
+
+    @Param({"1", "100"})
+    private int items;
+
+    private Client passthroughClient;
+    private Client objectClient;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() throws Exception {
+        ItemMapper itemMapper = new ItemMapper();
+        writer = Fixtures.objectMapper().writer();
+        byte[] body = writer.writeValueAsBytes(Fixtures.items(items).stream()
+                .map(itemMapper::toDtoBooking)
+                .collect(Collectors.toList()));
+        ClientHttpRequestFactory upstream = (uri, method) -> {
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            MockClientHttpResponse response = new MockClientHttpResponse(body, HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            request.setResponse(response);
+            return request;
+        };
+        RestTemplate rest = new RestTemplateBuilder()
+                .uriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:9090/items"))
+                .requestFactory(() -> upstream)
+                .build();
+        passthroughClient = new Client(rest, true);
+        objectClient = new Client(rest, false);
+    }
+
+    @Benchmark
+    public byte[] passthrough() {
+        return (byte[]) passthroughClient.getItems().getBody();
+    }
+
+    @Benchmark
+    public byte[] parseAndSerialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(objectClient.getItems().getBody());
+    }
+
+    static final class Client extends BaseClient {
+
+        Client(RestTemplate rest, boolean passthrough) {
+            super(rest, passthrough);
+        }
+
+        ResponseEntity<Object> getItems() {
+            return get("", 1L).join();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.pagination.CursorPage;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page of an item search, answered by the trigram index and by the {@code LIKE} query with
+ * its count query that the index replaced. The query runs on H2 with the server's schema; like
+ * PostgreSQL, H2 has no index for {@code like '%text%'} and scans the items table.
+ * The million-item database and index need a few gigabytes of heap, run them one at a time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class ItemSearchBenchmark {
+
+    private static final String LIKE_QUERY = "select it from Item as it where (lower(it.name) like ?1 "
+            + " or lower(it.description) like ?1) and it.available = true";
+    private static final String LIKE_COUNT_QUERY = "select count(it) from Item as it where (lower(it.name) like ?1 "
+            + " or lower(it.description) like ?1) and it.available = true";
+
+    @Param({"1000", "10000", "1000000"})
+    private int items;
+
+    @Param({"dril", "cordless drill", "zzz"})
+    private String text;
+
+    @Benchmark
+    public CursorPage<ItemDto> index(Index index) {
+        return index.index.search(text, null, 0, 10);
+    }
+
+    @Benchmark
+    public Page<Item> like(Database database) {
+        String pattern = "%" + text.toLowerCase() + "%";
+        EntityManager entityManager = database.entityManager;
+        List<Item> content = entityManager.createQuery(LIKE_QUERY, Item.class)
+                .setParameter(1, pattern)
+                .setMaxResults(10)
+                .getResultList();
+        long total = entityManager.createQuery(LIKE_COUNT_QUERY, Long.class)
+                .setParameter(1, pattern)
+                .getSingleResult();
+        entityManager.clear();
+        return new PageImpl<>(content, PageRequest.of(0, 10), total);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Index {
+
+        private ItemSearchIndex index;
+
+        @Setup
+        public void setUp(BenchmarkParams params) {
+            index = new ItemSearchIndex(null);
+            int items = Integer.parseInt(params.getParam("items"));
+            for (int i = 0; i < items; i++) {
+                index.index(Fixtures.item(i));
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        private ServerContext server;
+        private EntityManager entityManager;
+
+        @Setup
+        public void setUp(BenchmarkParams params) {
+            server = ServerContext.start("item-search");
+            server.insert("insert into users (id, name, email) values (?, ?, ?)", 1, i -> new Object[]{
+                    Fixtures.OWNER_ID, "owner", "owner@mail.com"});
+            server.insert("insert into items (id, name, description, available, user_id) values (?, ?, ?, ?, ?)",
+                    Integer.parseInt(params.getParam("items")), i -> {
+                        Item item = Fixtures.item(i);
+                        return new Object[]{item.getId(), item.getName(), item.getDescription(), true, Fixtures.OWNER_ID};
+                    });
+            entityManager = server.getBean(EntityManagerFactory.class).createEntityManager();
+        }
+
+        @TearDown
+        public void tearDown() {
+            entityManager.close();
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.item.dto.ItemDtoBooking;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private final ItemMapper itemMapper = new ItemMapper();
+    private final BookingMapper bookingMapper = new BookingMapper();
+    private Item item;
+    private Item requestedItem;
+    private Booking booking;
+
+    @Setup
+    public void setUp() {
+        List<Item> items = Fixtures.items(2);
+        requestedItem = items.get(0);
+        item = items.get(1);
+        booking = Fixtures.bookings(item, 1).get(0);
+    }
+
+    @Benchmark
+    public ItemDtoBooking itemToDtoBooking() {
+        return itemMapper.toDtoBooking(item);
+    }
+
+    @Benchmark
+    public ItemDtoBooking requestedItemToDtoBooking() {
+        return itemMapper.toDtoBooking(requestedItem);
+    }
+
+    @Benchmark
+    public BookingResponseDto bookingToResponse() {
+        return bookingMapper.bookingToResponse(booking);
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int size;
+
+    private ObjectWriter writer;
+    private BookingResponseDto booking;
+    private List<BookingResponseDto> page;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Fixtures.objectMapper();
+        writer = objectMapper.writer();
+        BookingMapper bookingMapper = new BookingMapper();
+        Item item = Fixtures.items(1).get(0);
+        page = Fixtures.bookings(item, size).stream()
+                .map(bookingMapper::bookingToResponse)
+                .collect(Collectors.toList());
+        booking = page.get(0);
+    }
+
+    @Benchmark
+    public byte[] bookingResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(booking);
+    }
+
+    @Benchmark
+    public byte[] bookingResponsePage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+}
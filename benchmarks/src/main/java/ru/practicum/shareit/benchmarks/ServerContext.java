@@ -0,0 +1,82 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The server application without its web layer, on an embedded H2 database migrated with the
+ * server's schema, for benchmarks of queries. Rows are inserted with JDBC batches.
+ */
+final class ServerContext implements AutoCloseable {
+
+    private static final int BATCH_SIZE = 10_000;
+    private final ConfigurableApplicationContext context;
+
+    private ServerContext(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    static ServerContext start(String database) {
+        return new ServerContext(new SpringApplicationBuilder(Server.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test",
+                        "--spring.datasource.url=jdbc:h2:mem:" + database,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN"));
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    JdbcTemplate jdbc() {
+        return context.getBean(JdbcTemplate.class);
+    }
+
+    /**
+     * Inserts rows made by {@code row} for indexes {@code 0..count-1}.
+     */
+    void insert(String sql, int count, RowFactory row) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            batch.add(row.values(i));
+            if (batch.size() == BATCH_SIZE || i == count - 1) {
+                jdbc().batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    interface RowFactory {
+        Object[] values(int index);
+    }
+
+    // the gateway's clients share packages with the server but are not part of it
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @AutoConfigurationPackage(basePackageClasses = ShareItServer.class)
+    @ComponentScan(basePackageClasses = ShareItServer.class, excludeFilters = @ComponentScan.Filter(
+            type = FilterType.REGEX,
+            pattern = {"ru\\.practicum\\.shareit\\.client\\..*", "ru\\.practicum\\.shareit\\..*Client",
+                    "ru\\.practicum\\.shareit\\.ShareIt(Server|Gateway)", "ru\\.practicum\\.shareit\\.benchmarks\\..*"}))
+    static class Server {
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.batch;
+
+import javax.validation.ValidationException;
+import java.util.List;
+
+public final class BatchSize {
+
+    public static final int MAX = 1000;
+
+    private BatchSize() {
+    }
+
+    /**
+     * Elements are validated one by one by the server, which reports a result for each of them,
+     * so only the size of the batch is checked here.
+     */
+    public static void check(List<?> elements) {
+        if (elements.isEmpty() || elements.size() > MAX) {
+            throw new ValidationException("Wrong batch size!");
+        }
+    }
+}
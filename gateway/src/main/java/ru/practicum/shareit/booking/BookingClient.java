@@ -2,64 +2,67 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.CacheTags;
+import ru.practicum.shareit.client.UpstreamClientFactory;
 
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, UpstreamClientFactory clients) {
+        super(serverUrl + API_PREFIX, clients);
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public CompletableFuture<ResponseEntity<Object>> getBookings(long userId, BookingState state, Integer from, String cursor, Integer size) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        ));
+        return get(withCursor("?state={state}&from={from}&size={size}", parameters, cursor), userId, parameters);
     }
 
 
-    public ResponseEntity<Object> bookItem(long userId, BookingDto bookingDto) {
-        return post("", userId, bookingDto);
+    public CompletableFuture<ResponseEntity<Object>> bookItem(long userId, BookingDto bookingDto) {
+        return invalidating(post("", userId, bookingDto), response -> CacheTags.bookingsOf(bookingDto.getItemId()));
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> bookItems(long userId, List<BookingDto> bookings) {
+        Set<String> tags = new HashSet<>();
+        bookings.forEach(booking -> tags.addAll(CacheTags.bookingsOf(booking.getItemId())));
+        return invalidating(post("/batch", userId, bookings), response -> tags);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getAllBookingByOwnerId(long ownerId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public CompletableFuture<ResponseEntity<Object>> getAllBookingByOwnerId(long ownerId, BookingState state, Integer from, String cursor,
+                                                         Integer size) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", ownerId, parameters);
+        ));
+        return get(withCursor("/owner?state={state}&from={from}&size={size}", parameters, cursor), ownerId, parameters);
 
     }
 
-    public ResponseEntity<Object> updateStatus(Long bookingId, Boolean approved, Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> updateStatus(Long bookingId, Boolean approved, Long userId) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
         );
-        return patch("/" + bookingId + "?approved={approved}", userId, parameters);
+        return invalidating(patch("/" + bookingId + "?approved={approved}", userId, parameters),
+                response -> CacheTags.bookingsOf(numberField(response, "item", "id").orElse(null)));
 
     }
 }
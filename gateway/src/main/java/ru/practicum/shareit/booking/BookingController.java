@@ -6,12 +6,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.batch.BatchSize;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -22,42 +25,52 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
                                               @RequestParam(name = "state", defaultValue = "all") String stateParam,
                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                              @RequestParam(name = "cursor", required = false) String cursor,
                                               @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, cursor={}, size={}", stateParam, userId, from, cursor, size);
+        return bookingClient.getBookings(userId, state, from, cursor, size);
     }
 
     @PostMapping
-    public ResponseEntity<Object> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
                                            @Validated @Valid @RequestBody BookingDto bookingDto) {
         log.info("Creating booking {}, userId={}", bookingDto, userId);
         return bookingClient.bookItem(userId, bookingDto);
     }
 
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<Object>> bookItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                            @RequestBody List<BookingDto> bookings) {
+        log.info("Creating {} bookings, userId={}", bookings.size(), userId);
+        BatchSize.check(bookings);
+        return bookingClient.bookItems(userId, bookings);
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
                                              @PathVariable Long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllBookingByOwnerId(@RequestHeader("X-Sharer-User-Id") long ownerId,//List<BookingResponseDto>
+    public CompletableFuture<ResponseEntity<Object>> getAllBookingByOwnerId(@RequestHeader("X-Sharer-User-Id") long ownerId,//List<BookingResponseDto>
                                                          @RequestParam(defaultValue = "ALL", name = "state") String state,
                                                          @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                         @RequestParam(name = "cursor", required = false) String cursor,
                                                          @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
         BookingState stateParam = BookingState.from(state)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
-        return bookingClient.getAllBookingByOwnerId(ownerId, stateParam, from, size);
+        return bookingClient.getAllBookingByOwnerId(ownerId, stateParam, from, cursor, size);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> patchStatus(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public CompletableFuture<ResponseEntity<Object>> patchStatus(@RequestHeader("X-Sharer-User-Id") Long userId,
                                               @PathVariable("bookingId") Long bookingId,
                                               @RequestParam("approved") Boolean approved) {
         return bookingClient.updateStatus(bookingId, approved, userId);
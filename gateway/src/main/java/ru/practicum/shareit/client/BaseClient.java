@@ -1,18 +1,66 @@
 package ru.practicum.shareit.client;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 public class BaseClient {
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(HttpHeaders.CONNECTION, "Keep-Alive",
+            HttpHeaders.PROXY_AUTHENTICATE, HttpHeaders.PROXY_AUTHORIZATION, HttpHeaders.TE, HttpHeaders.TRAILER,
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.UPGRADE, HttpHeaders.CONTENT_LENGTH);
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
     protected final RestTemplate rest;
+    @Nullable
+    private final WebClient webClient;
+    private final boolean passthrough;
+    @Nullable
+    private final ResponseCache cache;
 
     public BaseClient(RestTemplate rest) {
+        this(rest, false);
+    }
+
+    public BaseClient(RestTemplate rest, boolean passthrough) {
+        this(rest, null, passthrough);
+    }
+
+    protected BaseClient(String baseUrl, UpstreamClientFactory clients) {
+        this.rest = clients.restTemplate(baseUrl);
+        this.webClient = clients.isAsync() ? clients.webClient(baseUrl) : null;
+        this.passthrough = clients.isPassthrough();
+        this.cache = clients.responseCache();
+    }
+
+    /**
+     * @param webClient   non-blocking client to send requests with; when {@code null} requests are sent
+     *                    with {@code rest} and the returned futures are already completed
+     * @param passthrough relay upstream bodies as raw bytes instead of parsing them into objects
+     *                    and serializing them again
+     */
+    public BaseClient(RestTemplate rest, @Nullable WebClient webClient, boolean passthrough) {
         this.rest = rest;
+        this.webClient = webClient;
+        this.passthrough = passthrough;
+        this.cache = null;
     }
 
     private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
@@ -29,72 +77,216 @@ public class BaseClient {
         return responseBuilder.build();
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected static String withCursor(String path, Map<String, Object> parameters, @Nullable String cursor) {
+        if (cursor == null) return path;
+        parameters.put("cursor", cursor);
+        return path + "&cursor={cursor}";
+    }
+
+    protected CompletableFuture<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    /**
+     * Answers from the response cache when possible.
+     *
+     * @param tags    what the response shows, see {@link CacheTags}; the region's tag is added to them
+     * @param perUser whether the response depends on the requesting user
+     */
+    protected CompletableFuture<ResponseEntity<Object>> cachedGet(CacheRegion region, Collection<String> tags,
+                                                                 boolean perUser, String path, long userId,
+                                                                 @Nullable Map<String, Object> parameters) {
+        if (cache == null) {
+            return get(path, userId, parameters);
+        }
+        String key = ResponseCache.key(region, perUser ? userId : null, path, parameters);
+        Optional<ResponseEntity<Object>> cached = cache.get(key);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached.get());
+        }
+        List<String> entryTags = new ArrayList<>(tags);
+        entryTags.add(CacheTags.region(region));
+        long generation = cache.generation(entryTags);
+        return get(path, userId, parameters).thenApply(response -> {
+            cache.put(entryTags, generation, key, response);
+            return response;
+        });
+    }
+
+    protected CompletableFuture<ResponseEntity<Object>> invalidating(CompletableFuture<ResponseEntity<Object>> write,
+                                                                    String... tags) {
+        return invalidating(write, response -> Arrays.asList(tags));
+    }
+
+    /**
+     * Drops the cached responses that the write made stale once it completes. Writes rejected with
+     * a client error changed nothing and drop nothing.
+     *
+     * @param tags tags of what the write changed, given its response or {@code null} when it failed
+     *             without one
+     */
+    protected CompletableFuture<ResponseEntity<Object>> invalidating(CompletableFuture<ResponseEntity<Object>> write,
+                                                                    Function<ResponseEntity<Object>, Collection<String>> tags) {
+        if (cache == null) return write;
+        return write.whenComplete((response, error) -> {
+            if (response != null && response.getStatusCode().is4xxClientError()) return;
+            cache.invalidate(tags.apply(response));
+        });
+    }
+
+    /**
+     * Reads a number from a successful JSON response, following the given field names into nested objects.
+     */
+    protected static Optional<Long> numberField(@Nullable ResponseEntity<Object> response, String... path) {
+        if (response == null || !response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            return Optional.empty();
+        }
+        try {
+            Object body = response.getBody();
+            JsonNode node = body instanceof byte[] ? JSON.readTree((byte[]) body) : JSON.valueToTree(body);
+            for (String field : path) {
+                node = node.path(field);
+            }
+            return node.isIntegralNumber() ? Optional.of(node.longValue()) : Optional.empty();
+        } catch (IOException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Relays the upstream body to the caller as it arrives instead of reading it into memory first.
+     * Error responses are read whole and relayed like those of the other requests.
+     * Streamed responses bypass the response cache and the async client.
+     */
+    protected ResponseEntity<StreamingResponseBody> stream(String path, MediaType accept) {
+        URI uri = rest.getUriTemplateHandler().expand(path);
+        ClientHttpResponse response;
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            request.getHeaders().setAccept(List.of(accept));
+            response = request.execute();
+            if (rest.getErrorHandler().hasError(response)) {
+                try (response) {
+                    rest.getErrorHandler().handleError(uri, HttpMethod.GET, response);
+                } catch (HttpStatusCodeException e) {
+                    byte[] body = e.getResponseBodyAsByteArray();
+                    return upstreamError(e).body(out -> out.write(body));
+                }
+                return ResponseEntity.status(response.getRawStatusCode())
+                        .headers(forwardedHeaders(response.getHeaders()))
+                        .build();
+            }
+            return ResponseEntity.status(response.getRawStatusCode())
+                    .headers(forwardedHeaders(response.getHeaders()))
+                    .body(out -> {
+                        try (response) {
+                            StreamUtils.copy(response.getBody(), out);
+                        }
+                    });
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + e.getMessage(), e);
+        }
+    }
+
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, @Nullable Map<String, Object> parameters) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId, @Nullable Map<String, Object> parameters) {
         return patch(path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+    private <T> CompletableFuture<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId,
+                                                                           @Nullable Map<String, Object> parameters,
+                                                                           @Nullable T body) {
+        return webClient != null
+                ? sendAsync(webClient, method, path, userId, parameters, body)
+                : CompletableFuture.completedFuture(send(method, path, userId, parameters, body));
+    }
+
+    private <T> CompletableFuture<ResponseEntity<Object>> sendAsync(WebClient webClient, HttpMethod method, String path,
+                                                                  Long userId, @Nullable Map<String, Object> parameters,
+                                                                  @Nullable T body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(defaultHeaders(userId)));
+        WebClient.RequestHeadersSpec<?> spec = body != null ? request.bodyValue(body) : request;
+        Class<?> bodyType = passthrough ? byte[].class : Object.class;
+        return spec.exchangeToMono(response -> response.bodyToMono(bodyType)
+                        .map(responseBody -> relay(response, responseBody))
+                        .switchIfEmpty(Mono.fromSupplier(() -> relay(response, null))))
+                .toFuture();
+    }
+
+    private static ResponseEntity<Object> relay(ClientResponse response, @Nullable Object body) {
+        HttpHeaders headers = forwardedHeaders(response.headers().asHttpHeaders());
+        if (response.statusCode().isError() && headers.getContentType() == null) {
+            headers.setContentType(MediaType.APPLICATION_JSON);
+        }
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.rawStatusCode()).headers(headers);
+        if (body != null) {
+            return responseBuilder.body(body);
+        }
+        return responseBuilder.build();
+    }
+
+    private <T> ResponseEntity<Object> send(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        if (passthrough) {
+            return passThrough(method, path, parameters, requestEntity);
+        }
 
         ResponseEntity<Object> shareitServerResponse;
         try {
@@ -113,6 +305,44 @@ public class BaseClient {
 
     }
 
+    private <T> ResponseEntity<Object> passThrough(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                                   HttpEntity<T> requestEntity) {
+        ResponseEntity<byte[]> shareitServerResponse;
+        try {
+            if (parameters != null) {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
+            } else {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
+            }
+        } catch (HttpStatusCodeException e) {
+            return upstreamError(e).body(e.getResponseBodyAsByteArray());
+        }
+
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(shareitServerResponse.getStatusCode())
+                .headers(forwardedHeaders(shareitServerResponse.getHeaders()));
+        if (shareitServerResponse.hasBody()) {
+            return responseBuilder.body(shareitServerResponse.getBody());
+        }
+        return responseBuilder.build();
+    }
+
+    private static ResponseEntity.BodyBuilder upstreamError(HttpStatusCodeException e) {
+        HttpHeaders headers = forwardedHeaders(e.getResponseHeaders());
+        if (headers.getContentType() == null) headers.setContentType(MediaType.APPLICATION_JSON);
+        return ResponseEntity.status(e.getStatusCode()).headers(headers);
+    }
+
+    private static HttpHeaders forwardedHeaders(@Nullable HttpHeaders upstream) {
+        HttpHeaders headers = new HttpHeaders();
+        if (upstream == null) return headers;
+        upstream.forEach((name, values) -> {
+            if (HOP_BY_HOP_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
+    }
+
     private HttpHeaders defaultHeaders(Long userId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.client;
+
+public enum CacheRegion {
+    ITEMS,
+    REQUESTS
+}
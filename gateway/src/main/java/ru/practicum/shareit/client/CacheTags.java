@@ -0,0 +1,49 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * Tags of cached responses. A response is tagged with its region and with what it shows,
+ * and a write invalidates the tags of what it changed.
+ */
+public final class CacheTags {
+
+    /**
+     * Item search results, which may show any item.
+     */
+    public static final String SEARCH = "SEARCH";
+    /**
+     * Item search results filtered by a free window, which also depend on the bookings of any item.
+     */
+    public static final String AVAILABILITY_SEARCH = "AVAILABILITY_SEARCH";
+
+    private CacheTags() {
+    }
+
+    public static String region(CacheRegion region) {
+        return region.name();
+    }
+
+    public static String item(long itemId) {
+        return "ITEM:" + itemId;
+    }
+
+    public static String itemBookings(long itemId) {
+        return "ITEM_BOOKINGS:" + itemId;
+    }
+
+    public static String request(long requestId) {
+        return "REQUEST:" + requestId;
+    }
+
+    /**
+     * Tags of the responses that a change of the item's bookings makes stale; all item responses
+     * when the item is not known.
+     */
+    public static List<String> bookingsOf(@Nullable Long itemId) {
+        if (itemId == null) return List.of(region(CacheRegion.ITEMS));
+        return List.of(itemBookings(itemId), AVAILABILITY_SEARCH);
+    }
+}
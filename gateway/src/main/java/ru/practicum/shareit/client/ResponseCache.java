@@ -0,0 +1,198 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded LRU cache of upstream GET responses. Entries expire after a fixed TTL and are dropped
+ * by tag when the gateway proxies a request that changes what they were tagged with: every entry
+ * carries the tag of its region and the tags of the items or requests it shows, so a write drops
+ * only the responses of what it touched.
+ * Only raw relayed bodies are cached, so that the memory taken by an entry is known.
+ */
+@Component
+public class ResponseCache {
+
+    private static final int ENTRY_OVERHEAD = 128;
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<String>> keysByTag = new HashMap<>();
+    // a tag's generation is bumped by every invalidation of it, tags sharing a stripe share a generation
+    private final long[] generations = new long[GENERATION_STRIPES];
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+    private long bytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expirations;
+    private final Counter invalidations;
+
+    @Autowired
+    public ResponseCache(ResponseCacheProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this(properties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new), System::nanoTime);
+    }
+
+    ResponseCache(ResponseCacheProperties properties, MeterRegistry registry, LongSupplier nanoTime) {
+        this.enabled = properties.isEnabled();
+        this.maxBytes = properties.getMaxSize().toBytes();
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.nanoTime = nanoTime;
+        this.hits = registry.counter("shareit.gateway.cache.requests", "result", "hit");
+        this.misses = registry.counter("shareit.gateway.cache.requests", "result", "miss");
+        this.sizeEvictions = registry.counter("shareit.gateway.cache.evictions", "cause", "size");
+        this.expirations = registry.counter("shareit.gateway.cache.evictions", "cause", "expired");
+        this.invalidations = registry.counter("shareit.gateway.cache.evictions", "cause", "invalidated");
+        Gauge.builder("shareit.gateway.cache.hit.ratio", this, ResponseCache::hitRatio).register(registry);
+        Gauge.builder("shareit.gateway.cache.entries", this, ResponseCache::size).register(registry);
+        Gauge.builder("shareit.gateway.cache.bytes", this, ResponseCache::bytes)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public static String key(CacheRegion region, @Nullable Long userId, String path,
+                             @Nullable Map<String, Object> parameters) {
+        String key = region + ":" + (userId == null ? "*" : userId) + ":" + path;
+        return parameters == null ? key : key + new TreeMap<>(parameters);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized Optional<ResponseEntity<Object>> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        if (entry.expiresAt - nanoTime.getAsLong() < 0) {
+            remove(key);
+            expirations.increment();
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.response);
+    }
+
+    /**
+     * A stamp of the tags taken before the request is sent; it changes whenever any of them is invalidated.
+     */
+    public synchronized long generation(Collection<String> tags) {
+        long generation = 0;
+        for (String tag : tags) {
+            generation += generations[stripe(tag)];
+        }
+        return generation;
+    }
+
+    /**
+     * Stores a successful response unless one of its tags was invalidated after the request was sent,
+     * in which case the response may already be stale.
+     */
+    public synchronized void put(Collection<String> tags, long generation, String key, ResponseEntity<Object> response) {
+        if (response.getStatusCode() != HttpStatus.OK || !(response.getBody() instanceof byte[])) return;
+        if (generation(tags) != generation) return;
+        byte[] body = (byte[]) response.getBody();
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        headers.remove(HttpHeaders.DATE);
+        long size = ENTRY_OVERHEAD + 2L * key.length() + body.length + headersSize(headers);
+        if (size > maxBytes) return;
+
+        remove(key);
+        Set<String> entryTags = Set.copyOf(tags);
+        entries.put(key, new Entry(entryTags, ResponseEntity.ok().headers(headers).body(body), size,
+                nanoTime.getAsLong() + ttlNanos));
+        for (String tag : entryTags) {
+            keysByTag.computeIfAbsent(tag, ignored -> new HashSet<>()).add(key);
+        }
+        bytes += size;
+        while (bytes > maxBytes) {
+            remove(entries.keySet().iterator().next());
+            sizeEvictions.increment();
+        }
+    }
+
+    public synchronized void invalidate(Collection<String> tags) {
+        for (String tag : tags) {
+            generations[stripe(tag)]++;
+            Set<String> keys = keysByTag.get(tag);
+            if (keys == null) continue;
+            for (String key : new ArrayList<>(keys)) {
+                remove(key);
+                invalidations.increment();
+            }
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed == null) return;
+        bytes -= removed.size;
+        for (String tag : removed.tags) {
+            Set<String> keys = keysByTag.get(tag);
+            keys.remove(key);
+            if (keys.isEmpty()) keysByTag.remove(tag);
+        }
+    }
+
+    private static int stripe(String tag) {
+        return Math.floorMod(tag.hashCode(), GENERATION_STRIPES);
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized long bytes() {
+        return bytes;
+    }
+
+    private double hitRatio() {
+        double requests = hits.count() + misses.count();
+        return requests == 0 ? 0 : hits.count() / requests;
+    }
+
+    private static long headersSize(HttpHeaders headers) {
+        long size = 0;
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            size += 2L * header.getKey().length();
+            for (String value : header.getValue()) {
+                size += 2L * value.length();
+            }
+        }
+        return size;
+    }
+
+    private static final class Entry {
+        private final Set<String> tags;
+        private final ResponseEntity<Object> response;
+        private final long size;
+        private final long expiresAt;
+
+        private Entry(Set<String> tags, ResponseEntity<Object> response, long size, long expiresAt) {
+            this.tags = tags;
+            this.response = response;
+            this.size = size;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
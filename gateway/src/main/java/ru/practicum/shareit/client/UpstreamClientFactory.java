@@ -0,0 +1,63 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+/**
+ * Builds the upstream clients of every {@link BaseClient} on top of the shared connection pools.
+ * In async mode requests go through a non-blocking {@link WebClient}, so a waiting request does
+ * not hold a servlet thread; otherwise they go through a blocking {@link RestTemplate}.
+ */
+@Component
+public class UpstreamClientFactory {
+
+    private final RestTemplateBuilder restTemplateBuilder;
+    private final WebClient.Builder webClientBuilder;
+    private final ResponseCache responseCache;
+    private final boolean passthrough;
+    private final boolean async;
+
+    public UpstreamClientFactory(RestTemplateBuilder restTemplateBuilder, ClientHttpRequestFactory upstreamRequestFactory,
+                                 WebClient.Builder webClientBuilder, ClientHttpConnector upstreamConnector,
+                                 ResponseCache responseCache,
+                                 @Value("${shareit-gateway.passthrough:true}") boolean passthrough,
+                                 @Value("${shareit-gateway.async:true}") boolean async) {
+        this.restTemplateBuilder = restTemplateBuilder.requestFactory(() -> upstreamRequestFactory);
+        this.webClientBuilder = webClientBuilder.clientConnector(upstreamConnector);
+        this.responseCache = responseCache;
+        this.passthrough = passthrough;
+        this.async = async;
+    }
+
+    public RestTemplate restTemplate(String baseUrl) {
+        return restTemplateBuilder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(baseUrl))
+                .build();
+    }
+
+    public WebClient webClient(String baseUrl) {
+        return webClientBuilder.clone()
+                .uriBuilderFactory(new DefaultUriBuilderFactory(baseUrl))
+                .build();
+    }
+
+    @Nullable
+    public ResponseCache responseCache() {
+        return responseCache.isEnabled() ? responseCache : null;
+    }
+
+    public boolean isPassthrough() {
+        return passthrough;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+}
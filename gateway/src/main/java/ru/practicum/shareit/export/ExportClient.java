@@ -0,0 +1,25 @@
+package ru.practicum.shareit.export;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.UpstreamClientFactory;
+
+@Service
+public class ExportClient extends BaseClient {
+
+    private static final String API_PREFIX = "/export";
+
+    @Autowired
+    public ExportClient(@Value("${shareit-server.url}") String serverUrl, UpstreamClientFactory clients) {
+        super(serverUrl + API_PREFIX, clients);
+    }
+
+    public ResponseEntity<StreamingResponseBody> export(String table) {
+        return stream("/" + table, MediaType.APPLICATION_NDJSON);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.export;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Controller
+@RequestMapping(path = "/export")
+@RequiredArgsConstructor
+@Slf4j
+public class ExportController {
+
+    private final ExportClient exportClient;
+
+    @GetMapping("/users")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        log.info("Export users");
+        return exportClient.export("users");
+    }
+
+    @GetMapping("/items")
+    public ResponseEntity<StreamingResponseBody> exportItems() {
+        log.info("Export items");
+        return exportClient.export("items");
+    }
+
+    @GetMapping("/bookings")
+    public ResponseEntity<StreamingResponseBody> exportBookings() {
+        log.info("Export bookings");
+        return exportClient.export("bookings");
+    }
+
+    @GetMapping("/comments")
+    public ResponseEntity<StreamingResponseBody> exportComments() {
+        log.info("Export comments");
+        return exportClient.export("comments");
+    }
+}
@@ -2,16 +2,21 @@ package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.CacheRegion;
+import ru.practicum.shareit.client.CacheTags;
+import ru.practicum.shareit.client.UpstreamClientFactory;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemClient extends BaseClient {
@@ -19,50 +24,99 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, UpstreamClientFactory clients) {
+        super(serverUrl + API_PREFIX, clients);
     }
 
 
-    public ResponseEntity<Object> getAllItems(long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public CompletableFuture<ResponseEntity<Object>> getAllItems(long userId, Integer from, String cursor, Integer size) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("?from={from}&size={size}", userId, parameters);
+        ));
+        return get(withCursor("?from={from}&size={size}", parameters, cursor), userId, parameters);
     }
 
-    public ResponseEntity<Object> search(Long userId, String text, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public CompletableFuture<ResponseEntity<Object>> search(Long userId, String text, Integer from, String cursor, Integer size,
+                                                            LocalDateTime availableFrom, LocalDateTime availableTo) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "text", text,
                 "from", from,
                 "size", size
+        ));
+        String path = withCursor("/search?text={text}&from={from}&size={size}", parameters, cursor);
+        if (availableFrom != null) {
+            parameters.put("availableFrom", availableFrom);
+            path += "&availableFrom={availableFrom}";
+        }
+        if (availableTo != null) {
+            parameters.put("availableTo", availableTo);
+            path += "&availableTo={availableTo}";
+        }
+        List<String> tags = availableFrom != null || availableTo != null
+                ? List.of(CacheTags.SEARCH, CacheTags.AVAILABILITY_SEARCH) : List.of(CacheTags.SEARCH);
+        return cachedGet(CacheRegion.ITEMS, tags, false, path, userId, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
         );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return cachedGet(CacheRegion.ITEMS, List.of(CacheTags.itemBookings(itemId)), false,
+                "/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getItem(long itemId, long userId) {
-        return get("/" + itemId, userId);
+    public CompletableFuture<ResponseEntity<Object>> getItem(long itemId, long userId) {
+        return cachedGet(CacheRegion.ITEMS, List.of(CacheTags.item(itemId), CacheTags.itemBookings(itemId)), true,
+                "/" + itemId, userId, null);
     }
 
-    public ResponseEntity<Object> addNewItem(Long userId, ItemDto itemDto) {
-        return post("", userId, itemDto);
+    public CompletableFuture<ResponseEntity<Object>> addNewItem(Long userId, ItemDto itemDto) {
+        return invalidating(post("", userId, itemDto), response -> created(List.of(itemDto)));
     }
 
-    public ResponseEntity<Object> patch(Long userId, ItemDto itemDto, long itemId) {
-        return patch("/" + itemId, userId, itemDto);
+    public CompletableFuture<ResponseEntity<Object>> addNewItems(Long userId, List<ItemDto> items) {
+        return invalidating(post("/batch", userId, items), response -> created(items));
     }
 
-    public ResponseEntity<Object> deleteItem(long userId, long itemId) {
-        return delete("/" + itemId, userId);
+    public CompletableFuture<ResponseEntity<Object>> patch(Long userId, ItemDto itemDto, long itemId) {
+        return invalidating(patch("/" + itemId, userId, itemDto), response -> {
+            List<String> tags = new ArrayList<>(List.of(CacheTags.item(itemId), CacheTags.SEARCH));
+            if (response == null) {
+                tags.add(CacheTags.region(CacheRegion.REQUESTS));
+            } else {
+                numberField(response, "requestId").ifPresent(requestId -> tags.add(CacheTags.request(requestId)));
+            }
+            return tags;
+        });
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> deleteItem(long userId, long itemId) {
+        return invalidating(delete("/" + itemId, userId), CacheTags.region(CacheRegion.ITEMS),
+                CacheTags.region(CacheRegion.REQUESTS));
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> createComment(CommentDto comment, long userId, long itemId) {
+        return invalidating(post("/" + itemId + "/comment", userId, comment), CacheTags.item(itemId));
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getComments(long userId, long itemId, Integer from, String cursor,
+                                                                 Integer size) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "from", from,
+                "size", size
+        ));
+        return cachedGet(CacheRegion.ITEMS, List.of(CacheTags.item(itemId)), false,
+                withCursor("/" + itemId + "/comments?from={from}&size={size}", parameters, cursor), userId, parameters);
     }
 
-    public ResponseEntity<Object> createComment(CommentDto comment, long userId, long itemId) {
-        return post("/" + itemId + "/comment", userId, comment);
+    // new items show up in searches and in the requests they answer
+    private static List<String> created(List<ItemDto> items) {
+        List<String> tags = new ArrayList<>(List.of(CacheTags.SEARCH));
+        for (ItemDto item : items) {
+            if (item.getRequestId() != null) tags.add(CacheTags.request(item.getRequestId()));
+        }
+        return tags;
     }
 }
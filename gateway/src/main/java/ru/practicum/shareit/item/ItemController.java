@@ -2,10 +2,12 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.batch.BatchSize;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.markers.Create;
@@ -14,6 +16,9 @@ import ru.practicum.shareit.markers.Update;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping("/items")
@@ -27,38 +32,62 @@ public class ItemController {
 
 
     @GetMapping
-    public ResponseEntity<Object> getAllItems(@RequestHeader("X-Sharer-User-Id") long userId, //List<ItemDtoBooking>
+    public CompletableFuture<ResponseEntity<Object>> getAllItems(@RequestHeader("X-Sharer-User-Id") long userId, //List<ItemDtoBooking>
                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                              @RequestParam(name = "cursor", required = false) String cursor,
                                               @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        log.info("Get items with userId={}, from={}, size={}", userId, from, size);
-        return itemClient.getAllItems(userId, from, size);
+        log.info("Get items with userId={}, from={}, cursor={}, size={}", userId, from, cursor, size);
+        return itemClient.getAllItems(userId, from, cursor, size);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> search(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> search(@RequestHeader("X-Sharer-User-Id") long userId,
                                          @RequestParam("text") @NotNull String text, // List<ItemDto>
                                          @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        log.info("Get items with text={}, from={}, size={}", text, from, size);
-        return itemClient.search(userId, text.toLowerCase(), from, size);
+                                         @RequestParam(name = "cursor", required = false) String cursor,
+                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                         @RequestParam(name = "availableFrom", required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime availableFrom,
+                                         @RequestParam(name = "availableTo", required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime availableTo) {
+        log.info("Get items with text={}, from={}, cursor={}, size={}, availableFrom={}, availableTo={}",
+                text, from, cursor, size, availableFrom, availableTo);
+        return itemClient.search(userId, text.toLowerCase(), from, cursor, size, availableFrom, availableTo);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public CompletableFuture<ResponseEntity<Object>> getAvailability(@RequestHeader("X-Sharer-User-Id") long userId, //ItemAvailabilityDto
+                                                  @PathVariable long itemId,
+                                                  @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Get availability of itemId={} from={} to={}", itemId, from, to);
+        return itemClient.getAvailability(userId, itemId, from, to);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItem(@RequestHeader("X-Sharer-User-Id") long userId, //ItemDtoBooking
+    public CompletableFuture<ResponseEntity<Object>> getItem(@RequestHeader("X-Sharer-User-Id") long userId, //ItemDtoBooking
                                           @PathVariable long itemId) {
         log.info("Get items with userId={}, itemId={}", userId, itemId);
         return itemClient.getItem(itemId, userId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> add(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public CompletableFuture<ResponseEntity<Object>> add(@RequestHeader("X-Sharer-User-Id") Long userId,
                                       @Validated({Create.class}) @RequestBody ItemDto itemDto) {
         log.info("Create item {} by userId={}", itemDto, userId);
         return itemClient.addNewItem(userId, itemDto);
     }
 
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<Object>> addBatch(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                           @RequestBody List<ItemDto> items) {
+        log.info("Create {} items by userId={}", items.size(), userId);
+        BatchSize.check(items);
+        return itemClient.addNewItems(userId, items);
+    }
+
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> patch(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public CompletableFuture<ResponseEntity<Object>> patch(@RequestHeader("X-Sharer-User-Id") Long userId,
                                         @Validated({Update.class}) @RequestBody ItemDto itemDto,
                                         @PathVariable long itemId) {
         log.info("Patch itemId={} by userId={} to item {}", itemId, userId, itemDto);
@@ -66,7 +95,7 @@ public class ItemController {
     }
 
     @DeleteMapping("/{itemId}")
-    public ResponseEntity<Object> deleteItem(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> deleteItem(@RequestHeader("X-Sharer-User-Id") long userId,
                                              @PathVariable long itemId) {
         log.info("Delete item with itemId={} by user with userId={}", itemId, userId);
         return itemClient.deleteItem(userId, itemId);
@@ -74,12 +103,22 @@ public class ItemController {
 
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> createComment(@RequestHeader("X-Sharer-User-Id") long userId, //CommentDto
+    public CompletableFuture<ResponseEntity<Object>> createComment(@RequestHeader("X-Sharer-User-Id") long userId, //CommentDto
                                                 @PathVariable long itemId,
                                                 @Validated({Create.class}) @RequestBody CommentDto comment) {
         log.info("Create comment {} for item with itemId={} by user with userId={}", comment, itemId, userId);
         return itemClient.createComment(comment, userId, itemId);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public CompletableFuture<ResponseEntity<Object>> getComments(@RequestHeader("X-Sharer-User-Id") long userId, //List<CommentDto>
+                                              @PathVariable long itemId,
+                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                              @RequestParam(name = "cursor", required = false) String cursor,
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Get comments of itemId={}, from={}, cursor={}, size={}", itemId, from, cursor, size);
+        return itemClient.getComments(userId, itemId, from, cursor, size);
+    }
+
 
 }
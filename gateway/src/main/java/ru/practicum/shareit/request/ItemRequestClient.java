@@ -2,15 +2,18 @@ package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.CacheRegion;
+import ru.practicum.shareit.client.CacheTags;
+import ru.practicum.shareit.client.UpstreamClientFactory;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 @Service
@@ -18,32 +21,27 @@ public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, UpstreamClientFactory clients) {
+        super(serverUrl + API_PREFIX, clients);
     }
 
-    public ResponseEntity<Object> save(ItemRequestDto request, long ownerId) {
+    public CompletableFuture<ResponseEntity<Object>> save(ItemRequestDto request, long ownerId) {
         return post("", ownerId, request);
     }
 
-    public ResponseEntity<Object> getAllItemRequestsByOwnerId(long ownerId) {
+    public CompletableFuture<ResponseEntity<Object>> getAllItemRequestsByOwnerId(long ownerId) {
         return get("", ownerId);
     }
 
-    public ResponseEntity<Object> getAllItemRequests(long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public CompletableFuture<ResponseEntity<Object>> getAllItemRequests(long userId, Integer from, String cursor, Integer size) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("/all", userId, parameters);
+        ));
+        return get(withCursor("/all?from={from}&size={size}", parameters, cursor), userId, parameters);
     }
 
-    public ResponseEntity<Object> getItemRequestById(Long requestId, long userId) {
-        return get("/" + requestId, userId);
+    public CompletableFuture<ResponseEntity<Object>> getItemRequestById(Long requestId, long userId) {
+        return cachedGet(CacheRegion.REQUESTS, List.of(CacheTags.request(requestId)), true, "/" + requestId, userId, null);
     }
 }
@@ -11,6 +11,7 @@ import ru.practicum.shareit.request.dto.ItemRequestDto;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.util.concurrent.CompletableFuture;
 
 
 @Controller
@@ -23,26 +24,27 @@ public class ItemRequestController {
 
 
     @GetMapping
-    public ResponseEntity<Object> getMyOwnRequests(@RequestHeader("X-Sharer-User-Id") long ownerId) {
+    public CompletableFuture<ResponseEntity<Object>> getMyOwnRequests(@RequestHeader("X-Sharer-User-Id") long ownerId) {
         return itemRequestClient.getAllItemRequestsByOwnerId(ownerId);
     }
 
 
     @PostMapping
-    public ResponseEntity<Object> postRequest(@RequestHeader("X-Sharer-User-Id") long ownerId,
+    public CompletableFuture<ResponseEntity<Object>> postRequest(@RequestHeader("X-Sharer-User-Id") long ownerId,
                                               @Valid @RequestBody ItemRequestDto request) {
         return itemRequestClient.save(request, ownerId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequests(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getAllRequests(@RequestHeader("X-Sharer-User-Id") long userId,
                                                  @PositiveOrZero @RequestParam(name = "from", required = false, defaultValue = "0") Integer from,
+                                                 @RequestParam(name = "cursor", required = false) String cursor,
                                                  @Positive @RequestParam(name = "size", required = false, defaultValue = "10") Integer size) {
-        return itemRequestClient.getAllItemRequests(userId, from, size);
+        return itemRequestClient.getAllItemRequests(userId, from, cursor, size);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequestById(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getRequestById(@RequestHeader("X-Sharer-User-Id") long userId,
                                                  @PathVariable(name = "requestId") Long requestId) {
         return itemRequestClient.getItemRequestById(requestId, userId);
     }
@@ -2,46 +2,50 @@ package ru.practicum.shareit.user;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.CacheRegion;
+import ru.practicum.shareit.client.CacheTags;
+import ru.practicum.shareit.client.UpstreamClientFactory;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class UserClient extends BaseClient {
 
     private static final String API_PREFIX = "/users";
+    // names of users show up in comments and requests, and deleting a user deletes their items
+    private static final String[] CHANGED_TAGS = {CacheTags.region(CacheRegion.ITEMS), CacheTags.region(CacheRegion.REQUESTS)};
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, UpstreamClientFactory clients) {
+        super(serverUrl + API_PREFIX, clients);
     }
 
-    public ResponseEntity<Object> getAllUsers() {
+    public CompletableFuture<ResponseEntity<Object>> getAllUsers() {
         return get("");
     }
 
-    public ResponseEntity<Object> getById(Long id) {
+    public CompletableFuture<ResponseEntity<Object>> getById(Long id) {
         return get("/" + id);
     }
 
-    public ResponseEntity<Object> saveUser(UserDto user) {
+    public CompletableFuture<ResponseEntity<Object>> saveUser(UserDto user) {
         return post("", user);
     }
 
-    public ResponseEntity<Object> patch(Long userId, UserDto userDto) {
-        return patch("/" + userId, userDto);
+    public CompletableFuture<ResponseEntity<Object>> saveUsers(List<UserDto> users) {
+        return post("/batch", users);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> patch(Long userId, UserDto userDto) {
+        return invalidating(patch("/" + userId, userDto), CHANGED_TAGS);
     }
 
-    public ResponseEntity<Object> delete(Long userId) {
-        return delete("/" + userId);
+    public CompletableFuture<ResponseEntity<Object>> delete(Long userId) {
+        return invalidating(delete("/" + userId), CHANGED_TAGS);
     }
 }
@@ -6,11 +6,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.batch.BatchSize;
 import ru.practicum.shareit.markers.Create;
 import ru.practicum.shareit.markers.Update;
 import ru.practicum.shareit.user.dto.UserDto;
 
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @Controller
 @RequestMapping(path = "/users")
 @RequiredArgsConstructor
@@ -22,26 +26,33 @@ public class UserController {
 
 
     @GetMapping
-    public ResponseEntity<Object> getAllUsers() {
+    public CompletableFuture<ResponseEntity<Object>> getAllUsers() {
         // public List<UserDto> getAllUsers() {
         log.info("Get all users");
         return userClient.getAllUsers();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getUser(@PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<Object>> getUser(@PathVariable Long id) {
         log.info("Get user with id = {}", id);
         return userClient.getById(id);
     }
 
     @PostMapping
-    public ResponseEntity<Object> post(@Validated({Create.class}) @RequestBody UserDto user) {
+    public CompletableFuture<ResponseEntity<Object>> post(@Validated({Create.class}) @RequestBody UserDto user) {
         log.info("Create user {}", user);
         return userClient.saveUser(user);
     }
 
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<Object>> postBatch(@RequestBody List<UserDto> users) {
+        log.info("Create {} users", users.size());
+        BatchSize.check(users);
+        return userClient.saveUsers(users);
+    }
+
     @PatchMapping(path = "/{userId}")
-    public ResponseEntity<Object> update(@PathVariable("userId") long userId,
+    public CompletableFuture<ResponseEntity<Object>> update(@PathVariable("userId") long userId,
                                          @Validated({Update.class}) @RequestBody UserDto userDto) {
         log.info("Patch user with id={}, to {}", userId, userDto);
         userDto.setId(userId);
@@ -49,7 +60,7 @@ public class UserController {
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> delete(@PathVariable Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> delete(@PathVariable Long userId) {
         return userClient.delete(userId);
     }
 }
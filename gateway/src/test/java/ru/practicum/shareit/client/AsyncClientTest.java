@@ -0,0 +1,184 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import ru.practicum.shareit.error.ErrorHandler;
+import ru.practicum.shareit.user.UserClient;
+import ru.practicum.shareit.user.UserController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Sends requests through the non-blocking client to an upstream served by the JDK HTTP server.
+ */
+class AsyncClientTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch slowStarted = new CountDownLatch(1);
+    private ExecutorService executor;
+    private HttpServer server;
+    private ConnectionProvider connections;
+    private UserClient userClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/users/1", exchange -> respond(exchange, 200, "application/json;charset=UTF-8",
+                "{ \"id\" : 1, \"name\" : \"Иван\" }"));
+        server.createContext("/users/2", exchange -> respond(exchange, 404, "application/json",
+                "{\"error\":\"User not found\"}"));
+        server.createContext("/users/3", exchange -> respond(exchange, 500, null, "{\"error\":\"boom\"}"));
+        server.createContext("/users/4", exchange -> {
+            slowStarted.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "application/json", "{\"id\":4}");
+        });
+        server.start();
+
+        connections = ConnectionProvider.builder("test")
+                .maxConnections(1)
+                .pendingAcquireTimeout(Duration.ofMillis(200))
+                .build();
+        ResponseCacheProperties cacheProperties = new ResponseCacheProperties();
+        cacheProperties.setEnabled(false);
+        ResponseCache cache = new ResponseCache(cacheProperties, new SimpleMeterRegistry(), System::nanoTime);
+        userClient = new UserClient("http://localhost:" + server.getAddress().getPort(),
+                new UpstreamClientFactory(new RestTemplateBuilder(), new SimpleClientHttpRequestFactory(),
+                        WebClient.builder(), new ReactorClientHttpConnector(HttpClient.create(connections)), cache,
+                        true, true));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        connections.dispose();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void get_whenOk_thenFutureCompletesWithUpstreamResponse() {
+        ResponseEntity<Object> response = userClient.getById(1L).join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals("{ \"id\" : 1, \"name\" : \"Иван\" }".getBytes(StandardCharsets.UTF_8),
+                (byte[]) response.getBody());
+        assertEquals(MediaType.parseMediaType("application/json;charset=UTF-8"), response.getHeaders().getContentType());
+        assertEquals("1", response.getHeaders().getFirst("X-Upstream-Id"));
+    }
+
+    @Test
+    void get_whenNotAnswered_thenServletThreadNotHeld() throws Exception {
+        CompletableFuture<ResponseEntity<Object>> response = userClient.getById(4L);
+        assertTrue(slowStarted.await(5, TimeUnit.SECONDS));
+
+        assertFalse(response.isDone());
+        release.countDown();
+        assertEquals(HttpStatus.OK, response.get(5, TimeUnit.SECONDS).getStatusCode());
+    }
+
+    @Test
+    void get_whenUpstreamClientError_thenStatusAndBodyRelayed() {
+        ResponseEntity<Object> response = userClient.getById(2L).join();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertArrayEquals("{\"error\":\"User not found\"}".getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+    }
+
+    @Test
+    void get_whenUpstreamServerError_thenStatusAndBodyRelayedAsJson() {
+        ResponseEntity<Object> response = userClient.getById(3L).join();
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertArrayEquals("{\"error\":\"boom\"}".getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+    }
+
+    @Test
+    void controller_whenUpstreamErrors_thenCallerGetsUpstreamStatusAndBody() throws Exception {
+        MockMvc mvc = mvc();
+
+        perform(mvc, "/users/2")
+                .andExpect(status().isNotFound())
+                .andExpect(content().bytes("{\"error\":\"User not found\"}".getBytes(StandardCharsets.UTF_8)));
+        perform(mvc, "/users/3")
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes("{\"error\":\"boom\"}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void controller_whenConnectionPoolExhaustedPastTimeout_thenServiceUnavailable() throws Exception {
+        CompletableFuture<ResponseEntity<Object>> holder = userClient.getById(4L);
+        assertTrue(slowStarted.await(5, TimeUnit.SECONDS));
+
+        perform(mvc(), "/users/1")
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").exists());
+
+        release.countDown();
+        assertEquals(HttpStatus.OK, holder.get(5, TimeUnit.SECONDS).getStatusCode());
+    }
+
+    private MockMvc mvc() {
+        return MockMvcBuilders.standaloneSetup(new UserController(userClient))
+                .setControllerAdvice(new ErrorHandler())
+                .build();
+    }
+
+    private static ResultActions perform(MockMvc mvc, String path) throws Exception {
+        MvcResult result = mvc.perform(get(path)).andExpect(request().asyncStarted()).andReturn();
+        result.getAsyncResult(5_000);
+        return mvc.perform(asyncDispatch(result));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (contentType != null) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+        }
+        exchange.getResponseHeaders().set("X-Upstream-Id", exchange.getRequestURI().getPath().substring("/users/".length()));
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.UnorderedRequestExpectationManager;
+import org.springframework.web.reactive.function.client.WebClient;
+import ru.practicum.shareit.booking.BookingClient;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.ItemClient;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.ItemRequestClient;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withBadRequest;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class CacheInvalidationTest {
+
+    private static final String SERVER = "http://shareit-server";
+    private final LocalDateTime from = LocalDateTime.of(2030, 1, 1, 12, 0);
+    private final LocalDateTime to = from.plusDays(1);
+    private ResponseCache cache;
+    private ItemClient itemClient;
+    private MockRestServiceServer items;
+    private BookingClient bookingClient;
+    private MockRestServiceServer bookings;
+    private ItemRequestClient requestClient;
+    private MockRestServiceServer requests;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ResponseCache(new ResponseCacheProperties(), new SimpleMeterRegistry(), System::nanoTime);
+        MockServerRestTemplateCustomizer itemServer = new MockServerRestTemplateCustomizer(UnorderedRequestExpectationManager.class);
+        itemClient = new ItemClient(SERVER, clients(itemServer));
+        items = itemServer.getServer();
+        MockServerRestTemplateCustomizer bookingServer = new MockServerRestTemplateCustomizer(UnorderedRequestExpectationManager.class);
+        bookingClient = new BookingClient(SERVER, clients(bookingServer));
+        bookings = bookingServer.getServer();
+        MockServerRestTemplateCustomizer requestServer = new MockServerRestTemplateCustomizer(UnorderedRequestExpectationManager.class);
+        requestClient = new ItemRequestClient(SERVER, clients(requestServer));
+        requests = requestServer.getServer();
+    }
+
+    @Test
+    void bookItem_thenOnlyResponsesOfBookedItemRefetched() {
+        expectItemGet("/items/1", 2);
+        expectItemGet("/items/2", 1);
+        expectItemGet("/items/search?text=drill&from=0&size=10", 1);
+        expectItemGet("/items/search?text=drill&from=0&size=10"
+                + "&availableFrom=2030-01-01T12%3A00&availableTo=2030-01-02T12%3A00", 2);
+        bookings.expect(once(), requestTo(SERVER + "/bookings")).andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{\"id\":7}", MediaType.APPLICATION_JSON));
+
+        readItems();
+        readItems();
+        bookingClient.bookItem(5, new BookingDto(null, 1L, from, to, null, null)).join();
+        readItems();
+
+        items.verify();
+        bookings.verify();
+    }
+
+    @Test
+    void updateStatus_thenItemOfBookingInResponseRefetched() {
+        expectItemGet("/items/1", 1);
+        expectItemGet("/items/2", 2);
+        bookings.expect(once(), requestTo(SERVER + "/bookings/7?approved=true")).andExpect(method(HttpMethod.PATCH))
+                .andRespond(withSuccess("{\"id\":7,\"item\":{\"id\":2,\"name\":\"saw\"}}", MediaType.APPLICATION_JSON));
+        bookings.expect(once(), requestTo(SERVER + "/bookings/8?approved=true")).andExpect(method(HttpMethod.PATCH))
+                .andRespond(withBadRequest());
+
+        itemClient.getItem(1, 5).join();
+        itemClient.getItem(2, 5).join();
+        bookingClient.updateStatus(8L, true, 5L).join();
+        itemClient.getItem(1, 5).join();
+        itemClient.getItem(2, 5).join();
+        bookingClient.updateStatus(7L, true, 5L).join();
+        itemClient.getItem(1, 5).join();
+        itemClient.getItem(2, 5).join();
+
+        items.verify();
+        bookings.verify();
+    }
+
+    @Test
+    void itemWrites_thenItemAndAnsweredRequestRefetched() {
+        expectItemGet("/items/1", 3);
+        requests.expect(times(2), requestTo(SERVER + "/requests/3"))
+                .andRespond(withSuccess("{\"id\":3,\"items\":[{\"id\":1}]}", MediaType.APPLICATION_JSON));
+        items.expect(once(), requestTo(SERVER + "/items/1/comment")).andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{\"id\":4}", MediaType.APPLICATION_JSON));
+        items.expect(once(), requestTo(SERVER + "/items/1")).andExpect(method(HttpMethod.PATCH))
+                .andRespond(withSuccess("{\"id\":1,\"requestId\":3}", MediaType.APPLICATION_JSON));
+
+        itemClient.getItem(1, 5).join();
+        requestClient.getItemRequestById(3L, 5).join();
+        itemClient.createComment(new CommentDto(), 5, 1).join();
+        itemClient.getItem(1, 5).join();
+        requestClient.getItemRequestById(3L, 5).join();
+        itemClient.patch(5L, new ItemDto(), 1).join();
+        itemClient.getItem(1, 5).join();
+        requestClient.getItemRequestById(3L, 5).join();
+
+        items.verify();
+        requests.verify();
+    }
+
+    private void readItems() {
+        itemClient.getItem(1, 5).join();
+        itemClient.getItem(2, 5).join();
+        itemClient.search(5L, "drill", 0, null, 10, null, null).join();
+        itemClient.search(5L, "drill", 0, null, 10, from, to).join();
+    }
+
+    private void expectItemGet(String path, int times) {
+        items.expect(times(times), requestTo(SERVER + path)).andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON));
+    }
+
+    private UpstreamClientFactory clients(MockServerRestTemplateCustomizer server) {
+        UpstreamClientFactory clients = new UpstreamClientFactory(new RestTemplateBuilder(server),
+                new SimpleClientHttpRequestFactory(), WebClient.builder(), new ReactorClientHttpConnector(), cache,
+                true, false);
+        return clients;
+    }
+}
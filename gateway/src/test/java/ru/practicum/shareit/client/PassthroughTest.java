@@ -0,0 +1,144 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.reactive.function.client.WebClient;
+import ru.practicum.shareit.error.ErrorHandler;
+import ru.practicum.shareit.user.UserClient;
+import ru.practicum.shareit.user.UserController;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class PassthroughTest {
+
+    private static final String SERVER = "http://shareit-server";
+    private static final MediaType JSON_UTF8 = MediaType.parseMediaType("application/json;charset=UTF-8");
+
+    private UserClient userClient;
+    private MockRestServiceServer users;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheProperties cacheProperties = new ResponseCacheProperties();
+        cacheProperties.setEnabled(false);
+        ResponseCache cache = new ResponseCache(cacheProperties, new SimpleMeterRegistry(), System::nanoTime);
+        MockServerRestTemplateCustomizer server = new MockServerRestTemplateCustomizer();
+        userClient = new UserClient(SERVER, new UpstreamClientFactory(new RestTemplateBuilder(server),
+                new SimpleClientHttpRequestFactory(), WebClient.builder(), new ReactorClientHttpConnector(), cache,
+                true, false));
+        users = server.getServer();
+    }
+
+    @Test
+    void get_whenOk_thenStatusHeadersAndBodyRelayedAsIs() {
+        byte[] body = "{ \"id\" : 1,\n  \"name\" : \"Иван\", \"extra\" : [1.50, null] }".getBytes(StandardCharsets.UTF_8);
+        HttpHeaders headers = requestId("abc");
+        headers.set(HttpHeaders.CONNECTION, "close");
+        users.expect(requestTo(SERVER + "/users/1")).andExpect(method(HttpMethod.GET))
+                .andRespond(withStatus(HttpStatus.OK).contentType(JSON_UTF8).headers(headers).body(body));
+
+        ResponseEntity<Object> response = userClient.getById(1L).join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(body, (byte[]) response.getBody());
+        assertEquals(JSON_UTF8, response.getHeaders().getContentType());
+        assertEquals("abc", response.getHeaders().getFirst("X-Request-Id"));
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.CONNECTION), "hop-by-hop headers are not relayed");
+        users.verify();
+    }
+
+    @Test
+    void post_whenCreated_thenStatusAndBodyRelayedAsIs() {
+        byte[] body = "{\"id\":7,\"name\":\"user\",\"email\":\"user@mail.com\"}".getBytes(StandardCharsets.UTF_8);
+        users.expect(requestTo(SERVER + "/users")).andExpect(method(HttpMethod.POST))
+                .andRespond(withStatus(HttpStatus.CREATED).contentType(MediaType.APPLICATION_JSON)
+                        .location(URI.create("/users/7")).body(body));
+
+        ResponseEntity<Object> response = userClient.saveUser(new UserDto(0, "user", "user@mail.com")).join();
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertArrayEquals(body, (byte[]) response.getBody());
+        assertEquals("/users/7", response.getHeaders().getFirst(HttpHeaders.LOCATION));
+        users.verify();
+    }
+
+    @Test
+    void get_whenUpstreamError_thenErrorStatusHeadersAndBodyRelayedAsIs() {
+        byte[] body = "{\"error\":\"Пользователь не найден\"}".getBytes(StandardCharsets.UTF_8);
+        users.expect(requestTo(SERVER + "/users/2")).andExpect(method(HttpMethod.GET))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND).contentType(JSON_UTF8)
+                        .headers(requestId("def")).body(body));
+
+        ResponseEntity<Object> response = userClient.getById(2L).join();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertArrayEquals(body, (byte[]) response.getBody());
+        assertEquals(JSON_UTF8, response.getHeaders().getContentType());
+        assertEquals("def", response.getHeaders().getFirst("X-Request-Id"));
+        users.verify();
+    }
+
+    @Test
+    void get_whenUpstreamErrorWithoutContentType_thenRelayedAsJson() {
+        byte[] body = "{\"error\":\"boom\"}".getBytes(StandardCharsets.UTF_8);
+        users.expect(requestTo(SERVER + "/users/3"))
+                .andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR).body(body));
+
+        ResponseEntity<Object> response = userClient.getById(3L).join();
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertArrayEquals(body, (byte[]) response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        users.verify();
+    }
+
+    @Test
+    void controller_whenUpstreamError_thenCallerGetsUpstreamBytes() throws Exception {
+        byte[] body = "{ \"error\" : \"Пользователь не найден\" }".getBytes(StandardCharsets.UTF_8);
+        users.expect(requestTo(SERVER + "/users/2"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND).contentType(JSON_UTF8)
+                        .headers(requestId("def")).body(body));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new UserController(userClient))
+                .setControllerAdvice(new ErrorHandler())
+                .build();
+
+        MvcResult result = mvc.perform(get("/users/2")).andExpect(request().asyncStarted()).andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string("X-Request-Id", "def"))
+                .andExpect(content().contentType(JSON_UTF8))
+                .andExpect(content().bytes(body));
+        users.verify();
+    }
+
+    private static HttpHeaders requestId(String id) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Request-Id", id);
+        return headers;
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setMaxSize(DataSize.ofBytes(1_000));
+        properties.setTtl(Duration.ofSeconds(30));
+        cache = new ResponseCache(properties, meterRegistry, now::get);
+    }
+
+    @Test
+    void put_whenSuccessfulRawBody_thenServedFromCache() {
+        put("a", List.of(CacheTags.item(1)), 100);
+
+        assertArrayEquals(new byte[100], (byte[]) cache.get("a").orElseThrow().getBody());
+        assertEquals(1, meterRegistry.counter("shareit.gateway.cache.requests", "result", "hit").count());
+    }
+
+    @Test
+    void put_whenNotOkOrNotRaw_thenNotCached() {
+        List<String> tags = List.of(CacheTags.item(1));
+        cache.put(tags, cache.generation(tags), "a", ResponseEntity.status(HttpStatus.NOT_FOUND).body(new byte[1]));
+        cache.put(tags, cache.generation(tags), "b", ResponseEntity.ok("parsed"));
+
+        assertTrue(cache.get("a").isEmpty());
+        assertTrue(cache.get("b").isEmpty());
+    }
+
+    @Test
+    void put_whenOverMaxSize_thenLeastRecentlyUsedEvicted() {
+        put("a", List.of(CacheTags.item(1)), 300);
+        put("b", List.of(CacheTags.item(2)), 300);
+        cache.get("a");
+
+        put("c", List.of(CacheTags.item(3)), 300);
+
+        assertTrue(cache.get("a").isPresent());
+        assertTrue(cache.get("b").isEmpty());
+        assertTrue(cache.get("c").isPresent());
+        assertEquals(1, meterRegistry.counter("shareit.gateway.cache.evictions", "cause", "size").count());
+        assertTrue(meterRegistry.get("shareit.gateway.cache.bytes").gauge().value() <= 1_000);
+    }
+
+    @Test
+    void put_whenLargerThanCache_thenNotCachedAndNothingEvicted() {
+        put("a", List.of(CacheTags.item(1)), 300);
+        put("b", List.of(CacheTags.item(2)), 2_000);
+
+        assertTrue(cache.get("a").isPresent());
+        assertTrue(cache.get("b").isEmpty());
+    }
+
+    @Test
+    void get_whenTtlPassed_thenExpired() {
+        put("a", List.of(CacheTags.item(1)), 100);
+
+        now.addAndGet(Duration.ofSeconds(29).toNanos());
+        assertTrue(cache.get("a").isPresent());
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertTrue(cache.get("a").isEmpty());
+        assertEquals(1, meterRegistry.counter("shareit.gateway.cache.evictions", "cause", "expired").count());
+        assertEquals(0, meterRegistry.get("shareit.gateway.cache.bytes").gauge().value());
+    }
+
+    @Test
+    void invalidate_thenOnlyEntriesWithTagDropped() {
+        put("a", List.of(CacheTags.item(1), CacheTags.region(CacheRegion.ITEMS)), 100);
+        put("b", List.of(CacheTags.item(2), CacheTags.region(CacheRegion.ITEMS)), 100);
+        put("c", List.of(CacheTags.request(1), CacheTags.region(CacheRegion.REQUESTS)), 100);
+
+        cache.invalidate(List.of(CacheTags.item(1)));
+        assertTrue(cache.get("a").isEmpty());
+        assertTrue(cache.get("b").isPresent());
+
+        cache.invalidate(List.of(CacheTags.region(CacheRegion.ITEMS)));
+        assertTrue(cache.get("b").isEmpty());
+        assertTrue(cache.get("c").isPresent());
+        assertEquals(2, meterRegistry.counter("shareit.gateway.cache.evictions", "cause", "invalidated").count());
+        assertEquals(1, meterRegistry.get("shareit.gateway.cache.entries").gauge().value());
+    }
+
+    @Test
+    void put_whenTagInvalidatedWhileRequestInFlight_thenResponseNotCached() {
+        List<String> tags = List.of(CacheTags.item(1), CacheTags.region(CacheRegion.ITEMS));
+        long generation = cache.generation(tags);
+        long otherGeneration = cache.generation(List.of(CacheTags.item(2)));
+
+        cache.invalidate(List.of(CacheTags.item(1)));
+        cache.put(tags, generation, "a", ResponseEntity.ok(new byte[100]));
+        cache.put(List.of(CacheTags.item(2)), otherGeneration, "b", ResponseEntity.ok(new byte[100]));
+
+        assertTrue(cache.get("a").isEmpty());
+        assertTrue(cache.get("b").isPresent(), "invalidating another item does not hold back this one");
+    }
+
+    private void put(String key, List<String> tags, int bodySize) {
+        cache.put(tags, cache.generation(tags), key, ResponseEntity.ok(new byte[bodySize]));
+    }
+}
@@ -0,0 +1,186 @@
+package ru.practicum.shareit.export;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ResponseCacheProperties;
+import ru.practicum.shareit.client.UpstreamClientFactory;
+import ru.practicum.shareit.error.ErrorHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Streams exports from an upstream served by the JDK HTTP server.
+ */
+class ExportStreamTest {
+
+    private static final String FIRST = "{\"id\":1,\"name\":\"Иван\"}\n";
+    private static final String SECOND = "{\"id\":2,\"name\":\"Пётр\"}\n";
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ExecutorService executor;
+    private HttpServer server;
+    private PoolingHttpClientConnectionManager connections;
+    private CloseableHttpClient httpClient;
+    private ExportClient exportClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/export/users", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", MediaType.APPLICATION_NDJSON_VALUE);
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(FIRST.getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                release.await(10, TimeUnit.SECONDS);
+                out.write(SECOND.getBytes(StandardCharsets.UTF_8));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.createContext("/export/items", exchange -> respond(exchange, 404, "application/json",
+                "{\"error\":\"Таблица не найдена\"}"));
+        server.createContext("/export/bookings", exchange -> respond(exchange, 500, null, "{\"error\":\"boom\"}"));
+        server.start();
+
+        connections = new PoolingHttpClientConnectionManager();
+        httpClient = HttpClients.custom().setConnectionManager(connections).build();
+        ResponseCacheProperties cacheProperties = new ResponseCacheProperties();
+        cacheProperties.setEnabled(false);
+        ResponseCache cache = new ResponseCache(cacheProperties,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        exportClient = new ExportClient("http://localhost:" + server.getAddress().getPort(),
+                new UpstreamClientFactory(new RestTemplateBuilder(), new HttpComponentsClientHttpRequestFactory(httpClient),
+                        WebClient.builder(), new ReactorClientHttpConnector(), cache, true, false));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        release.countDown();
+        httpClient.close();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void export_thenLinesRelayedAsTheyArrive() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = exportClient.export("users");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+
+        CountDownLatch firstWritten = new CountDownLatch(1);
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        Future<?> relay = executor.submit(() -> {
+            response.getBody().writeTo(new OutputStream() {
+                @Override
+                public void write(int b) {
+                    received.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    received.write(b, off, len);
+                    firstWritten.countDown();
+                }
+            });
+            return null;
+        });
+
+        assertTrue(firstWritten.await(5, TimeUnit.SECONDS), "first line relayed before the upstream finished");
+        assertFalse(relay.isDone());
+        release.countDown();
+        relay.get(5, TimeUnit.SECONDS);
+        assertEquals(FIRST + SECOND, received.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void export_whenRequestedThroughController_thenWholeBodyRelayed() throws Exception {
+        release.countDown();
+
+        perform("/export/users")
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().bytes((FIRST + SECOND).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void export_whenUpstreamClientError_thenErrorStatusAndBodyRelayed() throws Exception {
+        perform("/export/items")
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes("{\"error\":\"Таблица не найдена\"}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void export_whenUpstreamError_thenConnectionReleasedBeforeBodyWritten() {
+        ResponseEntity<StreamingResponseBody> response = exportClient.export("items");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(0, connections.getTotalStats().getLeased());
+    }
+
+    @Test
+    void export_whenUpstreamServerErrorWithoutContentType_thenRelayedAsJson() throws Exception {
+        perform("/export/bookings")
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes("{\"error\":\"boom\"}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private ResultActions perform(String path) throws Exception {
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new ExportController(exportClient))
+                .setControllerAdvice(new ErrorHandler())
+                .build();
+        MvcResult result = mvc.perform(get(path)).andExpect(request().asyncStarted()).andReturn();
+        result.getAsyncResult(5_000);
+        return mvc.perform(asyncDispatch(result));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (contentType != null) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
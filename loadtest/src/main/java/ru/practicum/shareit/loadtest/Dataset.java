@@ -0,0 +1,161 @@
+package ru.practicum.shareit.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Users, items and bookings the scenario works with. Seeded through the gateway before the run
+ * and extended by the requests of the run itself.
+ */
+final class Dataset {
+
+    static final String[] WORDS = {"drill", "hammer", "saw", "ladder", "bike", "tent", "kayak", "camera",
+            "projector", "guitar", "mixer", "vacuum", "cordless", "electric", "wooden", "folding"};
+
+    private static final Logger log = LoggerFactory.getLogger(Dataset.class);
+    private static final Duration BOOKING_SLOT = Duration.ofMinutes(10);
+
+    final Pool<Long> users = new Pool<>();
+    final Pool<ItemRef> items = new Pool<>();
+    final Pool<BookedItem> commentable = new Pool<>();
+    final Queue<BookingRef> waitingBookings = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong slots = new AtomicLong();
+    private final LocalDateTime firstSlot = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+    static Dataset seed(ShareItClient client, LoadTestOptions options, Random random) throws InterruptedException {
+        Dataset dataset = new Dataset();
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        int users = options.getInt("users");
+        int itemsPerUser = options.getInt("items-per-user");
+        if (users < 2 || itemsPerUser < 1) {
+            throw new IllegalArgumentException("At least two users with one item each are needed");
+        }
+
+        for (int i = 0; i < users; i++) {
+            dataset.users.add(client.call("POST", "/users", null,
+                    Map.of("name", "user " + i, "email", "user" + i + "-" + run + "@shareit.test")).get("id").asLong());
+        }
+        for (Long owner : dataset.users.snapshot()) {
+            for (int i = 0; i < itemsPerUser; i++) {
+                dataset.items.add(new ItemRef(client.call("POST", "/items", owner, itemBody(random))
+                        .get("id").asLong(), owner));
+            }
+        }
+
+        // bookings that end right away, so that their bookers may comment the items
+        LocalDateTime lastEnd = LocalDateTime.now();
+        List<BookedItem> finished = new ArrayList<>();
+        for (Long booker : dataset.users.snapshot()) {
+            ItemRef item = dataset.itemNotOwnedBy(booker, random);
+            LocalDateTime start = LocalDateTime.now().plusSeconds(2);
+            lastEnd = start.plusSeconds(1);
+            long bookingId = client.call("POST", "/bookings", booker, bookingBody(item.id, start, lastEnd))
+                    .get("id").asLong();
+            client.call("PATCH", "/bookings/" + bookingId + "?approved=true", item.ownerId, null);
+            finished.add(new BookedItem(item.id, booker));
+        }
+
+        for (int i = 0; i < options.getInt("waiting-bookings"); i++) {
+            long booker = dataset.users.random(random);
+            ItemRef item = dataset.itemNotOwnedBy(booker, random);
+            LocalDateTime[] window = dataset.nextWindow();
+            long bookingId = client.call("POST", "/bookings", booker, bookingBody(item.id, window[0], window[1]))
+                    .get("id").asLong();
+            dataset.waitingBookings.add(new BookingRef(bookingId, item.ownerId));
+        }
+
+        long wait = Duration.between(LocalDateTime.now(), lastEnd).toMillis() + 1000;
+        if (wait > 0) Thread.sleep(wait);
+        finished.forEach(dataset.commentable::add);
+        log.info("Seeded {} users, {} items, {} waiting bookings", dataset.users.size(), dataset.items.size(),
+                dataset.waitingBookings.size());
+        return dataset;
+    }
+
+    static Map<String, Object> itemBody(Random random) {
+        String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+        return Map.of("name", name,
+                "description", "a " + WORDS[random.nextInt(WORDS.length)] + " " + name + " in good condition",
+                "available", true);
+    }
+
+    static Map<String, Object> bookingBody(long itemId, LocalDateTime start, LocalDateTime end) {
+        return Map.of("itemId", itemId,
+                "start", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(start),
+                "end", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(end));
+    }
+
+    /**
+     * Every booking gets its own time slot, so bookings never overlap whatever item they are for.
+     */
+    LocalDateTime[] nextWindow() {
+        LocalDateTime start = firstSlot.plus(BOOKING_SLOT.multipliedBy(slots.getAndIncrement()));
+        return new LocalDateTime[]{start, start.plus(BOOKING_SLOT.dividedBy(2))};
+    }
+
+    ItemRef itemNotOwnedBy(long userId, Random random) {
+        while (true) {
+            ItemRef item = items.random(random);
+            if (item.ownerId != userId) return item;
+        }
+    }
+
+    static final class ItemRef {
+        final long id;
+        final long ownerId;
+
+        ItemRef(long id, long ownerId) {
+            this.id = id;
+            this.ownerId = ownerId;
+        }
+    }
+
+    static final class BookedItem {
+        final long itemId;
+        final long bookerId;
+
+        BookedItem(long itemId, long bookerId) {
+            this.itemId = itemId;
+            this.bookerId = bookerId;
+        }
+    }
+
+    static final class BookingRef {
+        final long id;
+        final long ownerId;
+
+        BookingRef(long id, long ownerId) {
+            this.id = id;
+            this.ownerId = ownerId;
+        }
+    }
+
+    static final class Pool<T> {
+        private final List<T> elements = new ArrayList<>();
+
+        synchronized void add(T element) {
+            elements.add(element);
+        }
+
+        synchronized T random(Random random) {
+            return elements.get(random.nextInt(elements.size()));
+        }
+
+        synchronized int size() {
+            return elements.size();
+        }
+
+        synchronized List<T> snapshot() {
+            return new ArrayList<>(elements);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Latencies and failures of one endpoint. Latency is measured from the moment the request was
+ * scheduled to be sent, so that time spent queued behind slow requests is not hidden.
+ */
+final class EndpointStats {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private int errors;
+    private int dropped;
+
+    synchronized void record(long latencyNanos, boolean success) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (!success) errors++;
+    }
+
+    synchronized void drop() {
+        dropped++;
+    }
+
+    void addAll(EndpointStats other) {
+        long[] otherLatencies;
+        int otherCount;
+        int otherErrors;
+        int otherDropped;
+        synchronized (other) {
+            otherLatencies = other.latencies;
+            otherCount = other.count;
+            otherErrors = other.errors;
+            otherDropped = other.dropped;
+        }
+        synchronized (this) {
+            if (count + otherCount > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + otherCount));
+            }
+            System.arraycopy(otherLatencies, 0, latencies, count, otherCount);
+            count += otherCount;
+            errors += otherErrors;
+            dropped += otherDropped;
+        }
+    }
+
+    synchronized Summary summarize(String endpoint, double seconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int attempts = count + dropped;
+        return new Summary(endpoint, count, errors, dropped,
+                attempts == 0 ? 0 : (double) (errors + dropped) / attempts,
+                count / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                count == 0 ? 0 : sorted[count - 1] / 1_000_000.0);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static final class Summary {
+        private final String endpoint;
+        private final int requests;
+        private final int errors;
+        private final int dropped;
+        private final double errorRate;
+        private final double throughput;
+        private final double p50Ms;
+        private final double p95Ms;
+        private final double p99Ms;
+        private final double maxMs;
+    }
+}
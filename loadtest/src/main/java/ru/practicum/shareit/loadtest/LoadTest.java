@@ -0,0 +1,193 @@
+package ru.practicum.shareit.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.practicum.shareit.loadtest.EndpointStats.Summary;
+import ru.practicum.shareit.loadtest.Scenario.Call;
+import ru.practicum.shareit.loadtest.Scenario.Operation;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Drives a weighted mix of the Postman flows through the gateway at a fixed request rate and
+ * reports latency percentiles, throughput and error rate per endpoint. Unless {@code --gateway-url}
+ * points to running applications, the server (on H2) and the gateway are started from their
+ * executable jars.
+ */
+public class LoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    private final LoadTestOptions options;
+    private final Scenario scenario;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+
+    private LoadTest(LoadTestOptions options, Scenario scenario) {
+        this.options = options;
+        this.scenario = scenario;
+        this.maxInFlight = options.getInt("max-in-flight");
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        List<AppProcess> processes = new ArrayList<>();
+        Thread shutdownHook = new Thread(() -> stopAll(processes));
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        try {
+            String gatewayUrl = options.get("gateway-url");
+            if (gatewayUrl.isEmpty()) {
+                gatewayUrl = startApplications(options, processes);
+            }
+            Random random = new Random(Long.parseLong(options.get("seed")));
+            ShareItClient client = new ShareItClient(gatewayUrl);
+            Dataset dataset = Dataset.seed(client, options, random);
+            LoadTest loadTest = new LoadTest(options, new Scenario(client, dataset, random, options.get("mix")));
+
+            log.info("Warming up for {}", options.getDuration("warmup"));
+            loadTest.run(options.getDuration("warmup"));
+            Duration duration = options.getDuration("duration");
+            log.info("Running {} requests per second for {}", options.get("rate"), duration);
+            Map<String, EndpointStats> stats = loadTest.run(duration);
+            loadTest.report(stats, duration);
+        } finally {
+            stopAll(processes);
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        }
+    }
+
+    private static String startApplications(LoadTestOptions options, List<AppProcess> processes)
+            throws IOException, InterruptedException {
+        Path logDir = Paths.get(options.get("log-dir"));
+        List<String> jvmArgs = options.getList("app-jvm-args");
+        String serverUrl = "http://localhost:" + options.get("server-port");
+        String gatewayUrl = "http://localhost:" + options.get("gateway-port");
+
+        List<String> serverArgs = new ArrayList<>(List.of("--spring.profiles.active=test",
+                "--server.port=" + options.get("server-port")));
+        serverArgs.addAll(options.getList("server-args"));
+        AppProcess server = AppProcess.start("server", jar(options, "server"), logDir, jvmArgs, serverArgs, Map.of());
+        processes.add(server);
+
+        List<String> gatewayArgs = new ArrayList<>(List.of("--server.port=" + options.get("gateway-port")));
+        gatewayArgs.addAll(options.getList("gateway-args"));
+        AppProcess gateway = AppProcess.start("gateway", jar(options, "gateway"), logDir, jvmArgs, gatewayArgs,
+                Map.of("SHAREIT_SERVER_URL", serverUrl));
+        processes.add(gateway);
+
+        server.awaitReady(serverUrl + "/users", Duration.ofMinutes(3));
+        gateway.awaitReady(gatewayUrl + "/users", Duration.ofMinutes(3));
+        return gatewayUrl;
+    }
+
+    private static Path jar(LoadTestOptions options, String module) throws IOException {
+        String configured = options.get(module + "-jar");
+        if (!configured.isEmpty()) return Paths.get(configured);
+        Path target = Paths.get(module, "target");
+        if (Files.isDirectory(target)) {
+            try (DirectoryStream<Path> jars = Files.newDirectoryStream(target, "*-exec.jar")) {
+                for (Path jar : jars) {
+                    return jar;
+                }
+            }
+        }
+        throw new IllegalStateException("No executable " + module + " jar in " + target.toAbsolutePath()
+                + ", build it with mvn package or pass --" + module + "-jar");
+    }
+
+    private static void stopAll(List<AppProcess> processes) {
+        for (int i = processes.size() - 1; i >= 0; i--) {
+            try {
+                processes.get(i).close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        processes.clear();
+    }
+
+    /**
+     * Sends requests on a fixed schedule whatever the response times are, so that a slow
+     * system under test cannot lower the offered load.
+     */
+    private Map<String, EndpointStats> run(Duration duration) throws InterruptedException {
+        Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+        double intervalNanos = 1_000_000_000.0 / Integer.parseInt(options.get("rate"));
+        long start = System.nanoTime();
+        for (long i = 0; ; i++) {
+            long scheduled = start + (long) (i * intervalNanos);
+            if (scheduled - start >= duration.toNanos()) break;
+            long delay = scheduled - System.nanoTime();
+            if (delay > 0) LockSupport.parkNanos(delay);
+
+            Operation operation = scenario.next();
+            if (!inFlight.tryAcquire()) {
+                stats.computeIfAbsent(operation.getEndpoint(), endpoint -> new EndpointStats()).drop();
+                continue;
+            }
+            Call call;
+            try {
+                call = scenario.execute(operation);
+            } catch (RuntimeException e) {
+                inFlight.release();
+                throw e;
+            }
+            EndpointStats endpointStats = stats.computeIfAbsent(call.operation.getEndpoint(),
+                    endpoint -> new EndpointStats());
+            call.response.whenComplete((response, error) -> {
+                endpointStats.record(System.nanoTime() - scheduled, error == null && response.statusCode() < 400);
+                inFlight.release();
+            });
+        }
+        if (!inFlight.tryAcquire(maxInFlight, 1, TimeUnit.MINUTES)) {
+            log.warn("Requests still in flight after the run");
+        } else {
+            inFlight.release(maxInFlight);
+        }
+        return stats;
+    }
+
+    private void report(Map<String, EndpointStats> stats, Duration duration) throws IOException {
+        double seconds = duration.toMillis() / 1000.0;
+        List<Summary> summaries = stats.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> entry.getValue().summarize(entry.getKey(), seconds))
+                .collect(Collectors.toList());
+        EndpointStats total = new EndpointStats();
+        stats.values().forEach(total::addAll);
+        summaries.add(total.summarize("TOTAL", seconds));
+
+        StringBuilder table = new StringBuilder(String.format("%n%-28s %8s %7s %8s %8s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Dropped", "Error %", "Req/s", "p50 ms", "p95 ms", "p99 ms",
+                "Max ms"));
+        for (Summary summary : summaries) {
+            table.append(String.format(Locale.ROOT, "%-28s %8d %7d %8d %8.2f %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    summary.getEndpoint(), summary.getRequests(), summary.getErrors(), summary.getDropped(),
+                    summary.getErrorRate() * 100, summary.getThroughput(), summary.getP50Ms(), summary.getP95Ms(),
+                    summary.getP99Ms(), summary.getMaxMs()));
+        }
+        System.out.println(table);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("options", options.asMap());
+        result.put("durationSeconds", seconds);
+        result.put("endpoints", summaries);
+        Path output = Paths.get(options.get("output"));
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), result);
+        log.info("Results written to {}", output.toAbsolutePath());
+    }
+}
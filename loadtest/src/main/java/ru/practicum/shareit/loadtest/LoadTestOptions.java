@@ -0,0 +1,77 @@
+package ru.practicum.shareit.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.*;
+
+final class LoadTestOptions {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("gateway-url", "");
+        DEFAULTS.put("server-jar", "");
+        DEFAULTS.put("gateway-jar", "");
+        DEFAULTS.put("server-port", "19090");
+        DEFAULTS.put("gateway-port", "18080");
+        DEFAULTS.put("app-jvm-args", "-Xmx512m");
+        DEFAULTS.put("server-args", "");
+        DEFAULTS.put("gateway-args", "");
+        DEFAULTS.put("log-dir", "target/loadtest");
+        DEFAULTS.put("users", "20");
+        DEFAULTS.put("items-per-user", "10");
+        DEFAULTS.put("waiting-bookings", "200");
+        DEFAULTS.put("rate", "100");
+        DEFAULTS.put("warmup", "10s");
+        DEFAULTS.put("duration", "30s");
+        DEFAULTS.put("max-in-flight", "1000");
+        DEFAULTS.put("mix", "search:30,get-item:20,list-bookings:10,list-owner-bookings:5,"
+                + "create-item:10,book:10,approve:5,comment:10");
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("output", "loadtest-result.json");
+    }
+
+    private final Map<String, String> values;
+
+    private LoadTestOptions(Map<String, String> values) {
+        this.values = values;
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, separator);
+            if (!DEFAULTS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option " + name + ", known options: " + DEFAULTS.keySet());
+            }
+            values.put(name, arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(values);
+    }
+
+    String get(String name) {
+        return values.get(name);
+    }
+
+    int getInt(String name) {
+        return Integer.parseInt(values.get(name));
+    }
+
+    Duration getDuration(String name) {
+        return DurationStyle.detectAndParse(values.get(name));
+    }
+
+    List<String> getList(String name) {
+        String value = values.get(name).trim();
+        return value.isEmpty() ? List.of() : Arrays.asList(value.split("\\s+"));
+    }
+
+    Map<String, String> asMap() {
+        return Collections.unmodifiableMap(values);
+    }
+}
@@ -0,0 +1,154 @@
+package ru.practicum.shareit.loadtest;
+
+import ru.practicum.shareit.loadtest.Dataset.BookedItem;
+import ru.practicum.shareit.loadtest.Dataset.BookingRef;
+import ru.practicum.shareit.loadtest.Dataset.ItemRef;
+
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Weighted mix of the flows of the Postman collection. Operations are picked and sent from a
+ * single thread; responses update the dataset from the HTTP client threads.
+ */
+final class Scenario {
+
+    enum Operation {
+        SEARCH("search", "GET /items/search"),
+        GET_ITEM("get-item", "GET /items/{id}"),
+        LIST_BOOKINGS("list-bookings", "GET /bookings"),
+        LIST_OWNER_BOOKINGS("list-owner-bookings", "GET /bookings/owner"),
+        CREATE_ITEM("create-item", "POST /items"),
+        BOOK("book", "POST /bookings"),
+        APPROVE("approve", "PATCH /bookings/{id}"),
+        COMMENT("comment", "POST /items/{id}/comment");
+
+        private final String option;
+        private final String endpoint;
+
+        Operation(String option, String endpoint) {
+            this.option = option;
+            this.endpoint = endpoint;
+        }
+
+        String getEndpoint() {
+            return endpoint;
+        }
+
+        static Operation of(String option) {
+            return Arrays.stream(values())
+                    .filter(operation -> operation.option.equals(option))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown operation " + option));
+        }
+    }
+
+    static final class Call {
+        final Operation operation;
+        final CompletableFuture<HttpResponse<String>> response;
+
+        Call(Operation operation, CompletableFuture<HttpResponse<String>> response) {
+            this.operation = operation;
+            this.response = response;
+        }
+    }
+
+    private final ShareItClient client;
+    private final Dataset dataset;
+    private final Random random;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    Scenario(ShareItClient client, Dataset dataset, Random random, String mix) {
+        this.client = client;
+        this.dataset = dataset;
+        this.random = random;
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(Operation.of(parts[0]), Integer.parseInt(parts[1]));
+        }
+        operations = weights.keySet().toArray(new Operation[0]);
+        cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) throw new IllegalArgumentException("The mix has no operations: " + mix);
+    }
+
+    Operation next() {
+        int point = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (point < cumulativeWeights[i]) return operations[i];
+        }
+        throw new IllegalStateException();
+    }
+
+    Call execute(Operation operation) {
+        switch (operation) {
+            case SEARCH:
+                String text = Dataset.WORDS[random.nextInt(Dataset.WORDS.length)];
+                return call(operation, "GET", "/items/search?text=" + ShareItClient.encode(text), randomUser(), null);
+            case GET_ITEM:
+                return call(operation, "GET", "/items/" + dataset.items.random(random).id, randomUser(), null);
+            case LIST_BOOKINGS:
+                return call(operation, "GET", "/bookings?state=ALL&from=0&size=20", randomUser(), null);
+            case LIST_OWNER_BOOKINGS:
+                return call(operation, "GET", "/bookings/owner?state=ALL&from=0&size=20",
+                        dataset.items.random(random).ownerId, null);
+            case CREATE_ITEM:
+                return createItem();
+            case BOOK:
+                return book();
+            case APPROVE:
+                BookingRef booking = dataset.waitingBookings.poll();
+                if (booking == null) return book();
+                return call(operation, "PATCH", "/bookings/" + booking.id + "?approved=true", booking.ownerId, null);
+            case COMMENT:
+                BookedItem booked = dataset.commentable.random(random);
+                return call(operation, "POST", "/items/" + booked.itemId + "/comment", booked.bookerId,
+                        Map.of("text", "load test comment " + random.nextInt(1000)));
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private Call createItem() {
+        long owner = randomUser();
+        CompletableFuture<HttpResponse<String>> response = client.send("POST", "/items", owner,
+                Dataset.itemBody(random));
+        response.thenAccept(created -> {
+            if (created.statusCode() < 300) {
+                dataset.items.add(new ItemRef(client.readTree(created.body()).get("id").asLong(), owner));
+            }
+        });
+        return new Call(Operation.CREATE_ITEM, response);
+    }
+
+    private Call book() {
+        long booker = randomUser();
+        ItemRef item = dataset.itemNotOwnedBy(booker, random);
+        LocalDateTime[] window = dataset.nextWindow();
+        CompletableFuture<HttpResponse<String>> response = client.send("POST", "/bookings", booker,
+                Dataset.bookingBody(item.id, window[0], window[1]));
+        response.thenAccept(created -> {
+            if (created.statusCode() < 300) {
+                long bookingId = client.readTree(created.body()).get("id").asLong();
+                dataset.waitingBookings.add(new BookingRef(bookingId, item.ownerId));
+            }
+        });
+        return new Call(Operation.BOOK, response);
+    }
+
+    private Call call(Operation operation, String method, String path, long userId, Object body) {
+        return new Call(operation, client.send(method, path, userId, body));
+    }
+
+    private long randomUser() {
+        return dataset.users.random(random);
+    }
+}
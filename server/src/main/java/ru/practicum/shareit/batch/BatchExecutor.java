@@ -0,0 +1,123 @@
+package ru.practicum.shareit.batch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.error.AccessOrAvailableException;
+import ru.practicum.shareit.error.BookingConflictException;
+import ru.practicum.shareit.error.ItemNotFoundException;
+import ru.practicum.shareit.error.UserNotFoundException;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.ValidationException;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class BatchExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+
+    public BatchExecutor(PlatformTransactionManager transactionManager, ObjectProvider<Validator> validator) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator.getIfAvailable(() -> Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    /**
+     * Validates and prepares every element on its own, then saves all prepared entities in one transaction
+     * so that their inserts reach the database as JDBC batches. When that transaction fails the elements
+     * are saved one by one, so only the elements that broke it are reported as failed.
+     *
+     * @param group   validation group the elements are checked against
+     * @param prepare builds the entity of an element, throws when the element is rejected
+     * @param persist saves and flushes entities, returning them in the same order
+     * @param saved   maps a saved entity to its response once the transaction has committed
+     */
+    public <D, E, R> List<BatchResult<R>> execute(List<D> elements, Class<?> group, Function<D, E> prepare,
+                                                  UnaryOperator<List<E>> persist, Function<E, R> saved) {
+        List<BatchResult<R>> results = new ArrayList<>(Collections.nCopies(elements.size(), null));
+        List<Integer> indexes = new ArrayList<>();
+        List<E> entities = new ArrayList<>();
+        for (int i = 0; i < elements.size(); i++) {
+            try {
+                entities.add(prepare(elements.get(i), group, prepare));
+                indexes.add(i);
+            } catch (RuntimeException e) {
+                results.set(i, failure(i, e));
+            }
+        }
+        if (entities.isEmpty()) {
+            return results;
+        }
+
+        try {
+            List<E> savedEntities = transactionTemplate.execute(status -> persist.apply(entities));
+            for (int i = 0; i < indexes.size(); i++) {
+                results.set(indexes.get(i), BatchResult.success(indexes.get(i), saved.apply(savedEntities.get(i))));
+            }
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Batch of {} elements failed, saving them one by one: {}", entities.size(), e.getMessage());
+            for (int index : indexes) {
+                results.set(index, saveOne(index, elements.get(index), group, prepare, persist, saved));
+            }
+        }
+        return results;
+    }
+
+    private <D, E, R> BatchResult<R> saveOne(int index, D element, Class<?> group, Function<D, E> prepare,
+                                             UnaryOperator<List<E>> persist, Function<E, R> saved) {
+        try {
+            E entity = prepare(element, group, prepare);
+            List<E> savedEntities = transactionTemplate.execute(status -> persist.apply(List.of(entity)));
+            return BatchResult.success(index, saved.apply(savedEntities.get(0)));
+        } catch (RuntimeException e) {
+            return failure(index, e);
+        }
+    }
+
+    private <D, E> E prepare(D element, Class<?> group, Function<D, E> prepare) {
+        if (element == null) {
+            throw new ValidationException("Element couldn't be null");
+        }
+        Set<ConstraintViolation<D>> violations = validator.validate(element, group);
+        if (!violations.isEmpty()) {
+            throw new ValidationException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return prepare.apply(element);
+    }
+
+    private static <R> BatchResult<R> failure(int index, RuntimeException e) {
+        String error = e instanceof DataAccessException
+                ? ((DataAccessException) e).getMostSpecificCause().getMessage() : e.getMessage();
+        return BatchResult.failure(index, status(e).value(), error);
+    }
+
+    private static HttpStatus status(RuntimeException e) {
+        if (e instanceof UserNotFoundException || e instanceof ItemNotFoundException
+                || e instanceof AccessOrAvailableException) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (e instanceof BookingConflictException || e instanceof DataIntegrityViolationException) {
+            return HttpStatus.CONFLICT;
+        }
+        return HttpStatus.BAD_REQUEST;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.batch;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+/**
+ * Outcome of one element of a batch request: the saved element or the error that rejected it,
+ * with the status the single-element endpoint would have answered.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResult<T> {
+
+    private int index;
+
+    private int status;
+
+    private T body;
+
+    private String error;
+
+    public static <T> BatchResult<T> success(int index, T body) {
+        return new BatchResult<>(index, 200, body, null);
+    }
+
+    public static <T> BatchResult<T> failure(int index, int status, String error) {
+        return new BatchResult<>(index, status, null, error);
+    }
+}
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.batch.BatchResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 
@@ -23,6 +25,12 @@ public class BookingController {
         return bookingService.save(booking, ownerId);
     }
 
+    @PostMapping("/batch")
+    public List<BatchResult<BookingResponseDto>> addBatch(@RequestHeader("X-Sharer-User-Id") Long bookerId,
+                                                          @RequestBody List<BookingDto> bookings) {
+        return bookingService.saveAll(bookings, bookerId);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingResponseDto patchStatus(@RequestHeader("X-Sharer-User-Id") Long userId,
                                           @PathVariable("bookingId") Long bookingId,
@@ -38,19 +46,21 @@ public class BookingController {
 
 
     @GetMapping
-    public List<BookingResponseDto> getAllBookingByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                          @RequestParam(defaultValue = "ALL", required = false, name = "state") String state,
-                                                          @RequestParam(name = "from", required = false, defaultValue = "0") Integer from,
-                                                          @RequestParam(name = "size", required = false, defaultValue = "10") Integer size) {
-        return bookingService.getAllBookingByUserId(userId, state, from, size);
+    public ResponseEntity<List<BookingResponseDto>> getAllBookingByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                          @RequestParam(defaultValue = "ALL", required = false, name = "state") String state,
+                                                                          @RequestParam(name = "from", required = false, defaultValue = "0") Integer from,
+                                                                          @RequestParam(name = "cursor", required = false) String cursor,
+                                                                          @RequestParam(name = "size", required = false, defaultValue = "10") Integer size) {
+        return bookingService.getAllBookingByUserId(userId, state, from, cursor, size).toResponse();
     }
 
     @GetMapping("/owner")
-    public List<BookingResponseDto> getAllBookingByOwnerId(@RequestHeader("X-Sharer-User-Id") Long ownerId,
-                                                           @RequestParam(defaultValue = "ALL", required = false, name = "state") String state,
-                                                           @RequestParam(name = "from", required = false, defaultValue = "0") Integer from,
-                                                           @RequestParam(name = "size", required = false, defaultValue = "10") Integer size) {
-        return bookingService.getAllBookingByOwnerId(ownerId, state, from, size);
+    public ResponseEntity<List<BookingResponseDto>> getAllBookingByOwnerId(@RequestHeader("X-Sharer-User-Id") Long ownerId,
+                                                                           @RequestParam(defaultValue = "ALL", required = false, name = "state") String state,
+                                                                           @RequestParam(name = "from", required = false, defaultValue = "0") Integer from,
+                                                                           @RequestParam(name = "cursor", required = false) String cursor,
+                                                                           @RequestParam(name = "size", required = false, defaultValue = "10") Integer size) {
+        return bookingService.getAllBookingByOwnerId(ownerId, state, from, cursor, size).toResponse();
     }
 
 
@@ -1,42 +1,102 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingTimelineDto;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    @Query(value = "select * from bookings  as b , items as i   " +
-            " where b.item_id=i.id and b.item_id = ?1 and b.status like 'APPROVED' and start_time < now() " +
-            " order by  b.end_time DESC " +
-            "limit 1", nativeQuery = true)
-    Optional<Booking> getLastBookingByItemId(long itemId);
+    String RESPONSE = "select new ru.practicum.shareit.booking.dto.BookingResponseDto(b.id, b.start, b.end, b.status, " +
+            "b.booker.id, b.booker.name, b.item.id, b.item.name) from Booking as b ";
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingTimelineDto(b.id, b.booker.id, b.item.id, b.start, b.end, b.status) " +
+            "from Booking as b where b.status in (ru.practicum.shareit.booking.BookingStatus.APPROVED, " +
+            "ru.practicum.shareit.booking.BookingStatus.WAITING)")
+    List<BookingTimelineDto> findActiveTimeline();
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingTimelineDto(b.id, b.booker.id, b.item.id, b.start, b.end, b.status) " +
+            "from Booking as b where b.status in (ru.practicum.shareit.booking.BookingStatus.APPROVED, " +
+            "ru.practicum.shareit.booking.BookingStatus.WAITING) and b.item.id in ?1")
+    List<BookingTimelineDto> findActiveTimelineByItemIds(Collection<Long> itemIds);
 
-    @Query(value = "select * from bookings  as b , items as i   " +
-            " where b.item_id=i.id and b.item_id = ?1 and " +
-            "b.status like 'APPROVED'   and start_time>= now()" +
-            "order by  b.start_time ASC " +
-            "limit 1", nativeQuery = true)
-    Optional<Booking> getNextBookingByItemId(long itemId);
+    /**
+     * Reads the status from the database even when the booking is already in the persistence context.
+     */
+    @Query("select b.status from Booking as b where b.id = ?1")
+    BookingStatus findStatusById(Long bookingId);
+
+    @Query(RESPONSE + "where b.id = ?1 and (b.booker.id = ?2 or b.item.owner.id = ?2)")
+    Optional<BookingResponseDto> findResponseById(Long bookingId, Long userId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(RESPONSE + "order by b.id")
+    Stream<BookingResponseDto> streamAll();
 
     @Query(value = "select * from bookings as b where b.item_id = ?1" +
             " and b.booker_id=?2 and status like 'APPROVED' " +
             "and end_time<now()", nativeQuery = true)
     List<Booking> findPastBookingByBooker_IdAndItem_Id(Long itemId, Long bookerId);
 
-    Page<Booking> findAllByBooker_IdOrderByStartDesc(Long bookerId, Pageable pageable);
+    @Query(RESPONSE + "where b.booker.id = ?1" +
+            " and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    Slice<BookingResponseDto> findBookerBookings(Long bookerId, LocalDateTime start, Long id, Pageable pageable);
+
+    @Query(RESPONSE + "where b.booker.id = ?1 and b.start < ?2 and b.end > ?2" +
+            " and (b.start > ?3 or (b.start = ?3 and b.id > ?4)) order by b.start asc, b.id asc")
+    Slice<BookingResponseDto> findBookerCurrentBookings(Long bookerId, LocalDateTime now, LocalDateTime start, Long id,
+                                             Pageable pageable);
+
+    @Query(RESPONSE + "where b.booker.id = ?1 and b.end < ?2" +
+            " and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) order by b.start desc, b.id desc")
+    Slice<BookingResponseDto> findBookerPastBookings(Long bookerId, LocalDateTime now, LocalDateTime start, Long id,
+                                          Pageable pageable);
+
+    @Query(RESPONSE + "where b.booker.id = ?1 and b.start > ?2" +
+            " and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) order by b.start desc, b.id desc")
+    Slice<BookingResponseDto> findBookerFutureBookings(Long bookerId, LocalDateTime now, LocalDateTime start, Long id,
+                                            Pageable pageable);
+
+    @Query(RESPONSE + "where b.booker.id = ?1 and b.status = ?2" +
+            " and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) order by b.start desc, b.id desc")
+    Slice<BookingResponseDto> findBookerBookingsByStatus(Long bookerId, BookingStatus status, LocalDateTime start, Long id,
+                                              Pageable pageable);
+
+    @Query(RESPONSE + "where b.item.owner.id = ?1" +
+            " and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    Slice<BookingResponseDto> findOwnerBookings(Long ownerId, LocalDateTime start, Long id, Pageable pageable);
+
+    @Query(RESPONSE + "where b.item.owner.id = ?1 and b.start < ?2 and b.end > ?2" +
+            " and (b.start > ?3 or (b.start = ?3 and b.id > ?4)) order by b.start asc, b.id asc")
+    Slice<BookingResponseDto> findOwnerCurrentBookings(Long ownerId, LocalDateTime now, LocalDateTime start, Long id,
+                                            Pageable pageable);
+
+    @Query(RESPONSE + "where b.item.owner.id = ?1 and b.end < ?2" +
+            " and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) order by b.start desc, b.id desc")
+    Slice<BookingResponseDto> findOwnerPastBookings(Long ownerId, LocalDateTime now, LocalDateTime start, Long id,
+                                         Pageable pageable);
 
+    @Query(RESPONSE + "where b.item.owner.id = ?1 and b.start > ?2" +
+            " and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) order by b.start desc, b.id desc")
+    Slice<BookingResponseDto> findOwnerFutureBookings(Long ownerId, LocalDateTime now, LocalDateTime start, Long id,
+                                           Pageable pageable);
 
-    @Query(value = "select * from bookings  as b , items as i , users as u  " +
-            " where b.item_id=i.id and i.user_id=u.id and u.id = ?1 " +
-            "order by  b.start_time DESC ", nativeQuery = true,
-            countQuery = "select count(*) from bookings  as b , items as i , users as u  " +
-                    " where b.item_id=i.id and i.user_id=u.id and u.id = ?1")
-    Page<Booking> findBookingByItemOwner_Id(Long ownerId, Pageable pageable);
+    @Query(RESPONSE + "where b.item.owner.id = ?1 and b.status = ?2" +
+            " and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) order by b.start desc, b.id desc")
+    Slice<BookingResponseDto> findOwnerBookingsByStatus(Long ownerId, BookingStatus status, LocalDateTime start, Long id,
+                                             Pageable pageable);
 }
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.batch.BatchResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.pagination.CursorPage;
 
 import java.util.List;
 
@@ -9,11 +11,15 @@ public interface BookingService {
 
     BookingResponseDto save(BookingDto booking, Long userId);
 
+    List<BatchResult<BookingResponseDto>> saveAll(List<BookingDto> bookings, Long userId);
+
     BookingResponseDto updateStatus(Long bookingId, Boolean status, Long ownerId);
 
     BookingResponseDto getById(Long bookingId, Long ownerId);
 
-    List<BookingResponseDto> getAllBookingByUserId(Long userId, String state, Integer from, Integer size);
+    CursorPage<BookingResponseDto> getAllBookingByUserId(Long userId, String state, Integer from, String cursor,
+                                                         Integer size);
 
-    List<BookingResponseDto> getAllBookingByOwnerId(Long ownerId, String state, Integer from, Integer size);
+    CursorPage<BookingResponseDto> getAllBookingByOwnerId(Long ownerId, String state, Integer from, String cursor,
+                                                          Integer size);
 }
@@ -2,24 +2,34 @@ package ru.practicum.shareit.booking;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.batch.BatchExecutor;
+import ru.practicum.shareit.batch.BatchResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.datasource.ReplicaRead;
 import ru.practicum.shareit.error.AccessOrAvailableException;
+import ru.practicum.shareit.error.BookingConflictException;
 import ru.practicum.shareit.error.ItemNotFoundException;
 import ru.practicum.shareit.error.UserNotFoundException;
+import ru.practicum.shareit.event.DomainEvent;
+import ru.practicum.shareit.event.DomainEventBus;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.markers.Create;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.FromSizeRequest;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,18 +40,70 @@ public class BookingServiceImpl implements BookingService {
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingMapper mapper;
+    private final BookingTimelineIndex timelineIndex;
+    private final ItemLocks itemLocks;
+    private final BatchExecutor batchExecutor;
+    private final DomainEventBus eventBus;
 
 
-    public BookingServiceImpl(BookingRepository bookingRepository, UserRepository userRepository, ItemRepository itemRepository, BookingMapper mapper) {
+    public BookingServiceImpl(BookingRepository bookingRepository, UserRepository userRepository, ItemRepository itemRepository, BookingMapper mapper,
+                              BookingTimelineIndex timelineIndex, ItemLocks itemLocks, BatchExecutor batchExecutor,
+                              DomainEventBus eventBus) {
         this.bookingRepository = bookingRepository;
         this.userRepository = userRepository;
         this.itemRepository = itemRepository;
         this.mapper = mapper;
+        this.timelineIndex = timelineIndex;
+        this.itemLocks = itemLocks;
+        this.batchExecutor = batchExecutor;
+        this.eventBus = eventBus;
     }
 
     @Override
     public BookingResponseDto save(BookingDto booking, Long bookerId) {
         log.info("Trying to save booking");
+        Booking newBooking = itemLocks.withLock(booking.getItemId(), () -> {
+            Booking saved = bookingRepository.save(newBooking(booking, bookerId));
+            timelineIndex.update(saved);
+            return saved;
+        });
+        log.info("Booking successfully save");
+        return created(newBooking, bookerId);
+    }
+
+    @Override
+    public List<BatchResult<BookingResponseDto>> saveAll(List<BookingDto> bookings, Long bookerId) {
+        log.info("Trying to save {} bookings", bookings.size());
+        List<Long> itemIds = bookings.stream()
+                .filter(Objects::nonNull)
+                .map(BookingDto::getItemId)
+                .collect(Collectors.toList());
+        List<BatchResult<BookingResponseDto>> results = itemLocks.withLocks(itemIds,
+                () -> batchExecutor.execute(bookings, Create.class, booking -> {
+                    booking.setId(null);
+                    return newBooking(booking, bookerId);
+                }, bookingRepository::saveAllAndFlush, newBooking -> {
+                    timelineIndex.update(newBooking);
+                    return mapper.bookingToResponse(newBooking);
+                }));
+        // published once the locks are released, a publisher waiting for the event bus must not hold them
+        results.stream()
+                .map(BatchResult::getBody)
+                .filter(Objects::nonNull)
+                .forEach(response -> publishCreated(response, bookerId));
+        return results;
+    }
+
+    private BookingResponseDto created(Booking booking, Long bookerId) {
+        return publishCreated(mapper.bookingToResponse(booking), bookerId);
+    }
+
+    private BookingResponseDto publishCreated(BookingResponseDto response, Long bookerId) {
+        eventBus.publishAfterCommit(new DomainEvent(DomainEvent.Type.BOOKING_CREATED, response.getId(), bookerId, response));
+        return response;
+    }
+
+    private Booking newBooking(BookingDto booking, Long bookerId) {
         booking.setBookerId(bookerId);
         booking.setStatus(BookingStatus.WAITING);
         checkDate(booking);
@@ -57,10 +119,8 @@ public class BookingServiceImpl implements BookingService {
 
         checkAvailableItem(item);
         validateAccessToPublic(item.getOwner().getId(), bookerId);
-
-        Booking newBooking = bookingRepository.save(mapper.dtoToBooking(booking, user, item));
-        log.info("Booking successfully save");
-        return mapper.bookingToResponse(newBooking);
+        checkNoOverlap(item.getId(), booking.getStart(), booking.getEnd());
+        return mapper.dtoToBooking(booking, user, item);
     }
 
     @Override
@@ -72,54 +132,59 @@ public class BookingServiceImpl implements BookingService {
             throw new ItemNotFoundException("Booking not found");
         });
 
-        if (booking.getStatus() != null && !booking.getStatus().equals(BookingStatus.WAITING))
-            throw new NullPointerException("Cannot change status secondary!");
-
+        checkWaiting(booking.getStatus());
         validateAccessToProve(booking.getItem().getOwner().getId(), userId);
 
-        if (status) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else booking.setStatus(BookingStatus.REJECTED);
-        bookingRepository.save(booking);
-        return mapper.bookingToResponse(booking);
+        long itemId = booking.getItem().getId();
+        itemLocks.withLock(itemId, () -> {
+            // the booking was read before the lock: a concurrent approval or rejection may have decided it since
+            checkWaiting(bookingRepository.findStatusById(bookingId));
+            if (status) checkNoOverlap(itemId, booking.getStart(), booking.getEnd());
+            booking.setStatus(status ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+            bookingRepository.save(booking);
+            timelineIndex.update(booking);
+            return booking;
+        });
+        BookingResponseDto response = mapper.bookingToResponse(booking);
+        eventBus.publishAfterCommit(new DomainEvent(status ? DomainEvent.Type.BOOKING_APPROVED
+                : DomainEvent.Type.BOOKING_REJECTED, bookingId, userId, response));
+        return response;
     }
 
     @Override
+    @ReplicaRead
     public BookingResponseDto getById(Long bookingId, Long userId) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> {
-            throw new UserNotFoundException("Booking not found");
-        });
-        userRepository.findById(userId).orElseThrow(() -> {
-            throw new UserNotFoundException("User not found");
-        });
-        validateAccessToGet(booking.getItem().getOwner().getId(), booking.getBooker().getId(), userId);
-        return mapper.bookingToResponse(booking);
+        Optional<BookingResponseDto> booking = bookingRepository.findResponseById(bookingId, userId);
+        if (booking.isPresent()) return booking.get();
+        if (!bookingRepository.existsById(bookingId)) throw new UserNotFoundException("Booking not found");
+        if (!userRepository.existsById(userId)) throw new UserNotFoundException("User not found");
+        throw new AccessOrAvailableException("Нет доступа к просмотру брони!");
     }
 
     @Override
-    public List<BookingResponseDto> getAllBookingByUserId(Long bookerId, String state, Integer from, Integer size) {
+    @ReplicaRead
+    public CursorPage<BookingResponseDto> getAllBookingByUserId(Long bookerId, String state, Integer from, String cursor,
+                                                                Integer size) {
         userRepository.findById(bookerId).orElseThrow(() -> {
             throw new UserNotFoundException("User not found");
         });
-
-        List<Booking> allBookingsByUserId = bookingRepository.findAllByBooker_IdOrderByStartDesc(bookerId, PageRequest.of(from / size, size))
-                .toList();
-
-        return getFilteredList(allBookingsByUserId, state);
+        Slice<BookingResponseDto> bookings = findBookerBookings(bookerId, state, cursor, FromSizeRequest.of(from, size, cursor));
+        return toPage(bookings);
     }
 
     @Override
-    public List<BookingResponseDto> getAllBookingByOwnerId(Long ownerId, String state, Integer from, Integer size) {
+    @ReplicaRead
+    public CursorPage<BookingResponseDto> getAllBookingByOwnerId(Long ownerId, String state, Integer from, String cursor,
+                                                                 Integer size) {
         userRepository.findById(ownerId).orElseThrow(() -> {
             throw new UserNotFoundException("User not found");
         });
-        List<Booking> allBookingsByOwnerId = bookingRepository.findBookingByItemOwner_Id(ownerId, PageRequest.of(from, size))
-                .stream()
-                .sorted(Comparator.comparing(Booking::getStart).reversed())
-                .collect(Collectors.toList());
+        Slice<BookingResponseDto> bookings = findOwnerBookings(ownerId, state, cursor, FromSizeRequest.of(from, size, cursor));
+        return toPage(bookings);
+    }
 
-        if (allBookingsByOwnerId.isEmpty()) return new ArrayList<>();
-        return getFilteredList(allBookingsByOwnerId, state);
+    private CursorPage<BookingResponseDto> toPage(Slice<BookingResponseDto> bookings) {
+        return CursorPage.of(bookings, bookings.getContent(), booking -> Cursor.of(booking.getStart(), booking.getId()));
     }
 
 
@@ -133,14 +198,18 @@ public class BookingServiceImpl implements BookingService {
             throw new AccessOrAvailableException("Нельзя забронировать своою вещь");
     }
 
+    private void checkWaiting(BookingStatus status) {
+        if (status != null && !status.equals(BookingStatus.WAITING))
+            throw new NullPointerException("Cannot change status secondary!");
+    }
+
     private void checkAvailableItem(Item item) {
         if (!item.isAvailable()) throw new NullPointerException("Item is not available!");
     }
 
-    private void validateAccessToGet(Long ownerId, Long bookerId, Long userId) {
-        if (!Objects.equals(ownerId, userId) &&
-                !Objects.equals(bookerId, userId))
-            throw new AccessOrAvailableException("Нет доступа к просмотру брони!");
+    private void checkNoOverlap(long itemId, LocalDateTime start, LocalDateTime end) {
+        if (timelineIndex.hasOverlap(itemId, start, end))
+            throw new BookingConflictException("Item is already booked for this time!");
     }
 
     private void checkDate(BookingDto bookingDto) {
@@ -148,49 +217,49 @@ public class BookingServiceImpl implements BookingService {
             throw new NullPointerException("End date cannot be early then start date!"); // изменить ошибку на время
     }
 
-    private List<BookingResponseDto> getFilteredList(List<Booking> bookings, String state) {
-        List<BookingResponseDto> returnedBookings = new ArrayList<>();
+    private Slice<BookingResponseDto> findBookerBookings(Long bookerId, String state, String cursor, Pageable pageable) {
+        LocalDateTime now = LocalDateTime.now();
+        if ("CURRENT".equals(state)) {
+            Cursor after = Cursor.decode(cursor, Cursor.ASCENDING_START);
+            return bookingRepository.findBookerCurrentBookings(bookerId, now, after.getTime(), after.getId(), pageable);
+        }
+        Cursor before = Cursor.decode(cursor, Cursor.DESCENDING_START);
+        switch (state) {
+            case "ALL":
+                return bookingRepository.findBookerBookings(bookerId, before.getTime(), before.getId(), pageable);
+            case "PAST":
+                return bookingRepository.findBookerPastBookings(bookerId, now, before.getTime(), before.getId(), pageable);
+            case "FUTURE":
+                return bookingRepository.findBookerFutureBookings(bookerId, now, before.getTime(), before.getId(), pageable);
+            case "REJECTED":
+            case "WAITING":
+                return bookingRepository.findBookerBookingsByStatus(bookerId, BookingStatus.valueOf(state),
+                        before.getTime(), before.getId(), pageable);
+            default:
+                throw new IllegalArgumentException("Unknown state: " + state);
+        }
+    }
+
+    private Slice<BookingResponseDto> findOwnerBookings(Long ownerId, String state, String cursor, Pageable pageable) {
+        LocalDateTime now = LocalDateTime.now();
+        if ("CURRENT".equals(state)) {
+            Cursor after = Cursor.decode(cursor, Cursor.ASCENDING_START);
+            return bookingRepository.findOwnerCurrentBookings(ownerId, now, after.getTime(), after.getId(), pageable);
+        }
+        Cursor before = Cursor.decode(cursor, Cursor.DESCENDING_START);
         switch (state) {
             case "ALL":
-                returnedBookings.addAll(bookings.stream()
-                        .map(mapper::bookingToResponse)
-                        .collect(Collectors.toList()));
-                break;
-            case "CURRENT":
-                returnedBookings.addAll(bookings.stream()
-                        .filter(booking -> booking.getEnd().isAfter(LocalDateTime.now())
-                                && booking.getStart().isBefore(LocalDateTime.now()))
-                        .map(mapper::bookingToResponse)
-                        .sorted(Comparator.comparing(BookingResponseDto::getStart))
-                        .collect(Collectors.toList()));
-                break;
+                return bookingRepository.findOwnerBookings(ownerId, before.getTime(), before.getId(), pageable);
             case "PAST":
-                returnedBookings.addAll(bookings.stream()
-                        .filter(booking -> booking.getEnd().isBefore(LocalDateTime.now()))
-                        .map(mapper::bookingToResponse)
-                        .collect(Collectors.toList()));
-                break;
+                return bookingRepository.findOwnerPastBookings(ownerId, now, before.getTime(), before.getId(), pageable);
             case "FUTURE":
-                returnedBookings.addAll(bookings.stream()
-                        .filter(booking -> booking.getStart().isAfter(LocalDateTime.now()))
-                        .map(mapper::bookingToResponse)
-                        .collect(Collectors.toList()));
-                break;
+                return bookingRepository.findOwnerFutureBookings(ownerId, now, before.getTime(), before.getId(), pageable);
             case "REJECTED":
-                returnedBookings.addAll(bookings.stream()
-                        .filter(booking -> booking.getStatus().equals(BookingStatus.REJECTED))
-                        .map(mapper::bookingToResponse)
-                        .collect(Collectors.toList()));
-                break;
             case "WAITING":
-                returnedBookings.addAll(bookings.stream()
-                        .filter(booking -> booking.getStatus().equals(BookingStatus.WAITING))
-                        .map(mapper::bookingToResponse)
-                        .collect(Collectors.toList()));
-                break;
+                return bookingRepository.findOwnerBookingsByStatus(ownerId, BookingStatus.valueOf(state),
+                        before.getTime(), before.getId(), pageable);
             default:
                 throw new IllegalArgumentException("Unknown state: " + state);
         }
-        return returnedBookings;
     }
 }
@@ -0,0 +1,406 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.dto.BookingTimelineDto;
+import ru.practicum.shareit.booking.dto.TimeIntervalDto;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.item.dao.ItemRepository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps approved bookings of every item sorted by start time, so that last/next booking
+ * lookups are answered with a binary search instead of a query to the bookings table.
+ * A second timeline per item also holds waiting bookings and answers availability queries.
+ * Timelines are rebuilt from the database on startup; items that are not indexed yet
+ * (for example created directly in the database) are loaded on first access.
+ * Loads run while bookings keep changing: every change made during a load is recorded and
+ * replayed onto the loaded timelines before they are published, and a rebuild replaces the
+ * whole index at once, so readers never see it half filled. Timelines are always loaded from
+ * the primary, a replica may not have the latest changes yet.
+ */
+@Component
+public class BookingTimelineIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingTimelineIndex.class);
+    private volatile Timelines current = new Timelines();
+    // changes hold the read lock, a load holds the write lock to start and to finish its journal
+    private final ReadWriteLock journalLock = new ReentrantReadWriteLock();
+    private final Set<Queue<Consumer<Timelines>>> journals = ConcurrentHashMap.newKeySet();
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final PrimaryReads primaryReads;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer rebuildTimer;
+
+
+    public BookingTimelineIndex(BookingRepository bookingRepository, ItemRepository itemRepository,
+                                PrimaryReads primaryReads, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.itemRepository = itemRepository;
+        this.primaryReads = primaryReads;
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.hits = registry.counter("shareit.booking.timeline.lookups", "result", "hit");
+        this.misses = registry.counter("shareit.booking.timeline.lookups", "result", "miss");
+        this.rebuildTimer = registry.timer("shareit.booking.timeline.rebuild");
+        Gauge.builder("shareit.booking.timeline.items", this, index -> index.current.timelines.size()).register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        rebuildTimer.record(() -> {
+            Queue<Consumer<Timelines>> journal = startJournal();
+            try {
+                Map<Long, List<BookingTimelineDto>> bookings = bookingRepository.findActiveTimeline()
+                        .stream()
+                        .collect(Collectors.groupingBy(BookingTimelineDto::getItemId));
+                Timelines rebuilt = new Timelines();
+                for (Long itemId : itemRepository.findAllIds()) {
+                    rebuilt.put(itemId, bookings.getOrDefault(itemId, Collections.emptyList()));
+                }
+                finishJournal(journal, rebuilt, () -> current = rebuilt);
+                log.info("Booking timeline index rebuilt for {} items", rebuilt.timelines.size());
+            } finally {
+                journals.remove(journal);
+            }
+        });
+    }
+
+    public void preload(Collection<Long> itemIds) {
+        Timelines timelines = current;
+        List<Long> missing = itemIds.stream()
+                .filter(itemId -> !timelines.timelines.containsKey(itemId) || !timelines.reservations.containsKey(itemId))
+                .distinct()
+                .collect(Collectors.toList());
+        if (missing.isEmpty()) return;
+        Queue<Consumer<Timelines>> journal = startJournal();
+        try {
+            Map<Long, List<BookingTimelineDto>> bookings = primaryReads.read(
+                            () -> bookingRepository.findActiveTimelineByItemIds(missing))
+                    .stream()
+                    .collect(Collectors.groupingBy(BookingTimelineDto::getItemId));
+            Timelines loaded = new Timelines();
+            for (Long itemId : missing) {
+                loaded.put(itemId, bookings.getOrDefault(itemId, Collections.emptyList()));
+            }
+            finishJournal(journal, loaded, () -> {
+                loaded.timelines.forEach(current.timelines::putIfAbsent);
+                loaded.reservations.forEach(current.reservations::putIfAbsent);
+            });
+        } finally {
+            journals.remove(journal);
+        }
+        misses.increment(missing.size());
+    }
+
+    public Optional<BookingItemDto> findLastBooking(long itemId, LocalDateTime now) {
+        return Optional.ofNullable(getTimeline(timelines -> timelines.timelines, itemId).last(toKey(now)));
+    }
+
+    public Optional<BookingItemDto> findNextBooking(long itemId, LocalDateTime now) {
+        return Optional.ofNullable(getTimeline(timelines -> timelines.timelines, itemId).next(toKey(now)));
+    }
+
+    /**
+     * Whether an approved booking of the item intersects {@code [start, end)}.
+     */
+    public boolean hasOverlap(long itemId, LocalDateTime start, LocalDateTime end) {
+        return getTimeline(timelines -> timelines.timelines, itemId).overlaps(toKey(start), toKey(end));
+    }
+
+    /**
+     * Whether neither an approved nor a waiting booking of the item intersects {@code [start, end)}.
+     */
+    public boolean isFree(long itemId, LocalDateTime start, LocalDateTime end) {
+        return !getTimeline(timelines -> timelines.reservations, itemId).overlaps(toKey(start), toKey(end));
+    }
+
+    /**
+     * Approved and waiting bookings of the item within {@code [from, to)}, clipped to the window
+     * and merged where they overlap or touch.
+     */
+    public List<TimeIntervalDto> findBusyIntervals(long itemId, LocalDateTime from, LocalDateTime to) {
+        return getTimeline(timelines -> timelines.reservations, itemId).busy(toKey(from), toKey(to))
+                .stream()
+                .map(interval -> new TimeIntervalDto(fromKey(interval[0]), fromKey(interval[1])))
+                .collect(Collectors.toList());
+    }
+
+    public boolean contains(long itemId) {
+        return current.timelines.containsKey(itemId);
+    }
+
+    public void update(Booking booking) {
+        long itemId = booking.getItem().getId();
+        long bookingId = booking.getId();
+        long bookerId = booking.getBooker().getId();
+        long start = toKey(booking.getStart());
+        long end = toKey(booking.getEnd());
+        BookingStatus status = booking.getStatus();
+        boolean approved = BookingStatus.APPROVED.equals(status);
+        boolean reserved = approved || BookingStatus.WAITING.equals(status);
+        change(timelines -> {
+            update(timelines.timelines, itemId, bookingId, bookerId, start, end, approved);
+            update(timelines.reservations, itemId, bookingId, bookerId, start, end, reserved);
+        });
+    }
+
+    public void addItem(long itemId) {
+        change(timelines -> {
+            timelines.timelines.putIfAbsent(itemId, ItemTimeline.EMPTY);
+            timelines.reservations.putIfAbsent(itemId, ItemTimeline.EMPTY);
+        });
+    }
+
+    public void removeItem(long itemId) {
+        change(timelines -> {
+            timelines.timelines.remove(itemId);
+            timelines.reservations.remove(itemId);
+        });
+    }
+
+    private void change(Consumer<Timelines> change) {
+        Lock lock = journalLock.readLock();
+        lock.lock();
+        try {
+            change.accept(current);
+            journals.forEach(journal -> journal.add(change));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // changes committed before the journal starts are seen by the load's query, later ones are recorded
+    private Queue<Consumer<Timelines>> startJournal() {
+        Queue<Consumer<Timelines>> journal = new ConcurrentLinkedQueue<>();
+        Lock lock = journalLock.writeLock();
+        lock.lock();
+        try {
+            journals.add(journal);
+        } finally {
+            lock.unlock();
+        }
+        return journal;
+    }
+
+    private void finishJournal(Queue<Consumer<Timelines>> journal, Timelines loaded, Runnable publish) {
+        Lock lock = journalLock.writeLock();
+        lock.lock();
+        try {
+            journal.forEach(change -> change.accept(loaded));
+            publish.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void update(Map<Long, ItemTimeline> source, long itemId, long bookingId, long bookerId,
+                               long start, long end, boolean included) {
+        if (included) {
+            source.computeIfPresent(itemId, (id, timeline) -> timeline.with(bookingId, bookerId, start, end));
+        } else {
+            source.computeIfPresent(itemId, (id, timeline) -> timeline.without(bookingId));
+        }
+    }
+
+    private ItemTimeline getTimeline(Function<Timelines, Map<Long, ItemTimeline>> source, long itemId) {
+        ItemTimeline timeline = source.apply(current).get(itemId);
+        if (timeline != null) {
+            hits.increment();
+            return timeline;
+        }
+        preload(List.of(itemId));
+        return source.apply(current).getOrDefault(itemId, ItemTimeline.EMPTY);
+    }
+
+    private static List<BookingTimelineDto> approved(List<BookingTimelineDto> bookings) {
+        return bookings.stream()
+                .filter(booking -> BookingStatus.APPROVED.equals(booking.getStatus()))
+                .collect(Collectors.toList());
+    }
+
+    private static long toKey(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromKey(long key) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(key), ZoneOffset.UTC);
+    }
+
+    private static final class Timelines {
+
+        private final Map<Long, ItemTimeline> timelines = new ConcurrentHashMap<>();
+        private final Map<Long, ItemTimeline> reservations = new ConcurrentHashMap<>();
+
+        private void put(long itemId, List<BookingTimelineDto> bookings) {
+            timelines.put(itemId, ItemTimeline.of(approved(bookings)));
+            reservations.put(itemId, ItemTimeline.of(bookings));
+        }
+    }
+
+    static final class ItemTimeline {
+
+        static final ItemTimeline EMPTY = new ItemTimeline(new long[0], new long[0], new long[0], new long[0], new int[0]);
+
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] bookingIds;
+        private final long[] bookerIds;
+        private final int[] latestEndIndexes; // index of the booking with the latest end among starts[0..i]
+
+        private ItemTimeline(long[] starts, long[] ends, long[] bookingIds, long[] bookerIds, int[] latestEndIndexes) {
+            this.starts = starts;
+            this.ends = ends;
+            this.bookingIds = bookingIds;
+            this.bookerIds = bookerIds;
+            this.latestEndIndexes = latestEndIndexes;
+        }
+
+        static ItemTimeline of(List<BookingTimelineDto> bookings) {
+            if (bookings.isEmpty()) return EMPTY;
+            List<BookingTimelineDto> sorted = new ArrayList<>(bookings);
+            sorted.sort(Comparator.comparing(BookingTimelineDto::getStart));
+            int size = sorted.size();
+            long[] starts = new long[size];
+            long[] ends = new long[size];
+            long[] bookingIds = new long[size];
+            long[] bookerIds = new long[size];
+            for (int i = 0; i < size; i++) {
+                BookingTimelineDto booking = sorted.get(i);
+                starts[i] = toKey(booking.getStart());
+                ends[i] = toKey(booking.getEnd());
+                bookingIds[i] = booking.getId();
+                bookerIds[i] = booking.getBookerId();
+            }
+            return build(starts, ends, bookingIds, bookerIds);
+        }
+
+        private static ItemTimeline build(long[] starts, long[] ends, long[] bookingIds, long[] bookerIds) {
+            int[] latestEndIndexes = new int[starts.length];
+            for (int i = 0; i < starts.length; i++) {
+                latestEndIndexes[i] = i > 0 && ends[latestEndIndexes[i - 1]] >= ends[i] ? latestEndIndexes[i - 1] : i;
+            }
+            return new ItemTimeline(starts, ends, bookingIds, bookerIds, latestEndIndexes);
+        }
+
+        BookingItemDto last(long now) {
+            int index = firstStartNotBefore(now) - 1;
+            if (index < 0) return null;
+            int latest = latestEndIndexes[index];
+            return new BookingItemDto(bookingIds[latest], bookerIds[latest]);
+        }
+
+        BookingItemDto next(long now) {
+            int index = firstStartNotBefore(now);
+            if (index == starts.length) return null;
+            return new BookingItemDto(bookingIds[index], bookerIds[index]);
+        }
+
+        boolean overlaps(long start, long end) {
+            int index = firstStartNotBefore(end) - 1;
+            return index >= 0 && ends[latestEndIndexes[index]] > start;
+        }
+
+        List<long[]> busy(long from, long to) {
+            List<long[]> busy = new ArrayList<>();
+            int limit = firstStartNotBefore(to);
+            for (int i = firstEndingAfter(from, limit); i < limit; i++) {
+                if (ends[i] <= from) continue;
+                long start = Math.max(starts[i], from);
+                long end = Math.min(ends[i], to);
+                long[] previous = busy.isEmpty() ? null : busy.get(busy.size() - 1);
+                if (previous != null && start <= previous[1]) {
+                    previous[1] = Math.max(previous[1], end);
+                } else {
+                    busy.add(new long[]{start, end});
+                }
+            }
+            return busy;
+        }
+
+        ItemTimeline with(long bookingId, long bookerId, long start, long end) {
+            ItemTimeline base = without(bookingId);
+            int position = base.firstStartNotBefore(start);
+            long[] starts = insert(base.starts, position, start);
+            long[] ends = insert(base.ends, position, end);
+            long[] bookingIds = insert(base.bookingIds, position, bookingId);
+            long[] bookerIds = insert(base.bookerIds, position, bookerId);
+            return build(starts, ends, bookingIds, bookerIds);
+        }
+
+        ItemTimeline without(long bookingId) {
+            for (int i = 0; i < bookingIds.length; i++) {
+                if (bookingIds[i] == bookingId) {
+                    return build(remove(starts, i), remove(ends, i), remove(bookingIds, i), remove(bookerIds, i));
+                }
+            }
+            return this;
+        }
+
+        private static long[] insert(long[] source, int position, long value) {
+            long[] target = new long[source.length + 1];
+            System.arraycopy(source, 0, target, 0, position);
+            target[position] = value;
+            System.arraycopy(source, position, target, position + 1, source.length - position);
+            return target;
+        }
+
+        private static long[] remove(long[] source, int position) {
+            long[] target = new long[source.length - 1];
+            System.arraycopy(source, 0, target, 0, position);
+            System.arraycopy(source, position + 1, target, position, source.length - position - 1);
+            return target;
+        }
+
+        private int firstEndingAfter(long time, int limit) {
+            int low = 0;
+            int high = limit;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (ends[latestEndIndexes[middle]] <= time) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int firstStartNotBefore(long time) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < time) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
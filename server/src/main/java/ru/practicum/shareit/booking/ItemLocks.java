@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks that serialize changes to the bookings of an item, so that an overlap check and
+ * the write it guards are atomic. An item is mapped to one of 256 stripes by its id: items on
+ * different stripes never wait for each other, items that share a stripe do.
+ * <p>
+ * The locks live in this JVM. They serialize the writes of one server instance only; instances
+ * running side by side against the same database do not see each other's locks.
+ */
+@Component
+public class ItemLocks {
+
+    private static final int STRIPES = 256;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public ItemLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withLock(long itemId, Supplier<T> action) {
+        ReentrantLock lock = locks[stripe(itemId)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs {@code action} holding the stripes of all given items. The stripes are taken in ascending
+     * order, so callers locking overlapping sets of items cannot deadlock. Null ids are skipped.
+     */
+    public <T> T withLocks(Collection<Long> itemIds, Supplier<T> action) {
+        int[] stripes = itemIds.stream()
+                .filter(Objects::nonNull)
+                .mapToInt(this::stripe)
+                .distinct()
+                .sorted()
+                .toArray();
+        int locked = 0;
+        try {
+            for (int stripe : stripes) {
+                locks[stripe].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                locks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    int stripe(long itemId) {
+        return Math.floorMod(Long.hashCode(itemId), STRIPES);
+    }
+}
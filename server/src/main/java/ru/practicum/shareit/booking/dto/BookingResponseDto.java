@@ -3,8 +3,6 @@ package ru.practicum.shareit.booking.dto;
 import lombok.*;
 import org.springframework.format.annotation.DateTimeFormat;
 import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 
@@ -20,8 +18,12 @@ public class BookingResponseDto {
     @DateTimeFormat(pattern = "yyyy/MM/dd hh:mm:ss")
     private LocalDateTime end;
     private BookingStatus status;
-    private User booker;
-    private Item item;
+    private BookerShortDto booker;
+    private ItemShortDto item;
 
+    public BookingResponseDto(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                              Long bookerId, String bookerName, Long itemId, String itemName) {
+        this(id, start, end, status, new BookerShortDto(bookerId, bookerName), new ItemShortDto(itemId, itemName));
+    }
 
 }
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Getter
+@Setter
+public class BookingTimelineDto {
+    private Long id;
+    private Long bookerId;
+    private Long itemId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private BookingStatus status;
+
+
+}
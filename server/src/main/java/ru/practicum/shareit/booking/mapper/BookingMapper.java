@@ -3,7 +3,6 @@ package ru.practicum.shareit.booking.mapper;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.dto.BookingDto;
-import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -26,12 +25,9 @@ public class BookingMapper {
                 booking.getStart(),
                 booking.getEnd(),
                 booking.getStatus(),
-                booking.getBooker(),
-                booking.getItem());
-    }
-
-    public BookingItemDto bookingToItem(Booking booking) {
-        return new BookingItemDto(booking.getId(), booking.getBooker().getId());
-
+                booking.getBooker().getId(),
+                booking.getBooker().getName(),
+                booking.getItem().getId(),
+                booking.getItem().getName());
     }
 }
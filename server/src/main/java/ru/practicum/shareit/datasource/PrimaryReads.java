@@ -0,0 +1,36 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs the loads that seed in-memory caches against the primary. The caches are kept current by
+ * the writes of this server only, so a row missed by a lagging replica would stay missing until
+ * the entry is evicted. Called from a {@link ReplicaRead} method, the load gets its own read-only
+ * transaction on the primary; otherwise it joins the current transaction, which is on the primary.
+ */
+@Component
+public class PrimaryReads {
+
+    private final TransactionTemplate primaryTransaction;
+
+    public PrimaryReads(PlatformTransactionManager transactionManager) {
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.primaryTransaction.setReadOnly(true);
+    }
+
+    public <T> T read(Supplier<T> load) {
+        if (!ReplicaRoutingDataSource.isReplicaRead()) return load.get();
+        ReplicaRoutingDataSource.setReplicaRead(false);
+        try {
+            return primaryTransaction.execute(status -> load.get());
+        } finally {
+            ReplicaRoutingDataSource.setReplicaRead(true);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.datasource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers when every user last committed a change, so that reads of that user are sent to the
+ * primary for a while instead of to a replica that may not have received the change yet.
+ * The user is taken from the request being served; work outside of requests is not tracked.
+ */
+public class ReadYourWrites {
+
+    public static final long ANONYMOUS = 0L;
+    private static final int EXPIRE_THRESHOLD = 10_000;
+    private static final ThreadLocal<Long> CURRENT_USER = new ThreadLocal<>();
+    private final long windowNanos;
+    private final Map<Long, Long> lastWrites = new ConcurrentHashMap<>();
+
+
+    public ReadYourWrites(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public static void setCurrentUser(long userId) {
+        CURRENT_USER.set(userId);
+    }
+
+    public static void clearCurrentUser() {
+        CURRENT_USER.remove();
+    }
+
+    public void recordWrite() {
+        Long userId = CURRENT_USER.get();
+        if (userId == null) return;
+        long now = System.nanoTime();
+        lastWrites.put(userId, now);
+        if (lastWrites.size() > EXPIRE_THRESHOLD) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt >= windowNanos);
+        }
+    }
+
+    public boolean isWithinWindow() {
+        Long userId = CURRENT_USER.get();
+        if (userId == null) return false;
+        Long writtenAt = lastWrites.get(userId);
+        if (writtenAt == null) return false;
+        if (System.nanoTime() - writtenAt < windowNanos) return true;
+        lastWrites.remove(userId, writtenAt);
+        return false;
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadYourWrites.setCurrentUser(userId(request.getHeader(USER_HEADER)));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        ReadYourWrites.clearCurrentUser();
+    }
+
+    private static long userId(String header) {
+        if (header == null) return ReadYourWrites.ANONYMOUS;
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return ReadYourWrites.ANONYMOUS;
+        }
+    }
+}
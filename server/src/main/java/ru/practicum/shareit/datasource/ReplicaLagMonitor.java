@@ -0,0 +1,114 @@
+package ru.practicum.shareit.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures how far every replica is behind the primary. Each round the heartbeat that the primary
+ * wrote in the previous round is read back from the replicas, then a new heartbeat is written,
+ * so the measured lag includes up to one heartbeat interval. Replicas that lag more than the
+ * allowed maximum or can't be queried are skipped until they catch up.
+ */
+public class ReplicaLagMonitor implements MeterBinder, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    private static final String WRITE_BEAT = "update replication_heartbeat set beat_millis = ? where id = 1";
+    private static final String READ_BEAT = "select beat_millis from replication_heartbeat where id = 1";
+    private final JdbcTemplate primary;
+    private final Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+    private final Map<String, Long> lags = new ConcurrentHashMap<>();
+    private final long maxLagMillis;
+    private final Duration interval;
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService scheduler;
+
+
+    public ReplicaLagMonitor(DataSource primary, Map<String, DataSource> replicas, Duration maxLag, Duration interval) {
+        this.primary = new JdbcTemplate(primary);
+        this.maxLagMillis = maxLag.toMillis();
+        this.interval = interval;
+        replicas.forEach((name, replica) -> {
+            this.replicas.put(name, new JdbcTemplate(replica));
+            lags.put(name, Long.MAX_VALUE);
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String name : replicas.keySet()) {
+            Gauge.builder("shareit.datasource.replica.lag", lags, values -> values.get(name))
+                    .tag("replica", name)
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        replicas.forEach((name, replica) -> lags.put(name, measure(name, replica, now)));
+        try {
+            primary.update(WRITE_BEAT, now);
+        } catch (DataAccessException e) {
+            log.warn("Replication heartbeat not written: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Picks the next replica, in turn, among those within the allowed lag.
+     *
+     * @return the replica name or {@code null} when no replica may be read from
+     */
+    public String pick() {
+        List<String> fresh = new ArrayList<>(replicas.size());
+        for (String name : replicas.keySet()) {
+            if (lags.get(name) <= maxLagMillis) fresh.add(name);
+        }
+        if (fresh.isEmpty()) return null;
+        return fresh.get(Math.floorMod(next.getAndIncrement(), fresh.size()));
+    }
+
+    public long getLag(String name) {
+        return lags.get(name);
+    }
+
+    private long measure(String name, JdbcTemplate replica, long now) {
+        try {
+            Long beat = replica.queryForObject(READ_BEAT, Long.class);
+            return beat == null || beat == 0 ? Long.MAX_VALUE : Math.max(0, now - beat);
+        } catch (DataAccessException e) {
+            if (lags.get(name) != Long.MAX_VALUE) log.warn("Replica {} is unavailable: {}", name, e.getMessage());
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Connection pools of the replicas by name, closed together with the context.
+ */
+public class ReplicaPools implements AutoCloseable {
+
+    private final Map<String, DataSource> pools;
+
+    public ReplicaPools(Map<String, DataSource> pools) {
+        this.pools = Collections.unmodifiableMap(pools);
+    }
+
+    public Map<String, DataSource> getPools() {
+        return pools;
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(pool -> ((HikariDataSource) pool).close());
+    }
+}
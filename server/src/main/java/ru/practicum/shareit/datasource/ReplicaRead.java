@@ -0,0 +1,17 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.*;
+
+/**
+ * Runs a service method in a read-only transaction that may be served by a replica.
+ * Read-only transactions of repositories themselves, such as the checks inside a write,
+ * keep going to the primary.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true)
+public @interface ReplicaRead {
+}
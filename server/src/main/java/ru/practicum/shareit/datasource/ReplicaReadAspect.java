@@ -0,0 +1,27 @@
+package ru.practicum.shareit.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Marks the calls of {@link ReplicaRead} methods. Runs outside their transaction, so the mark is
+ * already set when the transaction begins.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ReplicaReadAspect {
+
+    @Around("@annotation(ru.practicum.shareit.datasource.ReplicaRead)")
+    public Object readFromReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ReplicaRoutingDataSource.isReplicaRead()) return joinPoint.proceed();
+        ReplicaRoutingDataSource.setReplicaRead(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaRoutingDataSource.setReplicaRead(false);
+        }
+    }
+}
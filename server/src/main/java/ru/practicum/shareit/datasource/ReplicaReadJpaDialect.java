@@ -0,0 +1,55 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+
+/**
+ * Keeps entities read by {@link ReplicaRead} transactions out of the second-level cache. The cache
+ * is shared with reads from the primary, and an entity cached from a lagging replica would be
+ * served to them until it is evicted. Such transactions still read what is already cached.
+ */
+class ReplicaReadJpaDialect extends HibernateJpaDialect {
+
+    // a session property rather than the session's cache mode, which Hibernate resets from it on every find
+    private static final String STORE_MODE = "javax.persistence.cache.storeMode";
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly() || !ReplicaRoutingDataSource.isReplicaRead()) return transactionData;
+        Object previous = entityManager.getProperties().getOrDefault(STORE_MODE, CacheStoreMode.USE);
+        entityManager.setProperty(STORE_MODE, CacheStoreMode.BYPASS);
+        return new ReplicaReadData(transactionData, entityManager, previous);
+    }
+
+    // the entity manager outlives the transaction when it is opened for the whole request
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReplicaReadData) {
+            ReplicaReadData replicaRead = (ReplicaReadData) transactionData;
+            if (replicaRead.entityManager.isOpen()) {
+                replicaRead.entityManager.setProperty(STORE_MODE, replicaRead.previousStoreMode);
+            }
+            super.cleanupTransaction(replicaRead.transactionData);
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+
+    private static final class ReplicaReadData {
+        private final Object transactionData;
+        private final EntityManager entityManager;
+        private final Object previousStoreMode;
+
+        private ReplicaReadData(Object transactionData, EntityManager entityManager, Object previousStoreMode) {
+            this.transactionData = transactionData;
+            this.entityManager = entityManager;
+            this.previousStoreMode = previousStoreMode;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.datasource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends connections of read-only transactions started by {@link ReplicaRead} methods to a replica
+ * and everything else to the primary.
+ * Reads of a user who has just changed something stay on the primary for the read-your-writes
+ * window. The key is resolved when a connection is obtained, so the data source has to be
+ * wrapped into a lazy connection proxy for the transaction's read-only flag to be known by then.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+    public static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> REPLICA_READ = ThreadLocal.withInitial(() -> false);
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWrites readYourWrites;
+    private final AtomicLong primaryRoutes = new AtomicLong();
+    private final AtomicLong replicaRoutes = new AtomicLong();
+
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ReplicaLagMonitor lagMonitor,
+                                    ReadYourWrites readYourWrites) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("shareit.datasource.routes", primaryRoutes, AtomicLong::get)
+                .tag("target", "primary")
+                .register(registry);
+        FunctionCounter.builder("shareit.datasource.routes", replicaRoutes, AtomicLong::get)
+                .tag("target", "replica")
+                .register(registry);
+    }
+
+    static boolean isReplicaRead() {
+        return REPLICA_READ.get();
+    }
+
+    static void setReplicaRead(boolean replicaRead) {
+        if (replicaRead) {
+            REPLICA_READ.set(true);
+        } else {
+            REPLICA_READ.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (readOnly && REPLICA_READ.get() && !readYourWrites.isWithinWindow()) {
+            String replica = lagMonitor.pick();
+            if (replica != null) {
+                replicaRoutes.incrementAndGet();
+                return replica;
+            }
+        }
+        if (!readOnly && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    readYourWrites.recordWrite();
+                }
+            });
+        }
+        primaryRoutes.incrementAndGet();
+        return PRIMARY;
+    }
+}
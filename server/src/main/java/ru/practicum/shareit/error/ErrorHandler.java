@@ -25,7 +25,7 @@ public class ErrorHandler {
         return new ErrorResponse(ex.getMessage());
     }
 
-    @ExceptionHandler({ConstraintViolationException.class,})
+    @ExceptionHandler({ConstraintViolationException.class, BookingConflictException.class})
     @ResponseStatus(HttpStatus.CONFLICT)
     public ErrorResponse alreadyExist(RuntimeException ex) {
         return new ErrorResponse(ex.getMessage());
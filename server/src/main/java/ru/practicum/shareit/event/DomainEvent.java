@@ -0,0 +1,31 @@
+package ru.practicum.shareit.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A committed change of a booking, item or item request, identified by {@link #id}. Comments are
+ * changes of their item. The payload is the response the change returned, {@code null} for deletions.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class DomainEvent {
+
+    private final Type type;
+    private final long id;
+    private final long userId;
+    private final Object payload;
+
+    public enum Type {
+        BOOKING_CREATED,
+        BOOKING_APPROVED,
+        BOOKING_REJECTED,
+        ITEM_CREATED,
+        ITEM_PATCHED,
+        ITEM_DELETED,
+        COMMENT_ADDED,
+        REQUEST_CREATED
+    }
+}
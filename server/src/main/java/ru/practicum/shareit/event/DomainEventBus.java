@@ -0,0 +1,284 @@
+package ru.practicum.shareit.event;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers committed changes to the {@link DomainEventListener} beans without locks. Publishers claim
+ * the next sequence of a ring buffer with a compare-and-set and stamp the slot with it once the event
+ * is written. Every listener runs on a thread of its own and follows with its own sequence, taking all
+ * stamped events up to {@link #MAX_BATCH} at once, and parks until a publisher wakes it when there are
+ * none. A slot is reused only after every listener has passed it: a publisher that finds the buffer
+ * full waits up to the publish timeout for the slowest listener to free one, then drops the event and
+ * has every listener {@linkplain DomainEventListener#resync() resync} before its next batch, so a
+ * stuck listener holds back a request for a bounded time only.
+ */
+@Component
+public class DomainEventBus implements AutoCloseable {
+
+    public static final int BUFFER_SIZE = 4096;
+    static final int MAX_BATCH = 256;
+    private static final Duration PUBLISH_TIMEOUT = Duration.ofMillis(100);
+    private static final long WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    // publishers unpark idle listeners, the timeout only bounds a missed wake-up
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final Logger log = LoggerFactory.getLogger(DomainEventBus.class);
+    private final ObjectProvider<DomainEventListener> listeners;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int mask;
+    private final long publishTimeoutNanos;
+    private final AtomicReferenceArray<DomainEvent> slots;
+    private final AtomicLongArray stamps;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile List<Consumer> consumers = Collections.emptyList();
+
+
+    @Autowired
+    public DomainEventBus(ObjectProvider<DomainEventListener> listeners, ObjectProvider<MeterRegistry> meterRegistry) {
+        this(listeners, meterRegistry, BUFFER_SIZE, PUBLISH_TIMEOUT);
+    }
+
+    DomainEventBus(ObjectProvider<DomainEventListener> listeners, ObjectProvider<MeterRegistry> meterRegistry,
+                   int bufferSize, Duration publishTimeout) {
+        if (Integer.bitCount(bufferSize) != 1) throw new IllegalArgumentException("Buffer size must be a power of two");
+        this.listeners = listeners;
+        this.meterRegistry = meterRegistry;
+        this.mask = bufferSize - 1;
+        this.publishTimeoutNanos = publishTimeout.toNanos();
+        this.slots = new AtomicReferenceArray<>(bufferSize);
+        this.stamps = new AtomicLongArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            stamps.set(i, -1);
+        }
+    }
+
+    /**
+     * Starts a thread per listener. Events published before are not delivered.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!consumers.isEmpty()) return;
+        long start = cursor.get();
+        List<Consumer> started = listeners.orderedStream()
+                .map(listener -> new Consumer(listener, start))
+                .collect(Collectors.toList());
+        consumers = started;
+        bindTo(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        started.forEach(consumer -> consumer.thread.start());
+    }
+
+    /**
+     * Stops the listener threads once they have taken the events published so far. Publishers waiting
+     * for a slot are released, later events are not delivered.
+     */
+    @Override
+    public synchronized void close() {
+        consumers.forEach(consumer -> consumer.running = false);
+        for (Consumer consumer : consumers) {
+            LockSupport.unpark(consumer.thread);
+            try {
+                consumer.thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        consumers = Collections.emptyList();
+    }
+
+    /**
+     * Publishes the event once the current transaction commits, and never if it rolls back. The services
+     * write without a surrounding transaction, so there usually is none: every repository call commits
+     * before it returns, and an event published after the last write of a change goes out at once, behind
+     * the commit of that write. Such a change is not atomic: when one of its later writes fails, the
+     * earlier ones stay committed and no event is published.
+     */
+    public void publishAfterCommit(DomainEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(event);
+            }
+        });
+    }
+
+    public void publish(DomainEvent event) {
+        long sequence = claim();
+        if (sequence < 0) {
+            dropped.incrementAndGet();
+            log.warn("Event bus is full, dropped {} and asked the listeners to resync", event);
+        } else {
+            int index = (int) (sequence & mask);
+            slots.set(index, event);
+            stamps.set(index, sequence);
+            published.incrementAndGet();
+        }
+        wakeIdleConsumers();
+    }
+
+    private void wakeIdleConsumers() {
+        for (Consumer consumer : consumers) {
+            if (consumer.idle) LockSupport.unpark(consumer.thread);
+        }
+    }
+
+    private long claim() {
+        long waitStart = 0;
+        boolean interrupted = false;
+        try {
+            while (true) {
+                long current = cursor.get();
+                long next = current + 1;
+                if (next - slots.length() > slowestSequence()) {
+                    if (waitStart == 0) {
+                        waits.incrementAndGet();
+                        waitStart = System.nanoTime();
+                    } else if (System.nanoTime() - waitStart > publishTimeoutNanos) {
+                        return -1;
+                    }
+                    // parkNanos returns at once while the interrupt flag is set, keep it for the caller
+                    interrupted |= Thread.interrupted();
+                    LockSupport.parkNanos(WAIT_NANOS);
+                } else if (cursor.compareAndSet(current, next)) {
+                    return next;
+                }
+            }
+        } finally {
+            if (waitStart != 0) waitNanos.addAndGet(System.nanoTime() - waitStart);
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private long slowestSequence() {
+        long slowest = Long.MAX_VALUE;
+        for (Consumer consumer : consumers) {
+            slowest = Math.min(slowest, consumer.sequence.get());
+        }
+        return slowest;
+    }
+
+    private void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("shareit.events.published", published, AtomicLong::get).register(registry);
+        FunctionTimer.builder("shareit.events.publish.waits", this, bus -> bus.waits.get(),
+                        bus -> bus.waitNanos.get(), TimeUnit.NANOSECONDS)
+                .description("Publications that found the buffer full and the time they waited for a slot")
+                .register(registry);
+        FunctionCounter.builder("shareit.events.dropped", dropped, AtomicLong::get)
+                .description("Events dropped after waiting the publish timeout for a slot")
+                .register(registry);
+        Gauge.builder("shareit.events.buffer.remaining", this,
+                        bus -> bus.slots.length() - (bus.cursor.get() - Math.min(bus.cursor.get(), bus.slowestSequence())))
+                .register(registry);
+        for (Consumer consumer : consumers) {
+            String name = consumer.listener.getName();
+            Gauge.builder("shareit.events.consumer.lag", consumer, c -> cursor.get() - c.sequence.get())
+                    .tag("consumer", name)
+                    .register(registry);
+            FunctionCounter.builder("shareit.events.consumer.events", consumer.consumed, AtomicLong::get)
+                    .tag("consumer", name)
+                    .register(registry);
+            FunctionCounter.builder("shareit.events.consumer.batches", consumer.batches, AtomicLong::get)
+                    .tag("consumer", name)
+                    .register(registry);
+            FunctionCounter.builder("shareit.events.consumer.errors", consumer.errors, AtomicLong::get)
+                    .tag("consumer", name)
+                    .register(registry);
+        }
+    }
+
+    private final class Consumer implements Runnable {
+
+        private final DomainEventListener listener;
+        private final AtomicLong sequence;
+        private final AtomicLong consumed = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final Thread thread;
+        private volatile boolean running = true;
+        private volatile boolean idle;
+        private long seenDrops = dropped.get();
+
+        private Consumer(DomainEventListener listener, long start) {
+            this.listener = listener;
+            this.sequence = new AtomicLong(start);
+            this.thread = new Thread(this, "domain-events-" + listener.getName());
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<DomainEvent> batch = new ArrayList<>(MAX_BATCH);
+            while (true) {
+                long drops = dropped.get();
+                if (drops != seenDrops) {
+                    seenDrops = drops;
+                    deliver(listener::resync, "resync");
+                }
+                long next = sequence.get() + 1;
+                while (batch.size() < MAX_BATCH) {
+                    long candidate = next + batch.size();
+                    int index = (int) (candidate & mask);
+                    if (stamps.get(index) != candidate) break;
+                    batch.add(slots.get(index));
+                }
+                if (batch.isEmpty()) {
+                    if (!running) return;
+                    // a publisher stamps its slot, then checks the flag: one of the two sees the other
+                    idle = true;
+                    int index = (int) (next & mask);
+                    if (stamps.get(index) != next && dropped.get() == seenDrops && running) {
+                        LockSupport.parkNanos(IDLE_NANOS);
+                    }
+                    idle = false;
+                    continue;
+                }
+                List<DomainEvent> events = Collections.unmodifiableList(batch);
+                deliver(() -> listener.onEvents(events), events.size() + " events");
+                sequence.set(next + batch.size() - 1);
+                consumed.addAndGet(batch.size());
+                batches.incrementAndGet();
+                batch = new ArrayList<>(MAX_BATCH);
+            }
+        }
+
+        private void deliver(Runnable call, String what) {
+            try {
+                call.run();
+            } catch (RuntimeException e) {
+                errors.incrementAndGet();
+                log.warn("Listener {} failed on {}", listener.getName(), what, e);
+            }
+        }
+    }
+}
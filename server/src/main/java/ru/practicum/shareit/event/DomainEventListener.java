@@ -0,0 +1,25 @@
+package ru.practicum.shareit.event;
+
+import java.util.List;
+
+/**
+ * Receives the events of the {@link DomainEventBus} on a thread of its own, in publication order and
+ * in batches of the events published since the previous call. An exception thrown here skips the
+ * batch for this listener only.
+ */
+public interface DomainEventListener {
+
+    void onEvents(List<DomainEvent> events);
+
+    /**
+     * Called before the next batch once the bus has dropped events. A listener that keeps state
+     * derived from the events reloads it here; batches that follow may still carry events the
+     * reloaded state already reflects.
+     */
+    default void resync() {
+    }
+
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+}
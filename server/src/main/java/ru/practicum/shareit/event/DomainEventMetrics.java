@@ -0,0 +1,38 @@
+package ru.practicum.shareit.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the committed changes by {@link DomainEvent.Type} from the events of the bus, so the rate of
+ * bookings, items and comments is known without querying the tables.
+ */
+@Component
+public class DomainEventMetrics implements DomainEventListener {
+
+    private final Map<DomainEvent.Type, Counter> counters = new EnumMap<>(DomainEvent.Type.class);
+
+    public DomainEventMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        for (DomainEvent.Type type : DomainEvent.Type.values()) {
+            counters.put(type, Counter.builder("shareit.domain.changes")
+                    .description("Committed changes by type")
+                    .tag("type", type.name())
+                    .register(registry));
+        }
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            counters.get(event.getType()).increment();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes whole tables as newline-delimited JSON, one row per line, reading them through
+ * database cursors so that memory use does not depend on the table size.
+ */
+public interface ExportService {
+
+    void exportUsers(OutputStream out) throws IOException;
+
+    void exportItems(OutputStream out) throws IOException;
+
+    void exportBookings(OutputStream out) throws IOException;
+
+    void exportComments(OutputStream out) throws IOException;
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class ExportServiceImpl implements ExportService {
+
+    private static final byte NEW_LINE = '\n';
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ExportServiceImpl(UserRepository userRepository, ItemRepository itemRepository,
+                             BookingRepository bookingRepository, CommentRepository commentRepository,
+                             ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.commentRepository = commentRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void exportUsers(OutputStream out) throws IOException {
+        export("users", userRepository::streamAll, out);
+    }
+
+    @Override
+    public void exportItems(OutputStream out) throws IOException {
+        export("items", itemRepository::streamAll, out);
+    }
+
+    @Override
+    public void exportBookings(OutputStream out) throws IOException {
+        export("bookings", bookingRepository::streamAll, out);
+    }
+
+    @Override
+    public void exportComments(OutputStream out) throws IOException {
+        export("comments", commentRepository::streamAll, out);
+    }
+
+    /**
+     * Rows are constructor projections, so the persistence context stays empty while the cursor
+     * advances, and each row is written out as soon as it is read.
+     */
+    private <T> void export(String table, Supplier<Stream<T>> rows, OutputStream out) throws IOException {
+        try {
+            Long count = readOnlyTransaction.execute(status -> {
+                long written = 0;
+                try (Stream<T> stream = rows.get()) {
+                    Iterator<T> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                        out.write(NEW_LINE);
+                        written++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return written;
+            });
+            log.info("Exported {} rows of {}", count, table);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.batch.BatchResult;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoBooking;
 
 import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -20,17 +25,30 @@ public class ItemController {
     }
 
     @GetMapping
-    public List<ItemDtoBooking> getAllItems(@RequestHeader("X-Sharer-User-Id") long userId,
-                                            @RequestParam(name = "from", required = false, defaultValue = "0") Integer from,
-                                            @RequestParam(name = "size", required = false, defaultValue = "10") Integer size) {
-        return itemService.getAllItems(userId, from, size);
+    public ResponseEntity<List<ItemDtoBooking>> getAllItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                            @RequestParam(name = "from", required = false, defaultValue = "0") Integer from,
+                                                            @RequestParam(name = "cursor", required = false) String cursor,
+                                                            @RequestParam(name = "size", required = false, defaultValue = "10") Integer size) {
+        return itemService.getAllItems(userId, from, cursor, size).toResponse();
     }
 
     @GetMapping("/search")
-    public List<ItemDto> search(@RequestParam("text") @NotNull String text,
-                                @RequestParam(name = "from", required = false, defaultValue = "0") Integer from,
-                                @RequestParam(name = "size", required = false, defaultValue = "10") Integer size) {
-        return itemService.search(text.toLowerCase(), from, size);
+    public ResponseEntity<List<ItemDto>> search(@RequestParam("text") @NotNull String text,
+                                                @RequestParam(name = "from", required = false, defaultValue = "0") Integer from,
+                                                @RequestParam(name = "cursor", required = false) String cursor,
+                                                @RequestParam(name = "size", required = false, defaultValue = "10") Integer size,
+                                                @RequestParam(name = "availableFrom", required = false)
+                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime availableFrom,
+                                                @RequestParam(name = "availableTo", required = false)
+                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime availableTo) {
+        return itemService.search(text.toLowerCase(), from, cursor, size, availableFrom, availableTo).toResponse();
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable long itemId,
+                                               @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(itemId, from, to);
     }
 
     @GetMapping("/{itemId}")
@@ -45,6 +63,12 @@ public class ItemController {
         return itemService.addNewItem(userId, itemDto);
     }
 
+    @PostMapping("/batch")
+    public List<BatchResult<ItemDto>> addBatch(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                               @RequestBody List<ItemDto> items) {
+        return itemService.addNewItems(userId, items);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto patch(@RequestHeader("X-Sharer-User-Id") Long userId,
                          @RequestBody ItemDto itemDto,
@@ -66,5 +90,13 @@ public class ItemController {
         return itemService.createComment(comment, userId, itemId);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(@PathVariable long itemId,
+                                                        @RequestParam(name = "from", required = false, defaultValue = "0") Integer from,
+                                                        @RequestParam(name = "cursor", required = false) String cursor,
+                                                        @RequestParam(name = "size", required = false, defaultValue = "10") Integer size) {
+        return itemService.getComments(itemId, from, cursor, size).toResponse();
+    }
+
 
 }
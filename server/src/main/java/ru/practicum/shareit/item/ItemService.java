@@ -1,25 +1,36 @@
 package ru.practicum.shareit.item;
 
+import ru.practicum.shareit.batch.BatchResult;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoBooking;
+import ru.practicum.shareit.pagination.CursorPage;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
 
-    List<ItemDtoBooking> getAllItems(long userId, Integer from, Integer size);
+    CursorPage<ItemDtoBooking> getAllItems(long userId, Integer from, String cursor, Integer size);
 
     ItemDto addNewItem(Long userId, ItemDto itemDto);
 
+    List<BatchResult<ItemDto>> addNewItems(Long userId, List<ItemDto> items);
+
     void deleteItem(long userId, long itemId);
 
     ItemDto patch(Long userId, ItemDto itemDto, long itemId);
 
     ItemDtoBooking getItem(long itemId, long userId);
 
-    List<ItemDto> search(String text, Integer from, Integer size);
+    CursorPage<ItemDto> search(String text, Integer from, String cursor, Integer size,
+                               LocalDateTime availableFrom, LocalDateTime availableTo);
+
+    ItemAvailabilityDto getAvailability(long itemId, LocalDateTime from, LocalDateTime to);
 
     CommentDto createComment(CommentDto comment, long userId, long itemId);
 
+    CursorPage<CommentDto> getComments(long itemId, Integer from, String cursor, Integer size);
+
 }
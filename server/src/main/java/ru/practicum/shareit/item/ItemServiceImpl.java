@@ -2,31 +2,43 @@ package ru.practicum.shareit.item;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.batch.BatchExecutor;
+import ru.practicum.shareit.batch.BatchResult;
 import ru.practicum.shareit.booking.BookingRepository;
-import ru.practicum.shareit.booking.dto.BookingItemDto;
-import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.BookingTimelineIndex;
+import ru.practicum.shareit.booking.dto.TimeIntervalDto;
+import ru.practicum.shareit.datasource.ReplicaRead;
 import ru.practicum.shareit.error.ItemNotFoundException;
 import ru.practicum.shareit.error.UserNotFoundException;
+import ru.practicum.shareit.event.DomainEvent;
+import ru.practicum.shareit.event.DomainEventBus;
+import ru.practicum.shareit.item.comment.LatestCommentsCache;
 import ru.practicum.shareit.item.dao.CommentRepository;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoAvailability;
 import ru.practicum.shareit.item.dto.ItemDtoBooking;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.markers.Create;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.FromSizeRequest;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Optional;
+import javax.validation.ValidationException;
+import java.time.LocalDateTime;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,60 +49,108 @@ public class ItemServiceImpl implements ItemService {
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
-    private final BookingMapper bookingMapper;
     private final ItemMapper itemMapper;
     private final ItemRequestRepository itemRequestRepository;
     private final CommentMapper commentMapper;
+    private final BookingTimelineIndex bookingTimelineIndex;
+    private final ItemSearchIndex itemSearchIndex;
+    private final BatchExecutor batchExecutor;
+    private final LatestCommentsCache latestCommentsCache;
+    private final DomainEventBus eventBus;
 
 
     public ItemServiceImpl(ItemRepository itemRepository, UserRepository userRepository,
                            BookingRepository bookingRepository,
                            CommentRepository commentRepository,
-                           BookingMapper bookingMapper,
                            ItemMapper itemMapper,
-                           ItemRequestRepository itemRequestRepository, CommentMapper commentMapper) {
+                           ItemRequestRepository itemRequestRepository, CommentMapper commentMapper,
+                           BookingTimelineIndex bookingTimelineIndex,
+                           ItemSearchIndex itemSearchIndex,
+                           BatchExecutor batchExecutor,
+                           LatestCommentsCache latestCommentsCache,
+                           DomainEventBus eventBus) {
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.bookingRepository = bookingRepository;
         this.commentRepository = commentRepository;
-        this.bookingMapper = bookingMapper;
         this.itemMapper = itemMapper;
         this.itemRequestRepository = itemRequestRepository;
         this.commentMapper = commentMapper;
+        this.bookingTimelineIndex = bookingTimelineIndex;
+        this.itemSearchIndex = itemSearchIndex;
+        this.batchExecutor = batchExecutor;
+        this.latestCommentsCache = latestCommentsCache;
+        this.eventBus = eventBus;
     }
 
     @Override
-    public List<ItemDtoBooking> getAllItems(long userId, Integer from, Integer size) {
-        List<Item> items = itemRepository.findItemByOwnerId(userId, PageRequest.of(from, size)).toList();
-        return items.stream().sorted(Comparator.comparing(Item::getId)).map(this::addBookingsAndComments).collect(Collectors.toList());
-
+    @ReplicaRead
+    public CursorPage<ItemDtoBooking> getAllItems(long userId, Integer from, String cursor, Integer size) {
+        Cursor before = Cursor.decode(cursor, Cursor.DESCENDING_START);
+        Slice<Item> items = itemRepository.findItemByOwnerId(userId, before.getId(),
+                FromSizeRequest.of(from, size, cursor));
+        return CursorPage.of(items, addBookingsAndComments(items.getContent()), item -> Cursor.of(item.getId()));
     }
 
     @Override
     public ItemDto addNewItem(Long userId, ItemDto itemDto) {
-        checkUserExist(userId);
+        User owner = findUser(userId);
         ItemRequest itemRequest = null;
         if (itemDto.getRequestId() != null)
             itemRequest = itemRequestRepository.findById(itemDto.getRequestId()).get();
-        Item savedItem = itemRepository.save(itemMapper.toItem(itemDto, userRepository.getById(userId), itemRequest));
-        return itemMapper.toDto(savedItem, userId, savedItem.getId());
+        Item savedItem = itemRepository.save(itemMapper.toItem(itemDto, owner, itemRequest));
+        bookingTimelineIndex.addItem(savedItem.getId());
+        itemSearchIndex.index(savedItem);
+        return created(savedItem, userId);
+    }
+
+    @Override
+    public List<BatchResult<ItemDto>> addNewItems(Long userId, List<ItemDto> items) {
+        User owner = findUser(userId);
+        return batchExecutor.execute(items, Create.class, itemDto -> {
+            ItemRequest itemRequest = null;
+            if (itemDto.getRequestId() != null)
+                itemRequest = itemRequestRepository.findById(itemDto.getRequestId())
+                        .orElseThrow(() -> new ItemNotFoundException("Request not found"));
+            Item item = itemMapper.toItem(itemDto, owner, itemRequest);
+            item.setId(null);
+            return item;
+        }, itemRepository::saveAllAndFlush, savedItem -> {
+            bookingTimelineIndex.addItem(savedItem.getId());
+            itemSearchIndex.index(savedItem);
+            return created(savedItem, userId);
+        });
+    }
+
+    private ItemDto created(Item item, Long userId) {
+        ItemDto response = itemMapper.toDto(item, userId, item.getId());
+        eventBus.publishAfterCommit(new DomainEvent(DomainEvent.Type.ITEM_CREATED, item.getId(), userId, response));
+        return response;
     }
 
     @Override
     public void deleteItem(long userId, long itemId) {
         validateAccess(userId, itemId);
         itemRepository.deleteById(itemId);
+        bookingTimelineIndex.removeItem(itemId);
+        itemSearchIndex.delete(itemId);
+        latestCommentsCache.evict(itemId);
+        eventBus.publishAfterCommit(new DomainEvent(DomainEvent.Type.ITEM_DELETED, itemId, userId, null));
     }
 
     @Override
     public ItemDto patch(Long userId, ItemDto itemDto, long itemId) {
         itemDto.setId(itemId);
-        validateAccess(userId, itemId);
-        Item savedItem = itemMapper.patchItemDtoToItem(itemRepository.findById(itemId).get(), itemDto);
-        return itemMapper.toDto(itemRepository.save(savedItem), userId, itemId);
+        Item item = validateAccess(userId, itemId);
+        Item savedItem = itemRepository.save(itemMapper.patchItemDtoToItem(item, itemDto));
+        itemSearchIndex.index(savedItem);
+        ItemDto response = itemMapper.toDto(savedItem, userId, itemId);
+        eventBus.publishAfterCommit(new DomainEvent(DomainEvent.Type.ITEM_PATCHED, itemId, userId, response));
+        return response;
     }
 
     @Override
+    @ReplicaRead
     public ItemDtoBooking getItem(long itemId, long userId) {
         Optional<Item> item = itemRepository.findById(itemId);
         if (item.isEmpty()) throw new ItemNotFoundException("Item not found!");
@@ -103,10 +163,39 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    public List<ItemDto> search(String text, Integer from, Integer size) {
-        if (text.isBlank()) return new ArrayList<>();
-        List<Item> list = itemRepository.searchByDescriptionAndName(text, PageRequest.of(from, size)).toList();
-        return list.stream().map(item -> itemMapper.toDto(item, item.getOwner().getId(), item.getId())).collect(Collectors.toList());
+    @ReplicaRead
+    public CursorPage<ItemDto> search(String text, Integer from, String cursor, Integer size,
+                                      LocalDateTime availableFrom, LocalDateTime availableTo) {
+        boolean withWindow = availableFrom != null || availableTo != null;
+        if (withWindow) checkWindow(availableFrom, availableTo);
+        if (text.isBlank()) return new CursorPage<>(new ArrayList<>(), null);
+        FromSizeRequest pageable = FromSizeRequest.of(from, size, cursor);
+        CursorPage<ItemDto> page = itemSearchIndex.search(text, Cursor.decode(cursor, null), (int) pageable.getOffset(), size);
+        if (!withWindow) return page;
+
+        bookingTimelineIndex.preload(page.getContent().stream().map(ItemDto::getId).collect(Collectors.toList()));
+        List<ItemDto> content = page.getContent().stream()
+                .map(item -> new ItemDtoAvailability(item,
+                        bookingTimelineIndex.isFree(item.getId(), availableFrom, availableTo)))
+                .collect(Collectors.toList());
+        return new CursorPage<>(content, page.getNextCursor());
+    }
+
+    @Override
+    @ReplicaRead
+    public ItemAvailabilityDto getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        checkWindow(from, to);
+        if (!bookingTimelineIndex.contains(itemId) && !itemRepository.existsById(itemId))
+            throw new ItemNotFoundException("Item not found!");
+        List<TimeIntervalDto> busy = bookingTimelineIndex.findBusyIntervals(itemId, from, to);
+        List<TimeIntervalDto> free = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+        for (TimeIntervalDto interval : busy) {
+            if (freeFrom.isBefore(interval.getStart())) free.add(new TimeIntervalDto(freeFrom, interval.getStart()));
+            freeFrom = interval.getEnd();
+        }
+        if (freeFrom.isBefore(to)) free.add(new TimeIntervalDto(freeFrom, to));
+        return new ItemAvailabilityDto(itemId, from, to, busy, free);
     }
 
     @Override
@@ -121,38 +210,76 @@ public class ItemServiceImpl implements ItemService {
             throw new NullPointerException("Not found such booking!");
         }
         Comment newComment = commentRepository.save(commentMapper.dtoToComment(comment, user, item));
+        CommentDto savedComment = commentMapper.toDto(newComment);
+        latestCommentsCache.add(itemId, savedComment);
+        eventBus.publishAfterCommit(new DomainEvent(DomainEvent.Type.COMMENT_ADDED, itemId, userId, savedComment));
+        return savedComment;
+    }
 
-        return commentMapper.toDto(newComment);
+    @Override
+    @ReplicaRead
+    public CursorPage<CommentDto> getComments(long itemId, Integer from, String cursor, Integer size) {
+        if (!bookingTimelineIndex.contains(itemId) && !itemRepository.existsById(itemId))
+            throw new ItemNotFoundException("Item not found!");
+        Cursor before = Cursor.decode(cursor, Cursor.DESCENDING_START);
+        Slice<CommentDto> comments = commentRepository.findItemComments(itemId, before.getTime(), before.getId(),
+                FromSizeRequest.of(from, size, cursor));
+        return CursorPage.of(comments, comments.getContent(), comment -> Cursor.of(comment.getCreated(), comment.getId()));
     }
 
 
-    private void validateAccess(long userId, long itemId) {
-        if (itemRepository.findById(itemId).get().getOwner().getId() != userId) {
+    private Item validateAccess(long userId, long itemId) {
+        Item item = itemRepository.findById(itemId).get();
+        if (item.getOwner().getId() != userId) {
             throw new UserNotFoundException("Ошибка доступа!");
         }
+        return item;
+    }
+
+    private void checkWindow(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to))
+            throw new ValidationException("Wrong time window!");
     }
 
-    private void checkUserExist(long userId) {
-        if (userRepository.findById(userId).isEmpty()) {
+    private User findUser(long userId) {
+        return userRepository.findById(userId).orElseThrow(() -> {
             log.info("Не найден пользователь с id {}", userId);
             throw new UserNotFoundException("Not found user!");
-        }
+        });
     }
 
     private ItemDtoBooking addBookingsAndComments(Item item) {
         ItemDtoBooking itemBooking = itemMapper.toDtoBooking(item);
-        if (bookingRepository.getNextBookingByItemId(item.getId()).isPresent()) {
-            BookingItemDto nextBooking = bookingMapper.bookingToItem(bookingRepository.getNextBookingByItemId(item.getId()).get());
-            itemBooking.setNextBooking(nextBooking);
-        }
-        if (bookingRepository.getLastBookingByItemId(item.getId()).isPresent()) {
-            BookingItemDto lastBooking = bookingMapper.bookingToItem(bookingRepository.getLastBookingByItemId(item.getId()).get());
-            itemBooking.setLastBooking(lastBooking);
-        }
-        itemBooking.setComments(commentRepository.findAllByItem_Id(item.getId())
-                .stream().map(commentMapper::toDto)
-                .collect(Collectors.toSet()));
+        LocalDateTime now = LocalDateTime.now();
+        bookingTimelineIndex.findNextBooking(item.getId(), now).ifPresent(itemBooking::setNextBooking);
+        bookingTimelineIndex.findLastBooking(item.getId(), now).ifPresent(itemBooking::setLastBooking);
+        setComments(itemBooking, latestCommentsCache.get(item.getId()));
         return itemBooking;
     }
 
+    private List<ItemDtoBooking> addBookingsAndComments(List<Item> items) {
+        if (items.isEmpty()) return new ArrayList<>();
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+
+        bookingTimelineIndex.preload(itemIds);
+        Map<Long, LatestCommentsCache.ItemComments> comments = latestCommentsCache.getAll(itemIds);
+
+        return items.stream()
+                .sorted(Comparator.comparing(Item::getId))
+                .map(item -> {
+                    ItemDtoBooking itemBooking = itemMapper.toDtoBooking(item);
+                    bookingTimelineIndex.findLastBooking(item.getId(), now).ifPresent(itemBooking::setLastBooking);
+                    bookingTimelineIndex.findNextBooking(item.getId(), now).ifPresent(itemBooking::setNextBooking);
+                    setComments(itemBooking, comments.get(item.getId()));
+                    return itemBooking;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private void setComments(ItemDtoBooking itemBooking, LatestCommentsCache.ItemComments comments) {
+        itemBooking.setComments(comments.getLatest());
+        itemBooking.setCommentsCount(comments.getCount());
+    }
+
 }
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.item.comment;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentDtoExport;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the latest comments and the comment count of recently read items, so that item
+ * responses carry a bounded number of comments without reading all of them. Entries are
+ * loaded on first access, updated when a comment is created and the least recently read
+ * items are dropped once {@link #MAX_ITEMS} are cached. Older comments are served by the
+ * paginated comment list. Entries are loaded from the primary, so that a comment a replica has
+ * not received yet is never left out of a cached entry.
+ */
+@Component
+public class LatestCommentsCache {
+
+    public static final int LATEST_COMMENTS = 10;
+    static final int MAX_ITEMS = 10_000;
+    private static final Comparator<CommentDto> NEWEST_FIRST = Comparator
+            .comparing(CommentDto::getCreated, Comparator.reverseOrder())
+            .thenComparing(CommentDto::getId, Comparator.reverseOrder());
+    private final CommentRepository commentRepository;
+    private final PrimaryReads primaryReads;
+    private final Map<Long, ItemComments> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, ItemComments> eldest) {
+            return size() > MAX_ITEMS;
+        }
+    };
+    // bumped by every change, a load that raced with one is returned but not cached
+    private long version;
+
+
+    public LatestCommentsCache(CommentRepository commentRepository, PrimaryReads primaryReads) {
+        this.commentRepository = commentRepository;
+        this.primaryReads = primaryReads;
+    }
+
+    public ItemComments get(long itemId) {
+        return getAll(List.of(itemId)).get(itemId);
+    }
+
+    public Map<Long, ItemComments> getAll(Collection<Long> itemIds) {
+        Map<Long, ItemComments> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long loadVersion;
+        synchronized (entries) {
+            for (Long itemId : itemIds) {
+                ItemComments comments = entries.get(itemId);
+                if (comments == null) {
+                    missing.add(itemId);
+                } else {
+                    found.put(itemId, comments);
+                }
+            }
+            loadVersion = version;
+        }
+        if (missing.isEmpty()) return found;
+
+        Map<Long, ItemComments> loaded = primaryReads.read(() -> load(missing));
+        synchronized (entries) {
+            if (version == loadVersion) entries.putAll(loaded);
+        }
+        found.putAll(loaded);
+        return found;
+    }
+
+    public void add(long itemId, CommentDto comment) {
+        synchronized (entries) {
+            version++;
+            entries.computeIfPresent(itemId, (id, comments) -> comments.with(comment));
+        }
+    }
+
+    public void evict(long itemId) {
+        synchronized (entries) {
+            version++;
+            entries.remove(itemId);
+        }
+    }
+
+    private Map<Long, ItemComments> load(List<Long> itemIds) {
+        Map<Long, Long> totals = new HashMap<>();
+        List<Long> commentIds = new ArrayList<>();
+        for (CommentRepository.RankedComment ranked : commentRepository.findLatestByItemIds(itemIds, LATEST_COMMENTS)) {
+            totals.put(ranked.getItemId(), ranked.getTotal());
+            commentIds.add(ranked.getId());
+        }
+        Map<Long, List<CommentDto>> latest = commentIds.isEmpty() ? Collections.emptyMap()
+                : commentRepository.findAllByIds(commentIds)
+                .stream()
+                .sorted(NEWEST_FIRST)
+                .collect(Collectors.groupingBy(CommentDtoExport::getItemId,
+                        Collectors.mapping(LatestCommentsCache::copy, Collectors.toList())));
+
+        Map<Long, ItemComments> loaded = new HashMap<>();
+        for (Long itemId : itemIds) {
+            loaded.put(itemId, new ItemComments(latest.getOrDefault(itemId, Collections.emptyList()),
+                    totals.getOrDefault(itemId, 0L)));
+        }
+        return loaded;
+    }
+
+    private static CommentDto copy(CommentDto comment) {
+        return new CommentDto(comment.getId(), comment.getText(), comment.getAuthorName(), comment.getCreated());
+    }
+
+    public static final class ItemComments {
+        private final List<CommentDto> latest;
+        private final long count;
+
+        public ItemComments(List<CommentDto> latest, long count) {
+            this.latest = Collections.unmodifiableList(latest);
+            this.count = count;
+        }
+
+        public List<CommentDto> getLatest() {
+            return latest;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        // a load that ran after the comment was saved already has it
+        private ItemComments with(CommentDto comment) {
+            if (latest.stream().anyMatch(cached -> Objects.equals(cached.getId(), comment.getId()))) return this;
+            List<CommentDto> comments = new ArrayList<>(latest.size() + 1);
+            comments.add(copy(comment));
+            comments.addAll(latest);
+            comments.sort(NEWEST_FIRST);
+            return new ItemComments(comments.subList(0, Math.min(comments.size(), LATEST_COMMENTS)), count + 1);
+        }
+    }
+}
@@ -1,13 +1,56 @@
 package ru.practicum.shareit.item.dao;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentDtoExport;
 import ru.practicum.shareit.item.model.Comment;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findAllByItem_Id(Long itemId);
+    @Query("select new ru.practicum.shareit.item.dto.CommentDto(c.id, c.text, c.author.name, c.created) " +
+            "from Comment as c where c.item.id = ?1" +
+            " and (c.created < ?2 or (c.created = ?2 and c.id < ?3)) order by c.created desc, c.id desc")
+    Slice<CommentDto> findItemComments(Long itemId, LocalDateTime created, Long id, Pageable pageable);
+
+    /**
+     * Ids of the {@code limit} latest comments of every item together with the item's comment count.
+     */
+    @Query(value = "select ranked.id as id, ranked.item_id as itemId, ranked.total as total from (" +
+            "select c.id, c.item_id, count(*) over (partition by c.item_id) as total, " +
+            "row_number() over (partition by c.item_id order by c.created desc, c.id desc) as recency " +
+            "from comments as c where c.item_id in ?1) as ranked " +
+            "where ranked.recency <= ?2", nativeQuery = true)
+    List<RankedComment> findLatestByItemIds(Collection<Long> itemIds, int limit);
+
+    @Query("select new ru.practicum.shareit.item.dto.CommentDtoExport(c.id, c.text, c.author.id, c.author.name, " +
+            "c.created, c.item.id) from Comment as c where c.id in ?1")
+    List<CommentDtoExport> findAllByIds(Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.item.dto.CommentDtoExport(c.id, c.text, c.author.id, c.author.name, " +
+            "c.created, c.item.id) from Comment as c order by c.id")
+    Stream<CommentDtoExport> streamAll();
+
+    interface RankedComment {
+
+        Long getId();
+
+        Long getItemId();
+
+        Long getTotal();
+    }
 }
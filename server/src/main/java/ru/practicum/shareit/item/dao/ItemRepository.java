@@ -1,29 +1,45 @@
 package ru.practicum.shareit.item.dao;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoRequest;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
-    @Query("select it from Item as it where it.owner.id=?1 order by it.id desc ")
-    Page<Item> findItemByOwnerId(Long userId, Pageable pageable);
+    @Query(value = "select it from Item as it join fetch it.owner " +
+            " left join fetch it.request as r left join fetch r.owner " +
+            " where it.owner.id=?1 and it.id < ?2 order by it.id desc ")
+    Slice<Item> findItemByOwnerId(Long userId, Long id, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(it.name, it.description, it.available, it.id, it.owner.id, r.id) " +
+            " from Item as it left join it.request as r")
+    List<ItemDto> findAllForSearch();
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDtoRequest(it.id, it.name, it.description, it.available, " +
+            " it.request.id) from Item as it where it.request.id in ?1")
+    List<ItemDtoRequest> findAllByRequestIds(Collection<Long> requestIds);
 
-    @Query(value = "select it from Item as it where (LOWER(it.name) " +
-            " like %?1% or LOWER(it.description) like %?1%)" +
-            " and it.available=true",
-            countQuery = "select count(it) from Item as it where (LOWER(it.name) " +
-                    " like %?1% or LOWER(it.description) like %?1%)" +
-                    " and it.available=true")
-    Page<Item> searchByDescriptionAndName(String text, Pageable pageable);
+    @Query("select it.id from Item as it")
+    List<Long> findAllIds();
 
-    List<Item> findAllByRequest_Id(Long requestId);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(it.name, it.description, it.available, it.id, it.owner.id, r.id) " +
+            " from Item as it left join it.request as r order by it.id")
+    Stream<ItemDto> streamAll();
 
 
 }
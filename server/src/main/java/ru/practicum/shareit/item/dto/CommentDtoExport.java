@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@ToString(callSuper = true)
+@Getter
+@Setter
+public class CommentDtoExport extends CommentDto {
+
+    private Long itemId;
+
+    private Long authorId;
+
+    public CommentDtoExport(Long id, String text, Long authorId, String authorName, LocalDateTime created,
+                            Long itemId) {
+        super(id, text, authorName, created);
+        this.itemId = itemId;
+        this.authorId = authorId;
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+
+@NoArgsConstructor
+@ToString(callSuper = true)
+@Getter
+@Setter
+public class ItemDtoAvailability extends ItemDto {
+
+    private boolean freeInWindow;
+
+    public ItemDtoAvailability(ItemDto item, boolean freeInWindow) {
+        super(item.getName(), item.getDescription(), item.getAvailable(), item.getId(), item.getOwnerId(),
+                item.getRequestId());
+        this.freeInWindow = freeInWindow;
+    }
+}
@@ -3,7 +3,7 @@ package ru.practicum.shareit.item.dto;
 import lombok.*;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
 
-import java.util.Set;
+import java.util.List;
 
 
 @NoArgsConstructor
@@ -18,7 +18,8 @@ public class ItemDtoBooking {
     private Boolean available;
     private BookingItemDto lastBooking;
     private BookingItemDto nextBooking;
-    private Set<CommentDto> comments;
+    private List<CommentDto> comments;
+    private long commentsCount;
 
     private Long requestItemId;
 
@@ -9,7 +9,7 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
-import java.util.HashSet;
+import java.util.ArrayList;
 
 @Component
 public class ItemMapper {
@@ -71,7 +71,8 @@ public class ItemMapper {
                     item.isAvailable(),
                     null,
                     null,
-                    new HashSet<>(),
+                    new ArrayList<>(),
+                0,
                     null);
         }
         return new ItemDtoBooking(item.getId(),
@@ -80,7 +81,8 @@ public class ItemMapper {
                 item.isAvailable(),
                 null,
                 null,
-                new HashSet<>(),
+                new ArrayList<>(),
+                0,
                 item.getRequest().getId());
     }
 
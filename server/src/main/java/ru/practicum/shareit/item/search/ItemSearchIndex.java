@@ -0,0 +1,313 @@
+package ru.practicum.shareit.item.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.CursorPage;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted index over item names and descriptions. Every document is split into character
+ * trigrams; a query is answered by intersecting the posting lists of its own trigrams and
+ * checking the few remaining candidates, so neither the items table nor the documents are scanned.
+ * Single characters and bigrams are indexed as well, so a query shorter than a trigram reads
+ * exactly the posting list of its own text.
+ * <p>
+ * A rebuild loads the items without holding the lock and fills a new index beside the current one,
+ * which keeps answering searches. Changes made meanwhile go to the current index and to a journal
+ * that is replayed onto the new index before it replaces the current one.
+ */
+@Component
+public class ItemSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemSearchIndex.class);
+    private static final int GRAM_LENGTH = 3;
+    private static final Comparator<ScoredDocument> RANKING = Comparator
+            .comparingInt((ScoredDocument scored) -> scored.score).reversed()
+            .thenComparingLong(scored -> scored.document.id);
+    private final ItemRepository itemRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // guarded by the lock, the journal is set only while a rebuild runs
+    private Index current = new Index();
+    private List<Consumer<Index>> journal;
+
+
+    public ItemSearchIndex(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<Consumer<Index>> changes = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            journal = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            // changes committed before the journal starts are seen by the query, later ones are recorded
+            List<ItemDto> items = itemRepository.findAllForSearch();
+            Index rebuilt = new Index();
+            items.forEach(rebuilt::add);
+            lock.writeLock().lock();
+            try {
+                changes.forEach(change -> change.accept(rebuilt));
+                current = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Item search index rebuilt for {} items", items.size());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                journal = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void index(Item item) {
+        ItemDto document = new ItemDto(item.getName(),
+                item.getDescription(),
+                item.isAvailable(),
+                item.getId(),
+                item.getOwner().getId(),
+                item.getRequest() == null ? null : item.getRequest().getId());
+        apply(index -> {
+            index.remove(document.getId());
+            index.add(document);
+        });
+    }
+
+    public void delete(long itemId) {
+        apply(index -> index.remove(itemId));
+    }
+
+    private void apply(Consumer<Index> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(current);
+            if (journal != null) journal.add(change);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns matches ranked by score and then by id. With a cursor only matches ranked after it
+     * are considered, and only the best {@code offset + limit} of them are kept while scanning.
+     */
+    public CursorPage<ItemDto> search(String text, Cursor after, int offset, int limit) {
+        String query = text.toLowerCase();
+        int keep = (int) Math.min((long) offset + limit + 1, Integer.MAX_VALUE);
+        PriorityQueue<ScoredDocument> best = new PriorityQueue<>(RANKING.reversed());
+        lock.readLock().lock();
+        try {
+            for (Document document : current.candidates(query)) {
+                if (!document.available) continue;
+                ScoredDocument scored = new ScoredDocument(document, document.score(query));
+                if (scored.score == 0 || !scored.isAfter(after)) continue;
+                if (best.size() < keep) {
+                    best.add(scored);
+                } else if (RANKING.compare(scored, best.peek()) < 0) {
+                    best.poll();
+                    best.add(scored);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<ScoredDocument> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        List<ScoredDocument> page = ranked.subList(Math.min(offset, ranked.size()),
+                Math.min(offset + limit, ranked.size()));
+        List<ItemDto> content = page.stream()
+                .map(scored -> scored.document.toDto())
+                .collect(Collectors.toList());
+        if (page.isEmpty() || ranked.size() <= offset + limit) return new CursorPage<>(content, null);
+        ScoredDocument last = page.get(page.size() - 1);
+        return new CursorPage<>(content, Cursor.of(last.score, last.document.id).encode());
+    }
+
+    // every gram of one to GRAM_LENGTH characters, so that queries of any length can be looked up
+    private static long[] grams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int length = 1; length <= GRAM_LENGTH; length++) {
+            for (int i = 0; i + length <= text.length(); i++) {
+                grams.add(gram(text, i, length));
+            }
+        }
+        return grams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long[] queryGrams(String query) {
+        if (query.length() <= GRAM_LENGTH) return new long[]{gram(query, 0, query.length())};
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= query.length(); i++) {
+            grams.add(gram(query, i, GRAM_LENGTH));
+        }
+        return grams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // up to three 16-bit characters and the gram length above them, so "ab" and "\0ab" differ
+    private static long gram(String text, int start, int length) {
+        long gram = length;
+        for (int i = start; i < start + length; i++) {
+            gram = gram << 16 | text.charAt(i);
+        }
+        return gram;
+    }
+
+    private static final class Index {
+        private final Map<Long, Document> documents = new HashMap<>();
+        private final Map<Long, Postings> postings = new HashMap<>();
+
+        private Collection<Document> candidates(String query) {
+            if (query.isEmpty()) return Collections.emptyList();
+
+            List<Postings> lists = new ArrayList<>();
+            for (long gram : queryGrams(query)) {
+                Postings list = postings.get(gram);
+                if (list == null) return Collections.emptyList();
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            Postings smallest = lists.get(0);
+            List<Document> candidates = new ArrayList<>();
+            for (int i = 0; i < smallest.size; i++) {
+                long itemId = smallest.ids[i];
+                boolean inAll = true;
+                for (int j = 1; j < lists.size() && inAll; j++) {
+                    inAll = lists.get(j).contains(itemId);
+                }
+                if (inAll) candidates.add(documents.get(itemId));
+            }
+            return candidates;
+        }
+
+        private void add(ItemDto item) {
+            Document document = new Document(item);
+            documents.put(document.id, document);
+            for (long gram : document.grams) {
+                postings.computeIfAbsent(gram, key -> new Postings()).add(document.id);
+            }
+        }
+
+        private void remove(long itemId) {
+            Document document = documents.remove(itemId);
+            if (document == null) return;
+            for (long gram : document.grams) {
+                Postings list = postings.get(gram);
+                list.remove(itemId);
+                if (list.size == 0) postings.remove(gram);
+            }
+        }
+    }
+
+    private static final class Document {
+        private final long id;
+        private final long ownerId;
+        private final Long requestId;
+        private final String name;
+        private final String description;
+        private final String nameLower;
+        private final String descriptionLower;
+        private final boolean available;
+        private final long[] grams;
+
+        private Document(ItemDto item) {
+            this.id = item.getId();
+            this.ownerId = item.getOwnerId();
+            this.requestId = item.getRequestId();
+            this.name = item.getName();
+            this.description = item.getDescription();
+            this.nameLower = name.toLowerCase();
+            this.descriptionLower = description.toLowerCase();
+            this.available = Boolean.TRUE.equals(item.getAvailable());
+            this.grams = grams(nameLower + "\n" + descriptionLower);
+        }
+
+        // name matches outrank description matches; a match at the start of a word outranks one inside it
+        private int score(String query) {
+            return fieldScore(nameLower, query, 8) + fieldScore(descriptionLower, query, 2);
+        }
+
+        private static int fieldScore(String field, String query, int weight) {
+            int position = field.indexOf(query);
+            if (position < 0) return 0;
+            int score = weight * 2;
+            if (position == 0) {
+                score += weight * 2;
+            } else if (!Character.isLetterOrDigit(field.charAt(position - 1))) {
+                score += weight;
+            }
+            int occurrences = 0;
+            while (position >= 0 && occurrences < 5) {
+                occurrences++;
+                position = field.indexOf(query, position + query.length());
+            }
+            return score + occurrences - 1;
+        }
+
+        private ItemDto toDto() {
+            return new ItemDto(name, description, available, id, ownerId, requestId);
+        }
+    }
+
+    private static final class ScoredDocument {
+        private final Document document;
+        private final int score;
+
+        private ScoredDocument(Document document, int score) {
+            this.document = document;
+            this.score = score;
+        }
+
+        private boolean isAfter(Cursor cursor) {
+            if (cursor == null) return true;
+            long cursorScore = cursor.getNumber();
+            return score < cursorScore || score == cursorScore && document.id > cursor.getId();
+        }
+    }
+
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        private void add(long itemId) {
+            int position = Arrays.binarySearch(ids, 0, size, itemId);
+            if (position >= 0) return;
+            position = -position - 1;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = itemId;
+            size++;
+        }
+
+        private void remove(long itemId) {
+            int position = Arrays.binarySearch(ids, 0, size, itemId);
+            if (position < 0) return;
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+
+        private boolean contains(long itemId) {
+            return Arrays.binarySearch(ids, 0, size, itemId) >= 0;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.user.UserService;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every call of the item, booking, item request and user services, tagged by service, method
+ * and outcome. Runs outside the transaction, so the time includes the commit. Repository calls are
+ * timed by Spring Data as {@code spring.data.repository.invocations}, the rest of a service call is
+ * spent in mapping and in-memory indexes.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+    static final String INVOCATIONS = "shareit.service.invocations";
+    private static final List<Class<?>> SERVICES = List.of(ItemService.class, BookingService.class,
+            ItemRequestService.class, UserService.class);
+    private final MeterRegistry registry;
+    private final Map<Method, Timer> successes = new ConcurrentHashMap<>();
+
+
+    public ServiceMetricsAspect(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+    }
+
+    @Around("execution(* ru.practicum.shareit.item.ItemService+.*(..))"
+            + " || execution(* ru.practicum.shareit.booking.BookingService+.*(..))"
+            + " || execution(* ru.practicum.shareit.request.ItemRequestService+.*(..))"
+            + " || execution(* ru.practicum.shareit.user.UserService+.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            Object result = joinPoint.proceed();
+            sample.stop(successes.computeIfAbsent(method, m -> timer(joinPoint, "SUCCESS", "none")));
+            return result;
+        } catch (Throwable e) {
+            sample.stop(timer(joinPoint, "ERROR", e.getClass().getSimpleName()));
+            throw e;
+        }
+    }
+
+    private Timer timer(ProceedingJoinPoint joinPoint, String outcome, String exception) {
+        return Timer.builder(INVOCATIONS)
+                .description("Service method calls")
+                .tag("service", service(joinPoint.getTarget().getClass()))
+                .tag("method", joinPoint.getSignature().getName())
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .register(registry);
+    }
+
+    private static String service(Class<?> type) {
+        return SERVICES.stream()
+                .filter(service -> service.isAssignableFrom(type))
+                .findFirst()
+                .map(Class::getSimpleName)
+                .orElse(type.getSimpleName());
+    }
+}
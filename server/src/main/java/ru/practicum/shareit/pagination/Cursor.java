@@ -0,0 +1,75 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.Getter;
+
+import javax.validation.ValidationException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated list: the sort key and the id of the last returned row.
+ * Clients receive it as an opaque URL-safe token and send it back to get the next page.
+ */
+@Getter
+public class Cursor {
+
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+    public static final Cursor ASCENDING_START = of(MIN_TIME, 0L);
+    public static final Cursor DESCENDING_START = of(MAX_TIME, Long.MAX_VALUE);
+
+    private final String key;
+    private final long id;
+
+    private Cursor(String key, long id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public static Cursor of(long id) {
+        return new Cursor("", id);
+    }
+
+    public static Cursor of(LocalDateTime time, long id) {
+        return new Cursor(time.toString(), id);
+    }
+
+    public static Cursor of(long key, long id) {
+        return new Cursor(String.valueOf(key), id);
+    }
+
+    public static Cursor decode(String token, Cursor first) {
+        if (token == null || token.isBlank()) return first;
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            if (separator < 0) throw new ValidationException("Invalid cursor");
+            return new Cursor(value.substring(0, separator), Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((key + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getTime() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+
+    public long getNumber() {
+        try {
+            return Long.parseLong(key);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a list endpoint together with the cursor of the following page,
+ * which is {@code null} when the page is the last one.
+ */
+@AllArgsConstructor
+@ToString
+@Getter
+public class CursorPage<T> {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final List<T> content;
+    private final String nextCursor;
+
+    public static <E, T> CursorPage<T> of(Slice<E> slice, List<T> content, Function<E, Cursor> cursorOf) {
+        if (!slice.hasNext() || !slice.hasContent()) return new CursorPage<>(content, null);
+        E last = slice.getContent().get(slice.getNumberOfElements() - 1);
+        return new CursorPage<>(content, cursorOf.apply(last).encode());
+    }
+
+    public ResponseEntity<List<T>> toResponse() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) response.header(NEXT_CURSOR_HEADER, nextCursor);
+        return response.body(content);
+    }
+}
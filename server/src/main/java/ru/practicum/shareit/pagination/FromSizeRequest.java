@@ -0,0 +1,74 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * {@link Pageable} where {@code from} is the index of the first element rather than of the page.
+ * Once a cursor is given the seek predicate positions the query, so the offset is dropped.
+ */
+@EqualsAndHashCode
+@ToString
+public class FromSizeRequest implements Pageable {
+
+    private final long offset;
+    private final int size;
+
+    private FromSizeRequest(long offset, int size) {
+        if (offset < 0) throw new IllegalStateException("From must not be negative");
+        if (size < 1) throw new IllegalStateException("Size must be positive");
+        this.offset = offset;
+        this.size = size;
+    }
+
+    public static FromSizeRequest of(int from, int size, String cursor) {
+        return new FromSizeRequest(cursor == null || cursor.isBlank() ? from : 0, size);
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (offset / size);
+    }
+
+    @Override
+    public int getPageSize() {
+        return size;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return Sort.unsorted();
+    }
+
+    @Override
+    public Pageable next() {
+        return new FromSizeRequest(offset + size, size);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return hasPrevious() ? new FromSizeRequest(Math.max(offset - size, 0), size) : first();
+    }
+
+    @Override
+    public Pageable first() {
+        return new FromSizeRequest(0, size);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new FromSizeRequest((long) pageNumber * size, size);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+}
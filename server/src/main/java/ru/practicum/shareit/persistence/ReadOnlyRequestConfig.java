@@ -0,0 +1,30 @@
+package ru.practicum.shareit.persistence;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Registers {@link ReadOnlyRequestInterceptor} after the open-in-view interceptor, which binds the
+ * request's persistence context first. Web slice tests have no JPA and get no interceptor.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.jpa", name = "open-in-view", havingValue = "true", matchIfMissing = true)
+public class ReadOnlyRequestConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    public ReadOnlyRequestConfig(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        entityManagerFactory.ifAvailable(factory ->
+                registry.addInterceptor(new ReadOnlyRequestInterceptor(factory)).order(1));
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.persistence;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.springframework.http.HttpMethod;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Turns the persistence context that open-in-view opens for a GET request into a read-only unit of
+ * work. Every repository call of the request shares its first-level cache, so a row is loaded at
+ * most once per request; entities are loaded read-only, without snapshots for dirty checking, and
+ * the session is only flushed by a write transaction, which switches to automatic flushing.
+ */
+public class ReadOnlyRequestInterceptor implements HandlerInterceptor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ReadOnlyRequestInterceptor(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager
+                .getResource(entityManagerFactory);
+        if (holder != null) {
+            Session session = holder.getEntityManager().unwrap(Session.class);
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+        }
+        return true;
+    }
+}
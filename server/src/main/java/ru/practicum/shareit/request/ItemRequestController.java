@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request;
 
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
@@ -27,10 +28,11 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                               @RequestParam(name = "from", required = false, defaultValue = "0") Integer from,
-                                               @RequestParam(name = "size", required = false, defaultValue = "10") Integer size) {
-        return itemRequestService.getAllItemRequests(userId, from, size);
+    public ResponseEntity<List<ItemRequestDto>> getAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                               @RequestParam(name = "from", required = false, defaultValue = "0") Integer from,
+                                                               @RequestParam(name = "cursor", required = false) String cursor,
+                                                               @RequestParam(name = "size", required = false, defaultValue = "10") Integer size) {
+        return itemRequestService.getAllItemRequests(userId, from, cursor, size).toResponse();
     }
 
     @GetMapping("/{requestId}")
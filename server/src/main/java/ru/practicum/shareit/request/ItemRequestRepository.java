@@ -1,21 +1,22 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    @Query("select ir from ItemRequest as ir where ir.owner.id = ?1")
     List<ItemRequest> findAllByOwnerId(Long ownerId);
 
-    @Query(nativeQuery = true,
-            value = "select * from requests as ir where ir.requestor_id !=?1",
-            countQuery = "select count(*) from requests as ir where ir.requestor_id !=?1")
-    Page<ItemRequest> findAllExtendUserId(Long userId, Pageable pageable);
+    @Query("select ir from ItemRequest as ir where ir.owner.id <> ?1" +
+            " and (ir.created > ?2 or (ir.created = ?2 and ir.id > ?3)) order by ir.created asc, ir.id asc")
+    Slice<ItemRequest> findAllExtendUserId(Long userId, LocalDateTime created, Long id, Pageable pageable);
 }
 /*@Query(nativeQuery = true,
             value = "select * from item_requests as ir where ir.owner_id !=?1",
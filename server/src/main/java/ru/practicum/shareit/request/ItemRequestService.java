@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request;
 
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.List;
@@ -12,7 +13,7 @@ public interface ItemRequestService {
 
     List<ItemRequestDto> getAllItemRequestsByOwnerId(Long ownerId);
 
-    List<ItemRequestDto> getAllItemRequests(Long userId, Integer from, Integer size);
+    CursorPage<ItemRequestDto> getAllItemRequests(Long userId, Integer from, String cursor, Integer size);
 
 
 }
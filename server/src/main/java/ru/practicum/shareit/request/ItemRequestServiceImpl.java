@@ -1,16 +1,26 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.datasource.ReplicaRead;
 import ru.practicum.shareit.error.ItemNotFoundException;
 import ru.practicum.shareit.error.UserNotFoundException;
+import ru.practicum.shareit.event.DomainEvent;
+import ru.practicum.shareit.event.DomainEventBus;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDtoRequest;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.FromSizeRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -24,13 +34,18 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final UserRepository userRepository;
 
+    private final ItemRepository itemRepository;
+
+    private final DomainEventBus eventBus;
+
 
     @Override
+    @ReplicaRead
     public ItemRequestDto getItemRequestById(Long itemRequestId, Long userId) {
         if (userRepository.findById(userId).isEmpty()) throw new UserNotFoundException("Пользователь не найден!");
         Optional<ItemRequest> itemRequest = itemRequestRepository.findById(itemRequestId);
         if (itemRequest.isEmpty()) throw new ItemNotFoundException("Такого запроса не существует!");
-        return itemRequestMapper.toDto(itemRequest.get());
+        return itemRequestMapper.toDto(itemRequest.get(), itemRepository.findAllByRequestIds(List.of(itemRequestId)));
     }
 
     @Override
@@ -38,25 +53,39 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         Optional<User> user = userRepository.findById(userId);
         if (user.isEmpty()) throw new UserNotFoundException("Пользователь не найден!");
         ItemRequest request = itemRequestRepository.save(itemRequestMapper.dtoToItemRequest(itemRequestDto, user.get()));
-        return itemRequestMapper.toDto(request);
+        ItemRequestDto response = itemRequestMapper.toDto(request, new ArrayList<>());
+        eventBus.publishAfterCommit(new DomainEvent(DomainEvent.Type.REQUEST_CREATED, request.getId(), userId, response));
+        return response;
     }
 
     @Override
+    @ReplicaRead
     public List<ItemRequestDto> getAllItemRequestsByOwnerId(Long ownerId) {
         if (userRepository.findById(ownerId).isEmpty()) throw new UserNotFoundException("Пользователь не найден!");
-        return itemRequestRepository.findAllByOwnerId(ownerId)
+        return toDtos(itemRequestRepository.findAllByOwnerId(ownerId))
                 .stream()
-                .map(itemRequestMapper::toDto)
                 .sorted(Comparator.comparing(ItemRequestDto::getCreated))
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<ItemRequestDto> getAllItemRequests(Long userId, Integer from, Integer size) {
-        return itemRequestRepository.findAllExtendUserId(userId, PageRequest.of(from, size))
+    @ReplicaRead
+    public CursorPage<ItemRequestDto> getAllItemRequests(Long userId, Integer from, String cursor, Integer size) {
+        Cursor after = Cursor.decode(cursor, Cursor.ASCENDING_START);
+        Slice<ItemRequest> requests = itemRequestRepository.findAllExtendUserId(userId, after.getTime(), after.getId(),
+                FromSizeRequest.of(from, size, cursor));
+        return CursorPage.of(requests, toDtos(requests.getContent()),
+                request -> Cursor.of(request.getCreated(), request.getId()));
+    }
+
+    private List<ItemRequestDto> toDtos(List<ItemRequest> requests) {
+        if (requests.isEmpty()) return new ArrayList<>();
+        List<Long> requestIds = requests.stream().map(ItemRequest::getId).collect(Collectors.toList());
+        Map<Long, List<ItemDtoRequest>> items = itemRepository.findAllByRequestIds(requestIds)
                 .stream()
-                .map(itemRequestMapper::toDto)
-                .sorted(Comparator.comparing(ItemRequestDto::getCreated))
+                .collect(Collectors.groupingBy(ItemDtoRequest::getRequestId));
+        return requests.stream()
+                .map(request -> itemRequestMapper.toDto(request, items.getOrDefault(request.getId(), new ArrayList<>())))
                 .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.sql;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+@ControllerAdvice
+public class StatementCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    private final StatementCountingProperties properties;
+
+    public StatementCountHeaderAdvice(StatementCountingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return properties.isHeader();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest) {
+            StatementCounter.Scope scope = StatementCountingInterceptor.scope(
+                    ((ServletServerHttpRequest) request).getServletRequest());
+            if (scope != null) {
+                response.getHeaders().set(StatementCountingInterceptor.HEADER, String.valueOf(scope.getCount()));
+            }
+        }
+        return body;
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.sql;
+
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the SQL statements prepared on the current thread while a scope is open. Scopes nest and
+ * a statement counts towards every open one, so a test can measure a request that measures itself.
+ * Statements are grouped by shape, their SQL with parameter lists collapsed. Once a shape repeats
+ * more often than a scope allows, the application frames that issued it are kept as its call sites.
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<Deque<Scope>> SCOPES = new ThreadLocal<>();
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final String APPLICATION = "ru.practicum.shareit.";
+    private static final int CALL_SITES = 5;
+    private static final int CALL_SITE_FRAMES = 3;
+
+    private StatementCounter() {
+    }
+
+    public static Scope open(int repeatThreshold) {
+        Deque<Scope> scopes = SCOPES.get();
+        if (scopes == null) {
+            scopes = new ArrayDeque<>();
+            SCOPES.set(scopes);
+        }
+        Scope scope = new Scope(repeatThreshold);
+        scopes.push(scope);
+        return scope;
+    }
+
+    static void record(String sql) {
+        Deque<Scope> scopes = SCOPES.get();
+        if (scopes == null) return;
+        String shape = shape(sql);
+        String callSite = null;
+        for (Scope scope : scopes) {
+            if (scope.record(shape)) {
+                if (callSite == null) callSite = callSite();
+                scope.addCallSite(shape, callSite);
+            }
+        }
+    }
+
+    static String shape(String sql) {
+        return WHITESPACE.matcher(PARAMETER_LIST.matcher(sql).replaceAll("(?, ...)")).replaceAll(" ").trim();
+    }
+
+    private static String callSite() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION)
+                        && !frame.getClassName().equals(StatementCounter.class.getName())
+                        && !frame.getClassName().equals(StatementCountingInspector.class.getName())
+                        && !frame.getClassName().contains("$$"))
+                .limit(CALL_SITE_FRAMES)
+                .map(StackWalker.StackFrame::toString)
+                .collect(Collectors.joining(" <- ")));
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final int repeatThreshold;
+        private final Map<String, Integer> shapes = new HashMap<>();
+        private final Map<String, Set<String>> callSites = new LinkedHashMap<>();
+        private int count;
+
+        private Scope(int repeatThreshold) {
+            this.repeatThreshold = repeatThreshold;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public int getCount(String shape) {
+            return shapes.getOrDefault(shape, 0);
+        }
+
+        /**
+         * @return the shapes that repeated more often than allowed, with the call sites of the repeats
+         */
+        public Map<String, Set<String>> getRepeated() {
+            return Collections.unmodifiableMap(callSites);
+        }
+
+        @Override
+        public void close() {
+            Deque<Scope> scopes = SCOPES.get();
+            if (scopes == null) return;
+            scopes.remove(this);
+            if (scopes.isEmpty()) SCOPES.remove();
+        }
+
+        private boolean record(String shape) {
+            count++;
+            return shapes.merge(shape, 1, Integer::sum) > repeatThreshold;
+        }
+
+        private void addCallSite(String shape, String callSite) {
+            Set<String> sites = callSites.computeIfAbsent(shape, s -> new LinkedHashSet<>());
+            if (sites.size() < CALL_SITES) sites.add(callSite);
+        }
+    }
+}
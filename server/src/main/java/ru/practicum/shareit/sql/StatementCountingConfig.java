@@ -0,0 +1,22 @@
+package ru.practicum.shareit.sql;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(StatementCountingProperties.class)
+public class StatementCountingConfig implements WebMvcConfigurer {
+
+    private final StatementCountingProperties properties;
+
+    public StatementCountingConfig(StatementCountingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new StatementCountingInterceptor(properties));
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.sql;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the statements of every request and warns when one statement shape repeats more often
+ * than the threshold, which usually means a repository is called per element.
+ */
+public class StatementCountingInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String HEADER = "X-Statement-Count";
+    private static final Logger log = LoggerFactory.getLogger(StatementCountingInterceptor.class);
+    private static final String SCOPE = StatementCountingInterceptor.class.getName() + ".scope";
+    private final StatementCountingProperties properties;
+
+
+    public StatementCountingInterceptor(StatementCountingProperties properties) {
+        this.properties = properties;
+    }
+
+    static StatementCounter.Scope scope(HttpServletRequest request) {
+        return (StatementCounter.Scope) request.getAttribute(SCOPE);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(SCOPE, StatementCounter.open(properties.getRepeatThreshold()));
+        return true;
+    }
+
+    // responses with a body get the header from StatementCountHeaderAdvice, before the body is written
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        StatementCounter.Scope scope = scope(request);
+        if (properties.isHeader() && scope != null && !response.isCommitted() && !response.containsHeader(HEADER)) {
+            response.setHeader(HEADER, String.valueOf(scope.getCount()));
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        finish(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        finish(request);
+    }
+
+    private void finish(HttpServletRequest request) {
+        StatementCounter.Scope scope = scope(request);
+        if (scope == null) return;
+        request.removeAttribute(SCOPE);
+        scope.close();
+        scope.getRepeated().forEach((shape, callSites) ->
+                log.warn("{} {} ran {} statements, {} times: {}, from {}", request.getMethod(),
+                        request.getRequestURI(), scope.getCount(), scope.getCount(shape), shape, callSites));
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.sql;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.statements")
+public class StatementCountingProperties {
+
+    private int repeatThreshold = 5;
+    private boolean header;
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.batch.BatchResult;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
@@ -31,6 +32,11 @@ public class UserController {
         return userService.saveUser(user);
     }
 
+    @PostMapping("/batch")
+    public List<BatchResult<UserDto>> postBatch(@RequestBody List<UserDto> users) {
+        return userService.saveUsers(users);
+    }
+
     @PatchMapping(path = "/{userId}")
     public UserDto update(@PathVariable("userId") long userId,
                           @RequestBody UserDto userDto) {
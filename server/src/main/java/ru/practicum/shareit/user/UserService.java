@@ -1,5 +1,6 @@
 package ru.practicum.shareit.user;
 
+import ru.practicum.shareit.batch.BatchResult;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
@@ -10,6 +11,8 @@ public interface UserService {
 
     UserDto saveUser(UserDto userDto);
 
+    List<BatchResult<UserDto>> saveUsers(List<UserDto> users);
+
     UserDto getById(long id);
 
     UserDto patch(UserDto user);
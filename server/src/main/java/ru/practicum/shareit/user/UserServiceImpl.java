@@ -1,13 +1,20 @@
 package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.batch.BatchExecutor;
+import ru.practicum.shareit.batch.BatchResult;
+import ru.practicum.shareit.datasource.ReplicaRead;
 import ru.practicum.shareit.error.UserNotFoundException;
+import ru.practicum.shareit.markers.Create;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,7 +24,10 @@ class UserServiceImpl implements UserService {
 
     private final UserMapper mapper;
 
+    private final BatchExecutor batchExecutor;
+
     @Override
+    @ReplicaRead
     public List<UserDto> getAllUsers() {
         return userRepository.findAll().stream().map(mapper::toUserDto).collect(Collectors.toList());
     }
@@ -29,10 +39,27 @@ class UserServiceImpl implements UserService {
     }
 
     @Override
+    public List<BatchResult<UserDto>> saveUsers(List<UserDto> users) {
+        Set<String> existingEmails = userRepository.findExistingEmails(users.stream()
+                .filter(Objects::nonNull)
+                .map(UserDto::getEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        return batchExecutor.execute(users, Create.class, userDto -> {
+            if (existingEmails.contains(userDto.getEmail()))
+                throw new DuplicateKeyException("Email already exists: " + userDto.getEmail());
+            User user = mapper.toUser(userDto);
+            user.setId(null);
+            return user;
+        }, userRepository::saveAllAndFlush, mapper::toUserDto);
+    }
+
+    @Override
+    @ReplicaRead
     public UserDto getById(long id) {
-        if (userRepository.findById(id).isEmpty())
+        return mapper.toUserDto(userRepository.findById(id).orElseThrow(() -> {
             throw new UserNotFoundException("Not found user");
-        return mapper.toUserDto(userRepository.getById(id));
+        }));
     }
 
     @Override
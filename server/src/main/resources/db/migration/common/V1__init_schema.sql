@@ -0,0 +1,51 @@
+CREATE TABLE IF NOT EXISTS Users
+(
+    id    bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name  varchar(255) not null,
+    email varchar(255) not null,
+    constraint user_email_uq unique (email)
+);
+
+CREATE TABLE IF NOT EXISTS requests
+(
+    id           bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    description  varchar(255) not null,
+    requestor_id bigint,
+    created      timestamp,
+    constraint request_requestor_id_fk foreign key (requestor_id) references Users (id)
+);
+
+CREATE TABLE IF NOT EXISTS Items
+(
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        varchar(255) not null,
+    description varchar(255) not null,
+    available   boolean      not null,
+    user_id     bigint,
+    request_id  bigint,
+    constraint item_user_id_fk foreign key (user_id) references Users (id),
+    constraint item_request_id_fk foreign key (request_id) references requests (id)
+);
+
+CREATE TABLE IF NOT EXISTS Bookings
+(
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    start_time timestamp,
+    end_time   timestamp,
+    status     varchar(255),
+    booker_id  bigint,
+    item_id    bigint,
+    constraint booking_booker_id_fk foreign key (booker_id) references Users (id),
+    constraint booking_item_id_fk foreign key (item_id) references Items (id)
+);
+
+CREATE TABLE IF NOT EXISTS comments
+(
+    id        bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    text      varchar(255),
+    author_id bigint,
+    item_id   bigint,
+    created   timestamp,
+    constraint comment_author_id_fk foreign key (author_id) references Users (id),
+    constraint comment_item_id_fk foreign key (item_id) references Items (id)
+);
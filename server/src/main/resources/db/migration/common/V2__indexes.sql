@@ -0,0 +1,16 @@
+-- last/next booking of an item and the approved timeline per item
+CREATE INDEX IF NOT EXISTS booking_item_status_start_idx ON Bookings (item_id, status, start_time);
+-- booker listings are keyset-paginated on (start_time, id)
+CREATE INDEX IF NOT EXISTS booking_booker_start_idx ON Bookings (booker_id, start_time, id);
+CREATE INDEX IF NOT EXISTS booking_booker_status_start_idx ON Bookings (booker_id, status, start_time, id);
+-- timeline rebuild reads APPROVED and WAITING bookings only
+CREATE INDEX IF NOT EXISTS booking_status_idx ON Bookings (status);
+
+CREATE INDEX IF NOT EXISTS item_user_id_idx ON Items (user_id, id);
+CREATE INDEX IF NOT EXISTS item_request_id_idx ON Items (request_id);
+
+CREATE INDEX IF NOT EXISTS comment_item_id_idx ON comments (item_id);
+CREATE INDEX IF NOT EXISTS comment_author_id_idx ON comments (author_id);
+
+CREATE INDEX IF NOT EXISTS request_requestor_id_idx ON requests (requestor_id);
+CREATE INDEX IF NOT EXISTS request_created_idx ON requests (created, id);
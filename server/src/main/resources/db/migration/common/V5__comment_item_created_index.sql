@@ -0,0 +1,3 @@
+-- latest comments of an item and the keyset-paginated comment list are read in (created, id) order
+CREATE INDEX IF NOT EXISTS comment_item_created_idx ON comments (item_id, created, id);
+DROP INDEX IF EXISTS comment_item_id_idx;
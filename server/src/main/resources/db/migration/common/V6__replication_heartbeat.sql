@@ -0,0 +1,8 @@
+-- written by the primary and read back from the replicas to measure their lag
+CREATE TABLE IF NOT EXISTS replication_heartbeat
+(
+    id          integer PRIMARY KEY,
+    beat_millis bigint not null
+);
+
+INSERT INTO replication_heartbeat (id, beat_millis) VALUES (1, 0);
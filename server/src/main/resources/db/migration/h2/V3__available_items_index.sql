@@ -0,0 +1,2 @@
+-- H2 has no partial indexes, the postgresql migration keeps only available rows
+CREATE INDEX IF NOT EXISTS item_available_idx ON Items (available, id);
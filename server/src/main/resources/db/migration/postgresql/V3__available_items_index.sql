@@ -0,0 +1,2 @@
+-- search only ever returns available items
+CREATE INDEX IF NOT EXISTS item_available_idx ON Items (id) WHERE available = true;
@@ -0,0 +1,170 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.type.Type;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.sql.QueryBudget;
+import ru.practicum.shareit.sql.QueryBudgetExtension;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(QueryBudgetExtension.class)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.interceptor="
+        + "ru.practicum.shareit.EntityLoadTest$LoadRecorder")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EntityLoadTest {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final List<String> LOADS = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private User owner;
+    private User booker;
+    private ItemRequest request;
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "owner", "owner@mail.com"));
+        booker = userRepository.save(new User(null, "booker", "booker@mail.com"));
+        request = itemRequestRepository.save(new ItemRequest(null, "drill wanted", booker, now));
+        item = itemRepository.save(new Item(null, owner, "drill", "desc", true, request));
+        bookingRepository.save(new Booking(null, item, booker, now.minusDays(2), now.minusDays(1),
+                BookingStatus.APPROVED));
+        booking = bookingRepository.save(new Booking(null, item, booker, now.plusDays(1), now.plusDays(2),
+                BookingStatus.WAITING));
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @QueryBudget(value = 1, maxRepeats = 1)
+    void userRequests_thenEachEntityLoadedOnce() throws Exception {
+        assertLoadedOnce(get("/users/{id}", owner.getId()));
+        assertLoadedOnce(patch("/users/{id}", owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(Map.of("name", "new owner"))));
+        assertEquals("new owner", userRepository.findById(owner.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    @QueryBudget(value = 9, maxRepeats = 1)
+    void itemRequests_thenEachEntityLoadedOnce() throws Exception {
+        assertLoadedOnce(get("/items/{id}", item.getId()).header(USER_HEADER, owner.getId()));
+        assertLoadedOnce(get("/items").header(USER_HEADER, owner.getId()));
+        assertLoadedOnce(post("/items").header(USER_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(Map.of("name", "saw", "description", "desc",
+                        "available", true, "requestId", request.getId()))));
+        assertLoadedOnce(patch("/items/{id}", item.getId()).header(USER_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(Map.of("name", "hammer drill"))));
+        assertLoadedOnce(post("/items/{id}/comment", item.getId()).header(USER_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(Map.of("text", "works"))));
+        assertEquals("hammer drill", itemRepository.findById(item.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    @QueryBudget(value = 7, maxRepeats = 2)
+    void bookingRequests_thenEachEntityLoadedOnce() throws Exception {
+        assertLoadedOnce(post("/bookings").header(USER_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(Map.of("itemId", item.getId(),
+                        "start", now.plusDays(5).toString(), "end", now.plusDays(6).toString()))));
+        assertLoadedOnce(patch("/bookings/{id}", booking.getId()).header(USER_HEADER, owner.getId())
+                .param("approved", "true"));
+        assertLoadedOnce(get("/bookings/{id}", booking.getId()).header(USER_HEADER, booker.getId()));
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    @QueryBudget(value = 5, maxRepeats = 2)
+    void itemRequestRequests_thenEachEntityLoadedOnce() throws Exception {
+        assertLoadedOnce(get("/requests/{id}", request.getId()).header(USER_HEADER, booker.getId()));
+        assertLoadedOnce(get("/requests").header(USER_HEADER, booker.getId()));
+        assertLoadedOnce(post("/requests").header(USER_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(Map.of("description", "saw wanted"))));
+    }
+
+    @Test
+    @QueryBudget(value = 3, maxRepeats = 1)
+    void deleteItem_thenEachEntityLoadedOnce() throws Exception {
+        Item unused = itemRepository.save(new Item(null, owner, "saw", "desc", true, null));
+
+        assertLoadedOnce(delete("/items/{id}", unused.getId()).header(USER_HEADER, owner.getId()));
+        assertFalse(itemRepository.existsById(unused.getId()));
+    }
+
+    private void assertLoadedOnce(RequestBuilder request) throws Exception {
+        LOADS.clear();
+        mvc.perform(request).andExpect(status().isOk());
+        Map<String, Long> loads = LOADS.stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        loads.forEach((entity, count) -> assertEquals(1, count, entity + " loaded " + count + " times"));
+    }
+
+    public static class LoadRecorder extends EmptyInterceptor {
+        @Override
+        public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+            LOADS.add(entity.getClass().getSimpleName() + "#" + id);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdSequenceMigrationTest {
+
+    private static final String URL = "jdbc:h2:mem:shareit-id-sequences;DB_CLOSE_DELAY=-1";
+
+    private final JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(URL, "test", "test"));
+
+    @Test
+    void migrate_whenRowsHaveIdentityIds_thenSequencesContinueAfterThem() {
+        migration().target("6").load().migrate();
+        jdbc.update("insert into users (name, email) values ('owner', 'owner@mail.com')");
+        jdbc.update("insert into users (name, email) values ('booker', 'booker@mail.com')");
+        long ownerId = jdbc.queryForObject("select id from users where name = 'owner'", Long.class);
+        jdbc.update("insert into requests (description, requestor_id, created) values ('drill wanted', ?, now())",
+                ownerId);
+        jdbc.update("insert into items (name, description, available, user_id) values ('drill', 'desc', true, ?)",
+                ownerId);
+
+        migration().load().migrate();
+
+        assertEquals(2 + 50, nextValue("users_seq"));
+        assertEquals(1 + 50, nextValue("requests_seq"));
+        assertEquals(1 + 50, nextValue("items_seq"));
+        assertEquals(50, nextValue("bookings_seq"));
+        assertEquals(50, nextValue("comments_seq"));
+        assertThrows(DataIntegrityViolationException.class,
+                () -> jdbc.update("insert into users (name, email) values ('other', 'other@mail.com')"));
+    }
+
+    private long nextValue(String sequence) {
+        return jdbc.queryForObject("select next value for " + sequence, Long.class);
+    }
+
+    private static FluentConfiguration migration() {
+        return Flyway.configure()
+                .dataSource(URL, "test", "test")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2");
+    }
+}
@@ -0,0 +1,136 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.UserRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.QueryPlanTest$SqlRecorder")
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+class QueryPlanTest {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private final PageRequest page = PageRequest.of(0, 10);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        STATEMENTS.clear();
+    }
+
+    @Test
+    void bookingQueries_useIndexes() throws SQLException {
+        bookingRepository.findPastBookingByBooker_IdAndItem_Id(1L, 1L);
+        bookingRepository.findActiveTimeline();
+        bookingRepository.findActiveTimelineByItemIds(List.of(1L, 2L));
+        bookingRepository.findResponseById(1L, 1L);
+        bookingRepository.findStatusById(1L);
+        bookingRepository.findBookerBookings(1L, now, 1L, page);
+        bookingRepository.findBookerCurrentBookings(1L, now, now, 1L, page);
+        bookingRepository.findBookerPastBookings(1L, now, now, 1L, page);
+        bookingRepository.findBookerFutureBookings(1L, now, now, 1L, page);
+        bookingRepository.findBookerBookingsByStatus(1L, BookingStatus.WAITING, now, 1L, page);
+        bookingRepository.findOwnerBookings(1L, now, 1L, page);
+        bookingRepository.findOwnerCurrentBookings(1L, now, now, 1L, page);
+        bookingRepository.findOwnerPastBookings(1L, now, now, 1L, page);
+        bookingRepository.findOwnerFutureBookings(1L, now, now, 1L, page);
+        bookingRepository.findOwnerBookingsByStatus(1L, BookingStatus.WAITING, now, 1L, page);
+
+        assertEquals(15, STATEMENTS.size());
+        assertIndexed(STATEMENTS);
+    }
+
+    @Test
+    void itemAndCommentQueries_useIndexes() throws SQLException {
+        itemRepository.findItemByOwnerId(1L, Long.MAX_VALUE, page);
+        itemRepository.findAllByRequestIds(List.of(1L, 2L));
+        commentRepository.findItemComments(1L, now, 1L, page);
+        commentRepository.findLatestByItemIds(List.of(1L, 2L), 10);
+        commentRepository.findAllByIds(List.of(1L, 2L));
+
+        assertEquals(5, STATEMENTS.size());
+        assertIndexed(STATEMENTS);
+    }
+
+    @Test
+    void requestAndUserQueries_useIndexes() throws SQLException {
+        itemRequestRepository.findAllByOwnerId(1L);
+        itemRequestRepository.findAllExtendUserId(1L, now, 1L, page);
+        userRepository.findExistingEmails(List.of("user@mail.com", "other@mail.com"));
+
+        assertEquals(3, STATEMENTS.size());
+        assertIndexed(STATEMENTS);
+    }
+
+    private void assertIndexed(List<String> statements) throws SQLException {
+        List<String> scans = new ArrayList<>();
+        for (String sql : statements) {
+            String plan = explain(sql);
+            if (plan.contains("tableScan")) {
+                scans.add(plan);
+            }
+        }
+        assertTrue(scans.isEmpty(), () -> "Full table scans: " + scans);
+    }
+
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    public static class SqlRecorder implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.batch;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.error.UserNotFoundException;
+import ru.practicum.shareit.markers.Create;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(BatchExecutor.class)
+class BatchExecutorTest {
+
+    private static final int USERS_COUNT = 40;
+
+    @Autowired
+    private BatchExecutor batchExecutor;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void execute_whenAllElementsValid_thenInsertedInOneJdbcBatch() {
+        List<UserDto> users = new ArrayList<>();
+        for (int i = 0; i < USERS_COUNT; i++) {
+            users.add(new UserDto(0, "user" + i, "user" + i + "@mail.com"));
+        }
+
+        List<BatchResult<UserDto>> results = save(users);
+
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == 200 && result.getBody().getId() > 0));
+        assertEquals(USERS_COUNT, statistics.getEntityInsertCount());
+        // sequence calls of the pooled optimizer and a single batched insert
+        assertTrue(statistics.getPrepareStatementCount() <= 3);
+        assertEquals(USERS_COUNT, userRepository.count());
+    }
+
+    @Test
+    void execute_whenSomeElementsRejected_thenOthersAreSaved() {
+        List<UserDto> users = List.of(
+                new UserDto(0, "first", "first@mail.com"),
+                new UserDto(0, "", "blank@mail.com"),
+                new UserDto(0, "wrong", "wrong-email"),
+                new UserDto(0, "missing", "missing@mail.com"),
+                new UserDto(0, "second", "second@mail.com"));
+
+        List<BatchResult<UserDto>> results = batchExecutor.execute(users, Create.class, userDto -> {
+            if (userDto.getName().equals("missing")) throw new UserNotFoundException("Not found user");
+            return new User(null, userDto.getName(), userDto.getEmail());
+        }, userRepository::saveAllAndFlush, this::toDto);
+
+        assertEquals(List.of(200, 400, 400, 404, 200), statuses(results));
+        assertEquals(List.of(0, 1, 2, 3, 4), results.stream().map(BatchResult::getIndex).collect(Collectors.toList()));
+        assertEquals("Not found user", results.get(3).getError());
+        assertNull(results.get(3).getBody());
+        assertEquals(2, userRepository.count());
+    }
+
+    @Test
+    void execute_whenBatchViolatesUniqueConstraint_thenOnlyDuplicateFails() {
+        userRepository.save(new User(null, "existing", "existing@mail.com"));
+        List<UserDto> users = List.of(
+                new UserDto(0, "first", "first@mail.com"),
+                new UserDto(0, "existing", "existing@mail.com"),
+                new UserDto(0, "copy", "first@mail.com"),
+                new UserDto(0, "second", "second@mail.com"));
+
+        List<BatchResult<UserDto>> results = save(users);
+
+        assertEquals(List.of(200, 409, 409, 200), statuses(results));
+        assertEquals(3, userRepository.count());
+    }
+
+    @Test
+    void execute_whenElementIsNull_thenRejected() {
+        List<UserDto> users = new ArrayList<>();
+        users.add(null);
+        users.add(new UserDto(0, "user", "user@mail.com"));
+
+        assertEquals(List.of(400, 200), statuses(save(users)));
+    }
+
+    private List<BatchResult<UserDto>> save(List<UserDto> users) {
+        return batchExecutor.execute(users, Create.class,
+                userDto -> new User(null, userDto.getName(), userDto.getEmail()),
+                userRepository::saveAllAndFlush, this::toDto);
+    }
+
+    private UserDto toDto(User user) {
+        return new UserDto(user.getId(), user.getName(), user.getEmail());
+    }
+
+    private static List<Integer> statuses(List<BatchResult<UserDto>> results) {
+        return results.stream().map(BatchResult::getStatus).collect(Collectors.toList());
+    }
+}
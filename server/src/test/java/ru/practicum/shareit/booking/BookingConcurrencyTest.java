@@ -0,0 +1,210 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.batch.BatchExecutor;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.error.BookingConflictException;
+import ru.practicum.shareit.event.DomainEventBus;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({BookingServiceImpl.class, BookingTimelineIndex.class, BookingMapper.class, ItemLocks.class, BatchExecutor.class,
+        DomainEventBus.class, PrimaryReads.class})
+class BookingConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemLocks itemLocks;
+    @Autowired
+    private BookingTimelineIndex timelineIndex;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+    private User owner;
+    private User booker;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "owner", "owner@mail.com"));
+        booker = userRepository.save(new User(null, "booker", "booker@mail.com"));
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void updateStatus_whenOverlappingBookingsApprovedConcurrently_thenOnlyOneIsApproved() throws Exception {
+        Item item = itemRepository.save(new Item(null, owner, "item", "desc", true, null));
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookingIds.add(bookingRepository.save(new Booking(null, item, booker, start.plusHours(i),
+                    start.plusHours(i + THREADS), BookingStatus.WAITING)).getId());
+        }
+        CountDownLatch ready = new CountDownLatch(1);
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            futures.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    bookingService.updateStatus(bookingId, true, owner.getId());
+                } catch (BookingConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        ready.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+
+        long approved = bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                .count();
+        assertEquals(1, approved);
+        assertEquals(THREADS - 1, conflicts.get());
+    }
+
+    @Test
+    void updateStatus_whenApprovedAndRejectedConcurrently_thenOneWinsAndIndexMatchesDatabase() throws Exception {
+        Item item = itemRepository.save(new Item(null, owner, "item", "desc", true, null));
+        for (int round = 0; round < 20; round++) {
+            LocalDateTime slot = start.plusHours(round * 2L);
+            Booking booking = bookingRepository.save(new Booking(null, item, booker, slot, slot.plusHours(1),
+                    BookingStatus.WAITING));
+            CountDownLatch ready = new CountDownLatch(1);
+            AtomicInteger refused = new AtomicInteger();
+            List<Future<?>> futures = new ArrayList<>();
+            for (boolean approve : new boolean[]{true, false}) {
+                futures.add(executor.submit(() -> {
+                    ready.await();
+                    try {
+                        bookingService.updateStatus(booking.getId(), approve, owner.getId());
+                    } catch (NullPointerException e) {
+                        refused.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            ready.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+
+            assertEquals(1, refused.get());
+            BookingStatus status = bookingRepository.findById(booking.getId()).orElseThrow().getStatus();
+            assertEquals(status == BookingStatus.APPROVED, timelineIndex.hasOverlap(item.getId(), slot, slot.plusHours(1)),
+                    "round " + round + " left " + status + " in the database");
+        }
+    }
+
+    @Test
+    void updateStatus_whenItemIsLocked_thenOtherItemsAreApprovedWithoutWaiting() throws Exception {
+        Item locked = itemRepository.save(new Item(null, owner, "locked", "desc", true, null));
+        Item free = itemRepository.save(new Item(null, owner, "free", "desc", true, null));
+        assertNotEquals(itemLocks.stripe(locked.getId()), itemLocks.stripe(free.getId()));
+        Booking booking = bookingRepository.save(new Booking(null, free, booker, start, start.plusHours(1),
+                BookingStatus.WAITING));
+
+        BookingStatus status = itemLocks.withLock(locked.getId(), () -> {
+            try {
+                return executor.submit(() -> bookingService.updateStatus(booking.getId(), true, owner.getId()))
+                        .get(30, TimeUnit.SECONDS)
+                        .getStatus();
+            } catch (InterruptedException | ExecutionException | TimeoutException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals(BookingStatus.APPROVED, status);
+    }
+
+    @Test
+    void save_whenItemIsLocked_thenWaitsForLock() throws Exception {
+        Item item = itemRepository.save(new Item(null, owner, "item", "desc", true, null));
+        BookingDto bookingDto = new BookingDto(null, item.getId(), start, start.plusHours(1), null, booker.getId());
+
+        Future<BookingResponseDto> saved = itemLocks.withLock(item.getId(), () -> {
+            Future<BookingResponseDto> future = executor.submit(() -> bookingService.save(bookingDto, booker.getId()));
+            assertThrows(TimeoutException.class, () -> future.get(200, TimeUnit.MILLISECONDS));
+            assertEquals(0, bookingRepository.count());
+            return future;
+        });
+
+        assertEquals(BookingStatus.WAITING, saved.get(30, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    void saveAll_whenItemIsLocked_thenWaitsForLock() throws Exception {
+        Item item = itemRepository.save(new Item(null, owner, "item", "desc", true, null));
+        Item other = itemRepository.save(new Item(null, owner, "other", "desc", true, null));
+        List<BookingDto> bookings = List.of(
+                new BookingDto(null, other.getId(), start, start.plusHours(1), null, booker.getId()),
+                new BookingDto(null, item.getId(), start, start.plusHours(1), null, booker.getId()));
+
+        Future<?> saved = itemLocks.withLock(item.getId(), () -> {
+            Future<?> future = executor.submit(() -> bookingService.saveAll(bookings, booker.getId()));
+            assertThrows(TimeoutException.class, () -> future.get(200, TimeUnit.MILLISECONDS));
+            assertEquals(0, bookingRepository.count());
+            return future;
+        });
+
+        saved.get(30, TimeUnit.SECONDS);
+        assertEquals(2, bookingRepository.count());
+    }
+
+    @Test
+    void save_whenSlotAlreadyApproved_thenRejectedWithConflict() {
+        Item item = itemRepository.save(new Item(null, owner, "item", "desc", true, null));
+        bookingRepository.save(new Booking(null, item, booker, start, start.plusHours(2), BookingStatus.APPROVED));
+
+        BookingDto bookingDto = new BookingDto(null, item.getId(), start.plusHours(1), start.plusHours(3),
+                null, booker.getId());
+
+        assertThrows(BookingConflictException.class, () -> bookingService.save(bookingDto, booker.getId()));
+    }
+}
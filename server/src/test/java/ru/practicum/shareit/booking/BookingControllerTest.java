@@ -10,17 +10,21 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.batch.BatchResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -45,8 +49,10 @@ class BookingControllerTest {
             LocalDateTime.now().plusHours(1),
             LocalDateTime.now().plusHours(2),
             BookingStatus.WAITING,
-            user,
-            item);
+            user.getId(),
+            user.getName(),
+            item.getId(),
+            item.getName());
 
     BookingDto bookingDto = new BookingDto(
             1L,
@@ -75,6 +81,28 @@ class BookingControllerTest {
         verify(bookingService).save(any(), anyLong());
     }
 
+    @SneakyThrows
+    @Test
+    void addBatch_whenOneBookingRejected_thenReturnedResultPerElement() {
+        when(bookingService.saveAll(anyList(), anyLong()))
+                .thenReturn(List.of(BatchResult.success(0, bookingResponseDto),
+                        BatchResult.failure(1, 404, "Item not found")));
+
+        mvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(List.of(bookingDto, bookingDto))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].body.id").value(1L))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].status").value(404))
+                .andExpect(jsonPath("$[1].error").value("Item not found"));
+
+        verify(bookingService).saveAll(anyList(), eq(1L));
+    }
+
 
     @SneakyThrows
     @Test
@@ -116,8 +144,8 @@ class BookingControllerTest {
     @SneakyThrows
     @Test
     void getAllBookingByUserId_whenStateIsNotRequired_thenDefaultValueIsAll() {
-        when(bookingService.getAllBookingByUserId(anyLong(), anyString(), anyInt(), anyInt()))
-                .thenReturn(Collections.singletonList(bookingResponseDto));
+        when(bookingService.getAllBookingByUserId(anyLong(), anyString(), anyInt(), any(), anyInt()))
+                .thenReturn(new CursorPage<>(Collections.singletonList(bookingResponseDto), null));
 
         mvc.perform(get("/bookings/")
                         .header("X-Sharer-User-Id", 1L)
@@ -129,16 +157,17 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].booker.id").value("1"))
                 .andExpect(jsonPath("$[0].item.id").value(1L));
 
-        verify(bookingService).getAllBookingByUserId(anyLong(), eq("ALL"), anyInt(), anyInt());
+        verify(bookingService).getAllBookingByUserId(anyLong(), eq("ALL"), anyInt(), isNull(), anyInt());
     }
 
     @SneakyThrows
     @Test
     void getAllBookingByOwnerId() {
-        when(bookingService.getAllBookingByOwnerId(anyLong(), anyString(), anyInt(), anyInt()))
-                .thenReturn(Collections.singletonList(bookingResponseDto));
+        when(bookingService.getAllBookingByOwnerId(anyLong(), anyString(), anyInt(), any(), anyInt()))
+                .thenReturn(new CursorPage<>(Collections.singletonList(bookingResponseDto), "next"));
 
         mvc.perform(get("/bookings/owner")
+                        .param("cursor", "current")
                         .header("X-Sharer-User-Id", 1L)
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON))
@@ -146,8 +175,9 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].status").value("WAITING"))
                 .andExpect(jsonPath("$[0].booker.id").value("1"))
-                .andExpect(jsonPath("$[0].item.id").value(1L));
+                .andExpect(jsonPath("$[0].item.id").value(1L))
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, "next"));
 
-        verify(bookingService).getAllBookingByOwnerId(eq(1L), eq("ALL"), anyInt(), anyInt());
+        verify(bookingService).getAllBookingByOwnerId(eq(1L), eq("ALL"), anyInt(), eq("current"), anyInt());
     }
 }
\ No newline at end of file
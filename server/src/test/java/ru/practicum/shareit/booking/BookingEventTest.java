@@ -0,0 +1,189 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.batch.BatchExecutor;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.event.DomainEvent;
+import ru.practicum.shareit.event.DomainEventBus;
+import ru.practicum.shareit.event.DomainEventListener;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@DataJpaTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({BookingServiceImpl.class, BookingTimelineIndex.class, BookingMapper.class, ItemLocks.class, BatchExecutor.class,
+        DomainEventBus.class, PrimaryReads.class, BookingEventTest.StatusListener.class})
+class BookingEventTest {
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @SpyBean
+    private DomainEventBus eventBus;
+    @Autowired
+    private ItemLocks itemLocks;
+    @Autowired
+    private StatusListener listener;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+    private Item item;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        eventBus.start();
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.com"));
+        booker = userRepository.save(new User(null, "booker", "booker@mail.com"));
+        item = itemRepository.save(new Item(null, owner, "item", "desc", true, null));
+        listener.deliveries.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void saveAndUpdateStatus_whenNoTransaction_thenListenerSeesCommittedRows() {
+        long bookingId = bookingService.save(booking(0), booker.getId()).getId();
+        bookingService.updateStatus(bookingId, true, item.getOwner().getId());
+
+        await(() -> listener.deliveries.size() == 2);
+        assertEquals(List.of("BOOKING_CREATED:WAITING", "BOOKING_APPROVED:APPROVED"), listener.deliveries);
+    }
+
+    @Test
+    void saveAll_thenPublishedAfterItemLocksReleased() {
+        List<Boolean> lockFree = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            ExecutorService other = Executors.newSingleThreadExecutor();
+            try {
+                lockFree.add(other.submit(() -> itemLocks.withLock(item.getId(), () -> true))
+                        .get(5, TimeUnit.SECONDS));
+            } catch (TimeoutException e) {
+                lockFree.add(false);
+            } finally {
+                other.shutdownNow();
+            }
+            return invocation.callRealMethod();
+        }).when(eventBus).publishAfterCommit(any());
+
+        bookingService.saveAll(List.of(booking(0), booking(2)), booker.getId());
+
+        assertEquals(List.of(true, true), lockFree);
+        await(() -> listener.deliveries.size() == 2);
+    }
+
+    @Test
+    void save_whenCallerTransactionActive_thenPublishedOnlyAfterItCommits() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            bookingService.save(booking(0), booker.getId());
+            sleep();
+            assertTrue(listener.deliveries.isEmpty());
+        });
+
+        await(() -> listener.deliveries.size() == 1);
+        assertEquals(List.of("BOOKING_CREATED:WAITING"), listener.deliveries);
+    }
+
+    @Test
+    void save_whenCallerTransactionRollsBack_thenNothingPublished() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            bookingService.save(booking(0), booker.getId());
+            status.setRollbackOnly();
+        });
+        bookingService.save(booking(2), booker.getId());
+
+        await(() -> listener.deliveries.size() == 1);
+        assertEquals(List.of("BOOKING_CREATED:WAITING"), listener.deliveries);
+        assertEquals(1, bookingRepository.count());
+    }
+
+    private BookingDto booking(int hours) {
+        return new BookingDto(null, item.getId(), start.plusHours(hours), start.plusHours(hours + 1), null,
+                booker.getId());
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            sleep();
+        }
+    }
+
+    /**
+     * Reads the row of each booking event on the listener thread, outside any transaction, so only a
+     * committed row is found.
+     */
+    static class StatusListener implements DomainEventListener {
+
+        final List<String> deliveries = new CopyOnWriteArrayList<>();
+        private final JdbcTemplate jdbc;
+
+        StatusListener(DataSource dataSource) {
+            this.jdbc = new JdbcTemplate(dataSource);
+        }
+
+        @Override
+        public void onEvents(List<DomainEvent> events) {
+            for (DomainEvent event : events) {
+                List<String> status = jdbc.queryForList("select status from bookings where id = ?", String.class,
+                        event.getId());
+                deliveries.add(event.getType() + ":" + (status.isEmpty() ? null : status.get(0)));
+            }
+        }
+    }
+}
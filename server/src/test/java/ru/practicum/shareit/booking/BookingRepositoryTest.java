@@ -2,16 +2,25 @@ package ru.practicum.shareit.booking;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.booking.dto.BookerShortDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.ItemShortDto;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.sql.QueryBudget;
+import ru.practicum.shareit.sql.QueryBudgetExtension;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
@@ -21,6 +30,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+@ExtendWith(QueryBudgetExtension.class)
 @DataJpaTest
 @TestPropertySource(properties = {"db.name=test"})
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
@@ -103,26 +113,7 @@ class BookingRepositoryTest {
 
 
     @Test
-    void getLastBookingByItemIdTest() {
-        System.out.println("\n" + bookingRepository.findAll() + "\n");
-        Optional<Booking> actual = bookingRepository.getLastBookingByItemId(2);
-
-        assertTrue(actual.isPresent());
-        assertEquals(2L, actual.get().getId());
-        assertEquals(BookingStatus.APPROVED, actual.get().getStatus());
-    }
-
-    @Test
-    void getNextBookingByItemIdTest() {
-        System.out.println("\n" + bookingRepository.findAll() + "\n");
-        Optional<Booking> actual = bookingRepository.getNextBookingByItemId(2);
-        assertTrue(actual.isPresent());
-        assertEquals(3L, actual.get().getId());
-        assertEquals(BookingStatus.APPROVED, actual.get().getStatus());
-
-    }
-
-    @Test
+    @QueryBudget(5)
     void findPastBookingByBooker_IdAndItem_IdTest() {
         System.out.println("\n" + bookingRepository.findAll() + "\n");
         List<Booking> actualList = bookingRepository
@@ -134,9 +125,25 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findAllByBooker_IdOrderByStartDescTest() {
-        System.out.println("\n" + bookingRepository.findAll() + "\n");
-        List<Booking> actualList = bookingRepository.findAllByBooker_IdOrderByStartDesc(1L, Pageable.unpaged()).toList();
+    @QueryBudget(6)
+    void findResponseById_thenOnlyBookerAndOwnerGetFlatSummary() {
+        Optional<BookingResponseDto> byBooker = bookingRepository.findResponseById(2L, 1L);
+        Optional<BookingResponseDto> byOwner = bookingRepository.findResponseById(2L, 2L);
+
+        assertTrue(byBooker.isPresent());
+        assertEquals(new BookerShortDto(1L, "testName1"), byBooker.get().getBooker());
+        assertEquals(new ItemShortDto(2L, "iTem2 NAme"), byBooker.get().getItem());
+        assertEquals(BookingStatus.APPROVED, byBooker.get().getStatus());
+        assertTrue(byOwner.isPresent());
+        assertTrue(bookingRepository.findResponseById(1L, 2L).isEmpty());
+    }
+
+    @Test
+    @QueryBudget(4)
+    void findBookerBookingsTest() {
+        Cursor first = Cursor.DESCENDING_START;
+        List<BookingResponseDto> actualList = bookingRepository
+                .findBookerBookings(1L, first.getTime(), first.getId(), Pageable.unpaged()).toList();
         assertFalse(actualList.isEmpty());
         assertEquals(2, actualList.size());
         assertEquals(1L, actualList.get(0).getId());
@@ -144,15 +151,82 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findBookingByItem_Owner_IdTest() {
-        System.out.println("\n" + bookingRepository.findAll() + "\n");
-        List<Booking> actualList = bookingRepository.findBookingByItemOwner_Id(2L, Pageable.unpaged()).toList();
-        System.out.println("\n" + "!!!!!!" + "\n" + actualList);
+    @QueryBudget(4)
+    void findOwnerBookingsTest() {
+        Cursor first = Cursor.DESCENDING_START;
+        List<BookingResponseDto> actualList = bookingRepository
+                .findOwnerBookings(2L, first.getTime(), first.getId(), Pageable.unpaged()).toList();
         assertFalse(actualList.isEmpty());
         assertEquals(2, actualList.size());
         assertEquals(3L, actualList.get(0).getId());
         assertEquals(2L, actualList.get(1).getId());
     }
 
+    @Test
+    @QueryBudget(5)
+    void findOwnerBookings_whenSeekingFromLastRow_thenNextRowsReturned() {
+        em.flush();
+        em.clear();
+        Cursor first = Cursor.DESCENDING_START;
+        Slice<BookingResponseDto> firstPage = bookingRepository
+                .findOwnerBookings(2L, first.getTime(), first.getId(), PageRequest.of(0, 1));
+        BookingResponseDto last = firstPage.getContent().get(0);
+        Slice<BookingResponseDto> secondPage = bookingRepository
+                .findOwnerBookings(2L, last.getStart(), last.getId(), PageRequest.of(0, 1));
+
+        assertTrue(firstPage.hasNext());
+        assertEquals(3L, last.getId());
+        assertFalse(secondPage.hasNext());
+        assertEquals(2L, secondPage.getContent().get(0).getId());
+    }
 
-}
\ No newline at end of file
+    @Test
+    @QueryBudget(7)
+    void findBookerBookingsByStateTest() {
+        LocalDateTime now = LocalDateTime.now();
+        Cursor asc = Cursor.ASCENDING_START;
+        Cursor desc = Cursor.DESCENDING_START;
+
+        List<BookingResponseDto> current = bookingRepository
+                .findBookerCurrentBookings(1L, now, asc.getTime(), asc.getId(), Pageable.unpaged()).toList();
+        List<BookingResponseDto> past = bookingRepository
+                .findBookerPastBookings(1L, now, desc.getTime(), desc.getId(), Pageable.unpaged()).toList();
+        List<BookingResponseDto> future = bookingRepository
+                .findBookerFutureBookings(2L, now, desc.getTime(), desc.getId(), Pageable.unpaged()).toList();
+        List<BookingResponseDto> waiting = bookingRepository.findBookerBookingsByStatus(1L, BookingStatus.WAITING,
+                desc.getTime(), desc.getId(), Pageable.unpaged()).toList();
+
+        assertEquals(1, current.size());
+        assertEquals(1L, current.get(0).getId());
+        assertEquals(1, past.size());
+        assertEquals(2L, past.get(0).getId());
+        assertEquals(1, future.size());
+        assertEquals(3L, future.get(0).getId());
+        assertEquals(1, waiting.size());
+        assertEquals(1L, waiting.get(0).getId());
+    }
+
+    @Test
+    @QueryBudget(7)
+    void findOwnerBookingsByStateTest() {
+        LocalDateTime now = LocalDateTime.now();
+        Cursor asc = Cursor.ASCENDING_START;
+        Cursor desc = Cursor.DESCENDING_START;
+
+        List<BookingResponseDto> current = bookingRepository
+                .findOwnerCurrentBookings(2L, now, asc.getTime(), asc.getId(), Pageable.unpaged()).toList();
+        List<BookingResponseDto> past = bookingRepository
+                .findOwnerPastBookings(2L, now, desc.getTime(), desc.getId(), Pageable.unpaged()).toList();
+        List<BookingResponseDto> future = bookingRepository
+                .findOwnerFutureBookings(2L, now, desc.getTime(), desc.getId(), Pageable.unpaged()).toList();
+        List<BookingResponseDto> rejected = bookingRepository.findOwnerBookingsByStatus(2L, BookingStatus.REJECTED,
+                desc.getTime(), desc.getId(), Pageable.unpaged()).toList();
+
+        assertTrue(current.isEmpty());
+        assertEquals(1, past.size());
+        assertEquals(2L, past.get(0).getId());
+        assertEquals(1, future.size());
+        assertEquals(3L, future.get(0).getId());
+        assertTrue(rejected.isEmpty());
+    }
+}
@@ -5,21 +5,29 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.booking.dto.BookerShortDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.ItemShortDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.error.AccessOrAvailableException;
+import ru.practicum.shareit.error.BookingConflictException;
 import ru.practicum.shareit.error.ItemNotFoundException;
 import ru.practicum.shareit.error.UserNotFoundException;
+import ru.practicum.shareit.event.DomainEvent;
+import ru.practicum.shareit.event.DomainEventBus;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.FromSizeRequest;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
+import javax.validation.ValidationException;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
@@ -27,6 +35,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,7 +50,7 @@ class BookingServiceTest {
     Booking booking = new Booking(1L, item, user, LocalDateTime.now(),
             LocalDateTime.now().plusHours(6), BookingStatus.WAITING);
     BookingResponseDto bookingResponseDto = new BookingResponseDto(1L, LocalDateTime.now(),
-            LocalDateTime.now().plusHours(6), BookingStatus.WAITING, user, item);
+            LocalDateTime.now().plusHours(6), BookingStatus.WAITING, user.getId(), user.getName(), item.getId(), item.getName());
     BookingDto bookingDto = new BookingDto(1L, 1L, LocalDateTime.now(),
             LocalDateTime.now().plusHours(6), BookingStatus.WAITING, 1L);
     @Mock
@@ -51,6 +61,12 @@ class BookingServiceTest {
     private ItemRepository itemRepository;
     @Mock
     private BookingMapper mapper;
+    @Mock
+    private BookingTimelineIndex timelineIndex;
+    @Mock
+    private DomainEventBus eventBus;
+    @Spy
+    private ItemLocks itemLocks = new ItemLocks();
 
     @Test
     void save_whenStartTimeAfterEndTime_thenThrowNullPointer() {
@@ -135,7 +151,45 @@ class BookingServiceTest {
         verify(itemRepository).findById(any());
         verify(userRepository).findById(any());
         verify(bookingRepository).save(any());
+        verify(itemLocks).withLock(eq(1L), any());
+        verify(eventBus).publishAfterCommit(argThat(event -> event.getType() == DomainEvent.Type.BOOKING_CREATED
+                && event.getId() == 1L && event.getPayload() == bookingResponseDto));
+
+    }
+
+    @Test
+    void save_whenApprovedBookingOverlaps_thenThrowBookingConflictException() {
+        when(itemRepository.findById(any())).thenReturn(Optional.of(item));
+        when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        when(timelineIndex.hasOverlap(1L, bookingDto.getStart(), bookingDto.getEnd())).thenReturn(true);
 
+        assertThrows(BookingConflictException.class, () -> bookingService.save(bookingDto, 2L));
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void updateStatus_whenApprovedBookingOverlaps_thenThrowBookingConflictException() {
+        when(bookingRepository.findById(any())).thenReturn(Optional.of(booking));
+        when(timelineIndex.hasOverlap(1L, booking.getStart(), booking.getEnd())).thenReturn(true);
+
+        assertThrows(BookingConflictException.class,
+                () -> bookingService.updateStatus(1L, true, 1L));
+        assertEquals(BookingStatus.WAITING, booking.getStatus());
+        verify(itemLocks).withLock(eq(1L), any());
+        verify(bookingRepository, never()).save(any());
+        verify(timelineIndex, never()).update(any());
+        verify(eventBus, never()).publishAfterCommit(any());
+    }
+
+    @Test
+    void updateStatus_whenRejected_thenOverlapIsNotChecked() {
+        when(bookingRepository.findById(any())).thenReturn(Optional.of(booking));
+
+        bookingService.updateStatus(1L, false, 1L);
+
+        verify(timelineIndex, never()).hasOverlap(anyLong(), any(), any());
+        verify(itemLocks).withLock(eq(1L), any());
+        verify(eventBus).publishAfterCommit(argThat(event -> event.getType() == DomainEvent.Type.BOOKING_REJECTED));
     }
 
     @Test
@@ -165,6 +219,18 @@ class BookingServiceTest {
 
     }
 
+    @Test
+    void updateStatus_whenDecidedWhileWaitingForLock_thenThrowNullPointerException() {
+        when(bookingRepository.findById(any())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findStatusById(1L)).thenReturn(BookingStatus.REJECTED);
+
+        assertThrows(NullPointerException.class,
+                () -> bookingService.updateStatus(1L, true, 1L));
+        assertEquals(BookingStatus.WAITING, booking.getStatus());
+        verify(bookingRepository, never()).save(any());
+        verify(timelineIndex, never()).update(any());
+    }
+
     @Test
     void updateStatus_whenHaveNoAccessToProve_thenThrowAccessOrAvailableException() {
 
@@ -185,8 +251,8 @@ class BookingServiceTest {
 
         bookingApproved.setBooker(user);
         bookingApproved.setItem(item);
-        bookingResponseDtoApproved.setItem(item);
-        bookingResponseDtoApproved.setBooker(user);
+        bookingResponseDtoApproved.setItem(new ItemShortDto(item.getId(), item.getName()));
+        bookingResponseDtoApproved.setBooker(new BookerShortDto(user.getId(), user.getName()));
 
         bookingApproved.setStatus(BookingStatus.APPROVED);
 
@@ -200,6 +266,7 @@ class BookingServiceTest {
         BookingResponseDto actual = bookingService.updateStatus(1L, true, 1L);
         assertEquals(BookingStatus.APPROVED, actual.getStatus());
         verify(bookingRepository).save(any());
+        verify(timelineIndex).update(booking);
     }
 
     @Test
@@ -212,8 +279,8 @@ class BookingServiceTest {
 
         bookingRejected.setBooker(user);
         bookingRejected.setItem(item);
-        bookingResponseDtoRejected.setItem(item);
-        bookingResponseDtoRejected.setBooker(user);
+        bookingResponseDtoRejected.setItem(new ItemShortDto(item.getId(), item.getName()));
+        bookingResponseDtoRejected.setBooker(new BookerShortDto(user.getId(), user.getName()));
         bookingRejected.setStatus(BookingStatus.REJECTED);
         bookingResponseDtoRejected.setStatus(BookingStatus.REJECTED);
 
@@ -229,7 +296,8 @@ class BookingServiceTest {
 
     @Test
     void getById_whenBookingNotFound_thenThrow() {
-        when(bookingRepository.findById(any())).thenReturn(Optional.empty());
+        when(bookingRepository.findResponseById(1L, 1L)).thenReturn(Optional.empty());
+        when(bookingRepository.existsById(1L)).thenReturn(false);
 
         assertThrows(UserNotFoundException.class,
                 () -> bookingService.getById(1L, 1L));
@@ -237,8 +305,9 @@ class BookingServiceTest {
 
     @Test
     void getById_whenUserNotFound_thenThrow() {
-        when(bookingRepository.findById(any())).thenReturn(Optional.of(booking));
-        when(userRepository.findById(any())).thenReturn(Optional.empty());
+        when(bookingRepository.findResponseById(1L, 1L)).thenReturn(Optional.empty());
+        when(bookingRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.existsById(1L)).thenReturn(false);
 
         assertThrows(UserNotFoundException.class,
                 () -> bookingService.getById(1L, 1L));
@@ -247,26 +316,23 @@ class BookingServiceTest {
 
     @Test
     void getByID_whenHaveNoAccess_thenThrowAccessOrAvailableException() {
-        when(bookingRepository.findById(any())).thenReturn(Optional.of(booking));
-        when(userRepository.findById(any())).thenReturn(Optional.of(user));
-
+        when(bookingRepository.findResponseById(1L, 2L)).thenReturn(Optional.empty());
+        when(bookingRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.existsById(2L)).thenReturn(true);
 
         assertThrows(AccessOrAvailableException.class,
                 () -> bookingService.getById(1L, 2L));
-        verify(mapper, never()).bookingToResponse(any());
     }
 
     @Test
     void getById_whenEverythingIsOk() {
-        when(bookingRepository.findById(any())).thenReturn(Optional.of(booking));
-        when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        when(mapper.bookingToResponse(booking)).thenReturn(bookingResponseDto);
+        when(bookingRepository.findResponseById(1L, 1L)).thenReturn(Optional.of(bookingResponseDto));
 
         BookingResponseDto actual = bookingService.getById(1L, 1L);
 
         assertEquals(bookingResponseDto.toString(), actual.toString());
-        verify(bookingRepository).findById(1L);
-        verify(userRepository).findById(1L);
+        verify(bookingRepository, never()).findById(any());
+        verifyNoInteractions(userRepository, mapper);
     }
 
     @Test
@@ -274,18 +340,18 @@ class BookingServiceTest {
         when(userRepository.findById(any())).thenReturn(Optional.empty());
 
         assertThrows(UserNotFoundException.class,
-                () -> bookingService.getAllBookingByUserId(1L, "ALL", 0, 10));
+                () -> bookingService.getAllBookingByUserId(1L, "ALL", 0, null, 10));
     }
 
     @Test
     void getAllBookingByUserId_whenStateALL() {
         booking.setStatus(BookingStatus.APPROVED);
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBooker_IdOrderByStartDesc(1L, PageRequest.of(0, 10)))
-                .thenReturn(new PageImpl<Booking>(Collections.singletonList(booking)));
-        when(mapper.bookingToResponse(booking)).thenReturn(bookingResponseDto);
+        when(bookingRepository.findBookerBookings(eq(1L), any(LocalDateTime.class), eq(Long.MAX_VALUE),
+                eq(FromSizeRequest.of(0, 10, null))))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(bookingResponseDto)));
 
-        List<BookingResponseDto> actual = bookingService.getAllBookingByUserId(1L, "ALL", 0, 10);
+        List<BookingResponseDto> actual = bookingService.getAllBookingByUserId(1L, "ALL", 0, null, 10).getContent();
         assertFalse(actual.isEmpty());
         assertEquals(bookingResponseDto.toString(), actual.get(0).toString());
     }
@@ -295,11 +361,11 @@ class BookingServiceTest {
         booking.setStatus(BookingStatus.APPROVED);
         booking.setStart(LocalDateTime.now().minusHours(1));
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBooker_IdOrderByStartDesc(1L, PageRequest.of(0, 10)))
-                .thenReturn(new PageImpl<Booking>(Collections.singletonList(booking)));
-        when(mapper.bookingToResponse(booking)).thenReturn(bookingResponseDto);
+        when(bookingRepository.findBookerCurrentBookings(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class),
+                eq(0L), eq(FromSizeRequest.of(0, 10, null))))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(bookingResponseDto)));
 
-        List<BookingResponseDto> actual = bookingService.getAllBookingByUserId(1L, "CURRENT", 0, 10);
+        List<BookingResponseDto> actual = bookingService.getAllBookingByUserId(1L, "CURRENT", 0, null, 10).getContent();
         assertFalse(actual.isEmpty());
         assertEquals(bookingResponseDto.toString(), actual.get(0).toString());
     }
@@ -310,11 +376,11 @@ class BookingServiceTest {
         booking.setEnd(LocalDateTime.now().minusHours(1));
         booking.setStatus(BookingStatus.APPROVED);
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBooker_IdOrderByStartDesc(1L, PageRequest.of(0, 10)))
-                .thenReturn(new PageImpl<Booking>(Collections.singletonList(booking)));
-        when(mapper.bookingToResponse(booking)).thenReturn(bookingResponseDto);
+        when(bookingRepository.findBookerPastBookings(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class),
+                eq(Long.MAX_VALUE), eq(FromSizeRequest.of(0, 10, null))))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(bookingResponseDto)));
 
-        List<BookingResponseDto> actual = bookingService.getAllBookingByUserId(1L, "PAST", 0, 10);
+        List<BookingResponseDto> actual = bookingService.getAllBookingByUserId(1L, "PAST", 0, null, 10).getContent();
         assertFalse(actual.isEmpty());
         assertEquals(bookingResponseDto.toString(), actual.get(0).toString());
     }
@@ -324,10 +390,10 @@ class BookingServiceTest {
         booking.setStart(LocalDateTime.now().plusHours(2));
         booking.setStatus(BookingStatus.APPROVED);
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBooker_IdOrderByStartDesc(1L, PageRequest.of(0, 10)))
-                .thenReturn(new PageImpl<Booking>(Collections.singletonList(booking)));
-        when(mapper.bookingToResponse(booking)).thenReturn(bookingResponseDto);
-        List<BookingResponseDto> actual = bookingService.getAllBookingByUserId(1L, "FUTURE", 0, 10);
+        when(bookingRepository.findBookerFutureBookings(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class),
+                eq(Long.MAX_VALUE), eq(FromSizeRequest.of(0, 10, null))))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(bookingResponseDto)));
+        List<BookingResponseDto> actual = bookingService.getAllBookingByUserId(1L, "FUTURE", 0, null, 10).getContent();
         assertFalse(actual.isEmpty());
         assertEquals(bookingResponseDto.toString(), actual.get(0).toString());
     }
@@ -336,10 +402,10 @@ class BookingServiceTest {
     void getAllBookingByUserId_whenStateREJECTED() {
         booking.setStatus(BookingStatus.REJECTED);
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBooker_IdOrderByStartDesc(1L, PageRequest.of(0, 10)))
-                .thenReturn(new PageImpl<Booking>(Collections.singletonList(booking)));
-        when(mapper.bookingToResponse(booking)).thenReturn(bookingResponseDto);
-        List<BookingResponseDto> actual = bookingService.getAllBookingByUserId(1L, "REJECTED", 0, 10);
+        when(bookingRepository.findBookerBookingsByStatus(eq(1L), eq(BookingStatus.REJECTED), any(LocalDateTime.class),
+                eq(Long.MAX_VALUE), eq(FromSizeRequest.of(0, 10, null))))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(bookingResponseDto)));
+        List<BookingResponseDto> actual = bookingService.getAllBookingByUserId(1L, "REJECTED", 0, null, 10).getContent();
         assertFalse(actual.isEmpty());
         assertEquals(bookingResponseDto.toString(), actual.get(0).toString());
     }
@@ -348,10 +414,10 @@ class BookingServiceTest {
     void getAllBookingByUserId_whenStateWAITING() {
         booking.setStatus(BookingStatus.WAITING);
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBooker_IdOrderByStartDesc(1L, PageRequest.of(0, 10)))
-                .thenReturn(new PageImpl<Booking>(Collections.singletonList(booking)));
-        when(mapper.bookingToResponse(booking)).thenReturn(bookingResponseDto);
-        List<BookingResponseDto> actual = bookingService.getAllBookingByUserId(1L, "WAITING", 0, 10);
+        when(bookingRepository.findBookerBookingsByStatus(eq(1L), eq(BookingStatus.WAITING), any(LocalDateTime.class),
+                eq(Long.MAX_VALUE), eq(FromSizeRequest.of(0, 10, null))))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(bookingResponseDto)));
+        List<BookingResponseDto> actual = bookingService.getAllBookingByUserId(1L, "WAITING", 0, null, 10).getContent();
         assertFalse(actual.isEmpty());
         assertEquals(bookingResponseDto.toString(), actual.get(0).toString());
     }
@@ -360,10 +426,9 @@ class BookingServiceTest {
     void getAllBookingByUserId_whenStateUNKOWN() {
         booking.setStatus(null);
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBooker_IdOrderByStartDesc(1L, PageRequest.of(0, 10)))
-                .thenReturn(new PageImpl<Booking>(Collections.singletonList(booking)));
         assertThrows(IllegalArgumentException.class,
-                () -> bookingService.getAllBookingByUserId(1L, "UKNOWN", 0, 10));
+                () -> bookingService.getAllBookingByUserId(1L, "UKNOWN", 0, null, 10));
+        verifyNoInteractions(bookingRepository);
     }
 
     @Test
@@ -371,16 +436,17 @@ class BookingServiceTest {
         when(userRepository.findById(any())).thenReturn(Optional.empty());
 
         assertThrows(UserNotFoundException.class,
-                () -> bookingService.getAllBookingByOwnerId(1L, "ALL", 0, 10));
+                () -> bookingService.getAllBookingByOwnerId(1L, "ALL", 0, null, 10));
     }
 
     @Test
     void getAllBookingByOwnerId_whenBookingsIsEmpty_thenReturnedEmptyList() {
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingByItemOwner_Id(1L, PageRequest.of(0, 10)))
-                .thenReturn(Page.empty());
+        when(bookingRepository.findOwnerBookings(eq(1L), any(LocalDateTime.class), eq(Long.MAX_VALUE),
+                eq(FromSizeRequest.of(0, 10, null))))
+                .thenReturn(new SliceImpl<>(Collections.emptyList()));
 
-        List<BookingResponseDto> actual = bookingService.getAllBookingByOwnerId(1L, "ALL", 0, 10);
+        List<BookingResponseDto> actual = bookingService.getAllBookingByOwnerId(1L, "ALL", 0, null, 10).getContent();
 
         assertTrue(actual.isEmpty());
     }
@@ -389,11 +455,11 @@ class BookingServiceTest {
     void getAllBookingByOwnerId_whenStateIsALL() {
         booking.setStatus(BookingStatus.APPROVED);
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingByItemOwner_Id(1L, PageRequest.of(0, 10)))
-                .thenReturn(new PageImpl<Booking>(Collections.singletonList(booking)));
-        when(mapper.bookingToResponse(booking)).thenReturn(bookingResponseDto);
+        when(bookingRepository.findOwnerBookings(eq(1L), any(LocalDateTime.class), eq(Long.MAX_VALUE),
+                eq(FromSizeRequest.of(0, 10, null))))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(bookingResponseDto)));
 
-        List<BookingResponseDto> actual = bookingService.getAllBookingByOwnerId(1L, "ALL", 0, 10);
+        List<BookingResponseDto> actual = bookingService.getAllBookingByOwnerId(1L, "ALL", 0, null, 10).getContent();
         assertFalse(actual.isEmpty());
         assertEquals(bookingResponseDto.toString(), actual.get(0).toString());
     }
@@ -403,11 +469,11 @@ class BookingServiceTest {
         booking.setStatus(BookingStatus.APPROVED);
         booking.setStart(LocalDateTime.now().minusHours(1));
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingByItemOwner_Id(1L, PageRequest.of(0, 10)))
-                .thenReturn(new PageImpl<Booking>(Collections.singletonList(booking)));
-        when(mapper.bookingToResponse(booking)).thenReturn(bookingResponseDto);
+        when(bookingRepository.findOwnerCurrentBookings(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class),
+                eq(0L), eq(FromSizeRequest.of(0, 10, null))))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(bookingResponseDto)));
 
-        List<BookingResponseDto> actual = bookingService.getAllBookingByOwnerId(1L, "CURRENT", 0, 10);
+        List<BookingResponseDto> actual = bookingService.getAllBookingByOwnerId(1L, "CURRENT", 0, null, 10).getContent();
         assertFalse(actual.isEmpty());
         assertEquals(bookingResponseDto.toString(), actual.get(0).toString());
     }
@@ -418,11 +484,11 @@ class BookingServiceTest {
         booking.setEnd(LocalDateTime.now().minusHours(1));
         booking.setStatus(BookingStatus.APPROVED);
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingByItemOwner_Id(1L, PageRequest.of(0, 10)))
-                .thenReturn(new PageImpl<Booking>(Collections.singletonList(booking)));
-        when(mapper.bookingToResponse(booking)).thenReturn(bookingResponseDto);
+        when(bookingRepository.findOwnerPastBookings(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class),
+                eq(Long.MAX_VALUE), eq(FromSizeRequest.of(0, 10, null))))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(bookingResponseDto)));
 
-        List<BookingResponseDto> actual = bookingService.getAllBookingByOwnerId(1L, "PAST", 0, 10);
+        List<BookingResponseDto> actual = bookingService.getAllBookingByOwnerId(1L, "PAST", 0, null, 10).getContent();
         assertFalse(actual.isEmpty());
         assertEquals(bookingResponseDto.toString(), actual.get(0).toString());
 
@@ -433,10 +499,10 @@ class BookingServiceTest {
         booking.setStart(LocalDateTime.now().plusHours(2));
         booking.setStatus(BookingStatus.APPROVED);
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingByItemOwner_Id(1L, PageRequest.of(0, 10)))
-                .thenReturn(new PageImpl<Booking>(Collections.singletonList(booking)));
-        when(mapper.bookingToResponse(booking)).thenReturn(bookingResponseDto);
-        List<BookingResponseDto> actual = bookingService.getAllBookingByOwnerId(1L, "FUTURE", 0, 10);
+        when(bookingRepository.findOwnerFutureBookings(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class),
+                eq(Long.MAX_VALUE), eq(FromSizeRequest.of(0, 10, null))))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(bookingResponseDto)));
+        List<BookingResponseDto> actual = bookingService.getAllBookingByOwnerId(1L, "FUTURE", 0, null, 10).getContent();
         assertFalse(actual.isEmpty());
         assertEquals(bookingResponseDto.toString(), actual.get(0).toString());
     }
@@ -445,10 +511,10 @@ class BookingServiceTest {
     void getAllBookingByOwnerId_whenStateIsREJECTED() {
         booking.setStatus(BookingStatus.REJECTED);
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingByItemOwner_Id(1L, PageRequest.of(0, 10)))
-                .thenReturn(new PageImpl<Booking>(Collections.singletonList(booking)));
-        when(mapper.bookingToResponse(booking)).thenReturn(bookingResponseDto);
-        List<BookingResponseDto> actual = bookingService.getAllBookingByOwnerId(1L, "REJECTED", 0, 10);
+        when(bookingRepository.findOwnerBookingsByStatus(eq(1L), eq(BookingStatus.REJECTED), any(LocalDateTime.class),
+                eq(Long.MAX_VALUE), eq(FromSizeRequest.of(0, 10, null))))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(bookingResponseDto)));
+        List<BookingResponseDto> actual = bookingService.getAllBookingByOwnerId(1L, "REJECTED", 0, null, 10).getContent();
         assertFalse(actual.isEmpty());
         assertEquals(bookingResponseDto.toString(), actual.get(0).toString());
     }
@@ -457,10 +523,10 @@ class BookingServiceTest {
     void getAllBookingByOwnerId_whenStateIsWAITING() {
         booking.setStatus(BookingStatus.WAITING);
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingByItemOwner_Id(1L, PageRequest.of(0, 10)))
-                .thenReturn(new PageImpl<Booking>(Collections.singletonList(booking)));
-        when(mapper.bookingToResponse(booking)).thenReturn(bookingResponseDto);
-        List<BookingResponseDto> actual = bookingService.getAllBookingByOwnerId(1L, "WAITING", 0, 10);
+        when(bookingRepository.findOwnerBookingsByStatus(eq(1L), eq(BookingStatus.WAITING), any(LocalDateTime.class),
+                eq(Long.MAX_VALUE), eq(FromSizeRequest.of(0, 10, null))))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(bookingResponseDto)));
+        List<BookingResponseDto> actual = bookingService.getAllBookingByOwnerId(1L, "WAITING", 0, null, 10).getContent();
         assertFalse(actual.isEmpty());
         assertEquals(bookingResponseDto.toString(), actual.get(0).toString());
     }
@@ -469,9 +535,31 @@ class BookingServiceTest {
     void getAllBookingByOwnerId_whenStateIsIllegal_thenThrowIllegalArgumentException() {
         booking.setStatus(null);
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        when(bookingRepository.findBookingByItemOwner_Id(1L, PageRequest.of(0, 10)))
-                .thenReturn(new PageImpl<Booking>(Collections.singletonList(booking)));
         assertThrows(IllegalArgumentException.class,
-                () -> bookingService.getAllBookingByOwnerId(1L, "UKNOWN", 0, 10));
+                () -> bookingService.getAllBookingByOwnerId(1L, "UKNOWN", 0, null, 10));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getAllBookingByUserId_whenCursorGiven_thenSeekFromCursorAndReturnNextCursor() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        String cursor = Cursor.of(start, 7L).encode();
+        when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        when(bookingRepository.findBookerBookings(1L, start, 7L, FromSizeRequest.of(5, 1, cursor)))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(bookingResponseDto), FromSizeRequest.of(0, 1, cursor), true));
+
+        CursorPage<BookingResponseDto> actual = bookingService.getAllBookingByUserId(1L, "ALL", 5, cursor, 1);
+
+        assertEquals(1, actual.getContent().size());
+        assertEquals(Cursor.of(bookingResponseDto.getStart(), bookingResponseDto.getId()).encode(), actual.getNextCursor());
+    }
+
+    @Test
+    void getAllBookingByUserId_whenCursorIsMalformed_thenThrowValidationException() {
+        when(userRepository.findById(any())).thenReturn(Optional.of(user));
+
+        assertThrows(ValidationException.class,
+                () -> bookingService.getAllBookingByUserId(1L, "ALL", 0, "not a cursor", 10));
+        verifyNoInteractions(bookingRepository);
     }
-}
\ No newline at end of file
+}
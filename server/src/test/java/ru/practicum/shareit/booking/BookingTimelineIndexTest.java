@@ -0,0 +1,215 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.dto.BookingTimelineDto;
+import ru.practicum.shareit.booking.dto.TimeIntervalDto;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingTimelineIndexTest {
+
+    LocalDateTime now = LocalDateTime.of(2030, 1, 10, 12, 0);
+    User booker = new User(2L, "booker", "booker@mail.com");
+    Item item = new Item(1L, new User(1L, "owner", "owner@mail.com"), "item", "desc", true, null);
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private BookingTimelineIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(meterRegistryProvider.getIfAvailable(any())).thenReturn(meterRegistry);
+        index = new BookingTimelineIndex(bookingRepository, itemRepository, new PrimaryReads(transactionManager),
+                meterRegistryProvider);
+    }
+
+    @Test
+    void rebuild_thenLastAndNextAreAnsweredWithoutRepository() {
+        when(itemRepository.findAllIds()).thenReturn(List.of(1L, 3L));
+        when(bookingRepository.findActiveTimeline()).thenReturn(List.of(
+                new BookingTimelineDto(10L, 2L, 1L, now.minusDays(5), now.minusDays(4), BookingStatus.APPROVED),
+                new BookingTimelineDto(11L, 2L, 1L, now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED),
+                new BookingTimelineDto(12L, 2L, 1L, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED),
+                new BookingTimelineDto(13L, 2L, 1L, now.plusDays(3), now.plusDays(4), BookingStatus.APPROVED)));
+
+        index.rebuild();
+
+        assertEquals(11L, index.findLastBooking(1L, now).map(BookingItemDto::getId).orElseThrow());
+        assertEquals(12L, index.findNextBooking(1L, now).map(BookingItemDto::getId).orElseThrow());
+        assertTrue(index.findLastBooking(3L, now).isEmpty());
+        assertTrue(index.findNextBooking(3L, now).isEmpty());
+        verify(bookingRepository, never()).findActiveTimelineByItemIds(anyCollection());
+        assertEquals(4, meterRegistry.counter("shareit.booking.timeline.lookups", "result", "hit").count());
+        assertEquals(1, meterRegistry.timer("shareit.booking.timeline.rebuild").count());
+    }
+
+    @Test
+    void findLastBooking_whenEarlierBookingEndsLater_thenReturnedLatestEnd() {
+        when(itemRepository.findAllIds()).thenReturn(List.of(1L));
+        when(bookingRepository.findActiveTimeline()).thenReturn(List.of(
+                new BookingTimelineDto(10L, 2L, 1L, now.minusDays(5), now.minusDays(1), BookingStatus.APPROVED),
+                new BookingTimelineDto(11L, 2L, 1L, now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED)));
+
+        index.rebuild();
+
+        assertEquals(Optional.of(10L), index.findLastBooking(1L, now).map(BookingItemDto::getId));
+    }
+
+    @Test
+    void findNextBooking_whenItemNotIndexed_thenLoadedOnceFromRepository() {
+        when(bookingRepository.findActiveTimelineByItemIds(List.of(1L))).thenReturn(List.of(
+                new BookingTimelineDto(12L, 2L, 1L, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED)));
+
+        assertEquals(12L, index.findNextBooking(1L, now).map(BookingItemDto::getId).orElseThrow());
+        assertTrue(index.findLastBooking(1L, now).isEmpty());
+
+        verify(bookingRepository, times(1)).findActiveTimelineByItemIds(anyCollection());
+        assertEquals(1, meterRegistry.counter("shareit.booking.timeline.lookups", "result", "miss").count());
+        assertEquals(1, meterRegistry.counter("shareit.booking.timeline.lookups", "result", "hit").count());
+    }
+
+    @Test
+    void update_whenBookingApprovedAndThenRejected_thenTimelineFollows() {
+        index.addItem(1L);
+        Booking booking = new Booking(20L, item, booker, now.plusHours(1), now.plusHours(2), BookingStatus.APPROVED);
+
+        index.update(booking);
+        assertEquals(20L, index.findNextBooking(1L, now).map(BookingItemDto::getId).orElseThrow());
+
+        booking.setStatus(BookingStatus.REJECTED);
+        index.update(booking);
+        assertTrue(index.findNextBooking(1L, now).isEmpty());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void hasOverlap_thenHalfOpenIntervalsOfApprovedBookingsAreCompared() {
+        when(itemRepository.findAllIds()).thenReturn(List.of(1L));
+        when(bookingRepository.findActiveTimeline()).thenReturn(List.of(
+                new BookingTimelineDto(10L, 2L, 1L, now.minusDays(5), now.plusDays(1), BookingStatus.APPROVED),
+                new BookingTimelineDto(11L, 2L, 1L, now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED),
+                new BookingTimelineDto(12L, 2L, 1L, now.plusDays(3), now.plusDays(4), BookingStatus.APPROVED)));
+
+        index.rebuild();
+
+        assertTrue(index.hasOverlap(1L, now, now.plusHours(1)), "covered by a booking that started earlier");
+        assertTrue(index.hasOverlap(1L, now.plusDays(2), now.plusDays(5)));
+        assertTrue(index.hasOverlap(1L, now.minusDays(6), now.plusDays(6)));
+        assertFalse(index.hasOverlap(1L, now.plusDays(1), now.plusDays(3)), "touching ends do not overlap");
+        assertFalse(index.hasOverlap(1L, now.plusDays(4), now.plusDays(5)));
+        assertFalse(index.hasOverlap(1L, now.minusDays(7), now.minusDays(5)));
+    }
+
+    @Test
+    void hasOverlap_whenBookingRejected_thenSlotIsFreeAgain() {
+        index.addItem(1L);
+        Booking booking = new Booking(20L, item, booker, now.plusHours(1), now.plusHours(2), BookingStatus.APPROVED);
+        index.update(booking);
+
+        assertTrue(index.hasOverlap(1L, now.plusMinutes(90), now.plusHours(3)));
+
+        booking.setStatus(BookingStatus.REJECTED);
+        index.update(booking);
+        assertFalse(index.hasOverlap(1L, now.plusMinutes(90), now.plusHours(3)));
+    }
+
+    @Test
+    void findBusyIntervals_thenWaitingAndApprovedBookingsAreMergedAndClipped() {
+        when(itemRepository.findAllIds()).thenReturn(List.of(1L));
+        when(bookingRepository.findActiveTimeline()).thenReturn(List.of(
+                new BookingTimelineDto(10L, 2L, 1L, now.minusDays(2), now.plusHours(2), BookingStatus.APPROVED),
+                new BookingTimelineDto(11L, 2L, 1L, now.plusHours(1), now.plusHours(3), BookingStatus.WAITING),
+                new BookingTimelineDto(12L, 2L, 1L, now.plusHours(5), now.plusHours(6), BookingStatus.WAITING),
+                new BookingTimelineDto(13L, 2L, 1L, now.plusDays(2), now.plusDays(3), BookingStatus.APPROVED)));
+
+        index.rebuild();
+
+        assertEquals(List.of(new TimeIntervalDto(now, now.plusHours(3)), new TimeIntervalDto(now.plusHours(5), now.plusHours(6))),
+                index.findBusyIntervals(1L, now, now.plusDays(1)));
+        assertTrue(index.findBusyIntervals(1L, now.plusHours(3), now.plusHours(5)).isEmpty());
+        assertTrue(index.isFree(1L, now.plusHours(3), now.plusHours(5)));
+        assertFalse(index.isFree(1L, now.plusHours(4), now.plusHours(6)));
+        assertFalse(index.hasOverlap(1L, now.plusHours(4), now.plusHours(6)), "waiting bookings do not conflict");
+        assertEquals(Optional.of(13L), index.findNextBooking(1L, now.plusHours(4)).map(BookingItemDto::getId));
+    }
+
+    @Test
+    void update_whenBookingWaitingAndThenRejected_thenOnlyAvailabilityFollows() {
+        index.addItem(1L);
+        Booking booking = new Booking(20L, item, booker, now.plusHours(1), now.plusHours(2), BookingStatus.WAITING);
+
+        index.update(booking);
+        assertFalse(index.isFree(1L, now, now.plusDays(1)));
+        assertTrue(index.findNextBooking(1L, now).isEmpty());
+
+        booking.setStatus(BookingStatus.REJECTED);
+        index.update(booking);
+        assertTrue(index.isFree(1L, now, now.plusDays(1)));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void removeItem_thenTimelineReloadedOnNextLookup() {
+        index.addItem(1L);
+        index.removeItem(1L);
+        when(bookingRepository.findActiveTimelineByItemIds(anyCollection())).thenReturn(Collections.emptyList());
+
+        assertTrue(index.findLastBooking(1L, now).isEmpty());
+        verify(bookingRepository).findActiveTimelineByItemIds(anyCollection());
+    }
+
+    @Test
+    void rebuild_whileBookingsChange_thenOldIndexServedAndChangesKept() {
+        index.addItem(1L);
+        index.update(new Booking(20L, item, booker, now.plusHours(1), now.plusHours(2), BookingStatus.APPROVED));
+        when(itemRepository.findAllIds()).thenReturn(List.of(1L));
+        when(bookingRepository.findActiveTimeline()).thenAnswer(invocation -> {
+            assertTrue(index.hasOverlap(1L, now.plusHours(1), now.plusHours(2)), "index is not emptied by a rebuild");
+            index.update(new Booking(21L, item, booker, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED));
+            return List.of(new BookingTimelineDto(20L, 2L, 1L, now.plusHours(1), now.plusHours(2), BookingStatus.APPROVED));
+        });
+
+        index.rebuild();
+
+        assertTrue(index.hasOverlap(1L, now.plusHours(1), now.plusHours(2)));
+        assertTrue(index.hasOverlap(1L, now.plusDays(1), now.plusDays(2)), "change made during the rebuild is replayed");
+    }
+
+    @Test
+    void preload_whenBookingChangesDuringLoad_thenChangeKept() {
+        when(bookingRepository.findActiveTimelineByItemIds(List.of(1L))).thenAnswer(invocation -> {
+            index.update(new Booking(21L, item, booker, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED));
+            return Collections.emptyList();
+        });
+
+        assertTrue(index.hasOverlap(1L, now.plusDays(1), now.plusDays(2)));
+    }
+}
@@ -4,7 +4,6 @@ import org.junit.jupiter.api.Test;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.dto.BookingDto;
-import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -36,7 +35,7 @@ class BookingMapperTest {
     @Test
     void bookingToResponse() {
         BookingResponseDto expectedBookingResponseDto = new BookingResponseDto(1L, booking.getStart(),
-                booking.getEnd(), BookingStatus.WAITING, user, item);
+                booking.getEnd(), BookingStatus.WAITING, user.getId(), user.getName(), item.getId(), item.getName());
 
         BookingResponseDto actualBookingResponseDto = bookingMapper.bookingToResponse(booking);
 
@@ -44,13 +43,4 @@ class BookingMapperTest {
 
     }
 
-    @Test
-    void bookingToItem() {
-        BookingItemDto expectedBookingItemDto = new BookingItemDto(1L, 1L);
-
-        BookingItemDto actualBookingItemDto = bookingMapper.bookingToItem(booking);
-
-        assertEquals(expectedBookingItemDto.toString(), actualBookingItemDto.toString());
-    }
-
 }
\ No newline at end of file
@@ -0,0 +1,191 @@
+package ru.practicum.shareit.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final Map<String, DataSource> databases = new LinkedHashMap<>();
+    private final Map<String, DataSource> replicas = new LinkedHashMap<>();
+    private DataSource primary;
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readTransaction;
+    private TransactionTemplate writeTransaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replicas.put("replica-0", database("replica-0"));
+        replicas.put("replica-1", database("replica-1"));
+        route(Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clearCurrentUser();
+        ReplicaRoutingDataSource.setReplicaRead(false);
+        databases.values().forEach(database -> new JdbcTemplate(database).execute("drop all objects"));
+    }
+
+    @Test
+    void readOnlyTransaction_whenReplicasCaughtUp_thenReadFromReplicasInTurn() {
+        catchUp("replica-0", "replica-1");
+
+        List<String> served = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            served.add(replicaRead());
+        }
+
+        assertEquals(List.of("replica-0", "replica-1", "replica-0", "replica-1"), served);
+    }
+
+    @Test
+    void writeTransactionAndNoTransaction_thenPrimary() {
+        catchUp("replica-0", "replica-1");
+
+        assertEquals("primary", writeTransaction.execute(status -> servedBy()));
+        assertEquals("primary", servedBy());
+    }
+
+    @Test
+    void readOnlyTransaction_whenNotReplicaRead_thenPrimary() {
+        catchUp("replica-0", "replica-1");
+
+        assertEquals("primary", readTransaction.execute(status -> servedBy()));
+    }
+
+    @Test
+    void readOnlyTransaction_whenNotReplicaRead_thenNotRecordedAsWrite() {
+        catchUp("replica-0", "replica-1");
+        ReadYourWrites.setCurrentUser(1L);
+        readTransaction.execute(status -> servedBy());
+
+        assertTrue(replicaRead().startsWith("replica"));
+    }
+
+    @Test
+    void readOnlyTransaction_whenReplicaLags_thenOnlyFreshReplicaRead() {
+        catchUp("replica-0", "replica-1");
+        new JdbcTemplate(replicas.get("replica-1"))
+                .update("update replication_heartbeat set beat_millis = ?", System.currentTimeMillis() - 60_000);
+        lagMonitor.refresh();
+
+        assertTrue(lagMonitor.getLag("replica-1") >= 60_000);
+        assertEquals("replica-0", replicaRead());
+        assertEquals("replica-0", replicaRead());
+    }
+
+    @Test
+    void readOnlyTransaction_whenNoReplicaCaughtUp_thenPrimary() {
+        lagMonitor.refresh();
+
+        assertEquals("primary", replicaRead());
+    }
+
+    @Test
+    void readOnlyTransaction_whenReplicaUnavailable_thenPrimary() {
+        catchUp("replica-0", "replica-1");
+        new JdbcTemplate(replicas.get("replica-0")).execute("drop table replication_heartbeat");
+        new JdbcTemplate(replicas.get("replica-1")).execute("drop table replication_heartbeat");
+        lagMonitor.refresh();
+
+        assertEquals("primary", replicaRead());
+    }
+
+    @Test
+    void readOnlyTransaction_whenUserJustWrote_thenPrimaryForThatUserOnly() {
+        catchUp("replica-0", "replica-1");
+        ReadYourWrites.setCurrentUser(1L);
+        writeTransaction.execute(status -> jdbcTemplate.update("update marker set name = name"));
+
+        assertEquals("primary", replicaRead());
+        ReadYourWrites.setCurrentUser(2L);
+        assertTrue(replicaRead().startsWith("replica"));
+    }
+
+    @Test
+    void readOnlyTransaction_whenWriteRolledBack_thenReplica() {
+        catchUp("replica-0", "replica-1");
+        ReadYourWrites.setCurrentUser(1L);
+        writeTransaction.execute(status -> {
+            status.setRollbackOnly();
+            return jdbcTemplate.update("update marker set name = name");
+        });
+
+        assertTrue(replicaRead().startsWith("replica"));
+    }
+
+    @Test
+    void readOnlyTransaction_whenWindowPassed_thenReplica() {
+        route(Duration.ZERO);
+        catchUp("replica-0", "replica-1");
+        ReadYourWrites.setCurrentUser(1L);
+        writeTransaction.execute(status -> jdbcTemplate.update("update marker set name = name"));
+
+        assertTrue(replicaRead().startsWith("replica"));
+    }
+
+    private void route(Duration readYourWritesWindow) {
+        lagMonitor = new ReplicaLagMonitor(primary, replicas, Duration.ofSeconds(5), Duration.ofSeconds(1));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas, lagMonitor,
+                new ReadYourWrites(readYourWritesWindow));
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // writes a heartbeat to the primary and ships it to the given replicas, as replication would
+    private void catchUp(String... names) {
+        lagMonitor.refresh();
+        Long beat = new JdbcTemplate(primary).queryForObject("select beat_millis from replication_heartbeat", Long.class);
+        for (String name : names) {
+            new JdbcTemplate(replicas.get(name)).update("update replication_heartbeat set beat_millis = ?", beat);
+        }
+        lagMonitor.refresh();
+    }
+
+    private String replicaRead() {
+        ReplicaRoutingDataSource.setReplicaRead(true);
+        try {
+            return readTransaction.execute(status -> servedBy());
+        } finally {
+            ReplicaRoutingDataSource.setReplicaRead(false);
+        }
+    }
+
+    private String servedBy() {
+        return jdbcTemplate.queryForObject("select name from marker", String.class);
+    }
+
+    private DataSource database(String name) {
+        DataSource database = new DriverManagerDataSource("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1",
+                "test", "test");
+        JdbcTemplate template = new JdbcTemplate(database);
+        template.execute("create table replication_heartbeat (id integer primary key, beat_millis bigint not null)");
+        template.update("insert into replication_heartbeat (id, beat_millis) values (1, 0)");
+        template.execute("create table marker (name varchar(32))");
+        template.update("insert into marker (name) values (?)", name);
+        databases.put(name, database);
+        return database;
+    }
+}
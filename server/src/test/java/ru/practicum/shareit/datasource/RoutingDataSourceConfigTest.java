@@ -0,0 +1,225 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingTimelineIndex;
+import ru.practicum.shareit.item.comment.LatestCommentsCache;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "shareit.datasource.replicas[0].url=" + RoutingDataSourceConfigTest.REPLICA_URL,
+        "shareit.datasource.replicas[0].username=test",
+        "shareit.datasource.replicas[0].password=test",
+        "shareit.datasource.heartbeat-interval=1h"})
+@AutoConfigureMockMvc
+@Import(RoutingDataSourceConfigTest.ReadThenWriteController.class)
+class RoutingDataSourceConfigTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:shareit-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+    @Autowired
+    private HikariDataSource primaryDataSource;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingTimelineIndex timelineIndex;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private LatestCommentsCache latestCommentsCache;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MockMvc mvc;
+
+    private final DataSource replica = new DriverManagerDataSource(REPLICA_URL, "test", "test");
+
+    // the replica starts as a copy of the empty schema, rows written later never reach it
+    @BeforeAll
+    static void createReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "test", "test")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clearCurrentUser();
+        new JdbcTemplate(replica).update("delete from users");
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void replicaRead_whenReplicaCaughtUp_thenServedByReplica() {
+        UserDto saved = userService.saveUser(new UserDto(0, "primary", "primary@mail.com"));
+        catchUp();
+
+        assertEquals(List.of(), emails(userService.getAllUsers()));
+        assertTrue(userRepository.findById(saved.getId()).isPresent());
+    }
+
+    @Test
+    void replicaRead_whenUserJustWrote_thenServedByPrimary() {
+        ReadYourWrites.setCurrentUser(ReadYourWrites.ANONYMOUS);
+        userService.saveUser(new UserDto(0, "primary", "primary@mail.com"));
+        catchUp();
+
+        assertEquals(List.of("primary@mail.com"), emails(userService.getAllUsers()));
+    }
+
+    @Test
+    void replicaRead_whenReplicaBehind_thenServedByPrimary() {
+        userService.saveUser(new UserDto(0, "primary", "primary@mail.com"));
+        new JdbcTemplate(replica).update("update replication_heartbeat set beat_millis = ?",
+                System.currentTimeMillis() - 60_000);
+        lagMonitor.refresh();
+
+        assertEquals(List.of("primary@mail.com"), emails(userService.getAllUsers()));
+    }
+
+    @Test
+    void replicaRead_whenTimelineNotIndexed_thenLoadedFromPrimary() {
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.com"));
+        User booker = userRepository.save(new User(null, "booker", "booker@mail.com"));
+        Item item = itemRepository.save(new Item(null, owner, "drill", "desc", true, null));
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(new Booking(null, item, booker, now.minusDays(2), now.minusDays(1),
+                BookingStatus.APPROVED));
+        catchUp();
+
+        assertTrue(readFromReplica(() -> timelineIndex.findLastBooking(item.getId(), now)).isPresent());
+    }
+
+    @Test
+    void replicaRead_whenCommentsNotCached_thenLoadedFromPrimary() {
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.com"));
+        User author = userRepository.save(new User(null, "author", "author@mail.com"));
+        Item item = itemRepository.save(new Item(null, owner, "drill", "desc", true, null));
+        commentRepository.save(new Comment(null, "works", author, item, LocalDateTime.now()));
+        catchUp();
+
+        assertEquals(1, readFromReplica(() -> latestCommentsCache.get(item.getId())).getCount());
+    }
+
+    @Test
+    void replicaRead_thenEntitiesNotCachedForPrimaryReads() {
+        User user = userRepository.save(new User(null, "primary", "primary@mail.com"));
+        entityManagerFactory.getCache().evictAll();
+        new JdbcTemplate(replica).update("insert into users (id, name, email) values (?, 'replica', 'replica@mail.com')",
+                user.getId());
+        catchUp();
+
+        assertEquals("replica", userService.getById(user.getId()).getName());
+        assertEquals("primary", userRepository.findById(user.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void request_whenReplicaReadPrecedesWrite_thenWriteGoesToPrimary() throws Exception {
+        catchUp();
+
+        mvc.perform(post("/test/read-then-write").header("X-Sharer-User-Id", 42))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+
+        assertEquals(List.of("written@mail.com"), userRepository.findAll().stream()
+                .map(User::getEmail)
+                .collect(Collectors.toList()));
+        assertEquals(0, new JdbcTemplate(replica).queryForObject("select count(*) from users", Integer.class));
+    }
+
+    // runs like a ReplicaRead method, the replica serving it has none of the rows written by the test
+    private <T> T readFromReplica(Supplier<T> read) {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        ReplicaRoutingDataSource.setReplicaRead(true);
+        try {
+            return readOnlyTransaction.execute(status -> {
+                assertEquals(List.of(), userRepository.findAll());
+                return read.get();
+            });
+        } finally {
+            ReplicaRoutingDataSource.setReplicaRead(false);
+        }
+    }
+
+    private void catchUp() {
+        lagMonitor.refresh();
+        Long beat = new JdbcTemplate(primaryDataSource)
+                .queryForObject("select beat_millis from replication_heartbeat", Long.class);
+        new JdbcTemplate(replica).update("update replication_heartbeat set beat_millis = ?", beat);
+        lagMonitor.refresh();
+    }
+
+    private static List<String> emails(List<UserDto> users) {
+        return users.stream().map(UserDto::getEmail).collect(Collectors.toList());
+    }
+
+    // one open-in-view session: a read the replica serves, then a write that only the primary may take
+    @RestController
+    static class ReadThenWriteController {
+
+        private final UserService userService;
+
+        ReadThenWriteController(UserService userService) {
+            this.userService = userService;
+        }
+
+        @PostMapping("/test/read-then-write")
+        public List<String> readThenWrite() {
+            List<String> read = emails(userService.getAllUsers());
+            userService.saveUser(new UserDto(0, "written", "written@mail.com"));
+            return read;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package ru.practicum.shareit.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainEventBusTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private DomainEventBus bus;
+
+    @AfterEach
+    void tearDown() {
+        if (bus != null) bus.close();
+    }
+
+    @Test
+    void publish_thenEveryListenerReceivesAllEventsInOrderOnItsOwnThread() {
+        RecordingListener first = new RecordingListener("first");
+        RecordingListener second = new RecordingListener("second");
+        start(DomainEventBus.BUFFER_SIZE, first, second);
+
+        for (long i = 0; i < 1000; i++) {
+            bus.publish(event(i));
+        }
+        await(() -> first.events.size() == 1000 && second.events.size() == 1000);
+
+        List<Long> expected = LongStream.range(0, 1000).boxed().collect(Collectors.toList());
+        assertEquals(expected, first.ids());
+        assertEquals(expected, second.ids());
+        assertEquals(List.of("domain-events-first"), first.threads.stream().distinct().collect(Collectors.toList()));
+        assertEquals(List.of("domain-events-second"), second.threads.stream().distinct().collect(Collectors.toList()));
+        assertEquals(1000, registry.get("shareit.events.published").functionCounter().count());
+        assertEquals(1000, registry.get("shareit.events.consumer.events").tag("consumer", "first")
+                .functionCounter().count());
+    }
+
+    @Test
+    void publish_whenListenerBusy_thenEventsDeliveredInOneBatch() throws InterruptedException {
+        BlockingListener listener = new BlockingListener();
+        start(DomainEventBus.BUFFER_SIZE, listener);
+
+        bus.publish(event(0));
+        assertTrue(listener.entered.await(5, TimeUnit.SECONDS));
+        for (long i = 1; i < 10; i++) {
+            bus.publish(event(i));
+        }
+        listener.release.countDown();
+        await(() -> listener.batchSizes.size() == 2);
+
+        assertEquals(List.of(1, 9), listener.batchSizes);
+        assertEquals(2, registry.get("shareit.events.consumer.batches").functionCounter().count());
+    }
+
+    @Test
+    void publish_whenBufferFullWithinTimeout_thenWaitsForSlotAndDropsNothing() throws InterruptedException {
+        BlockingListener listener = new BlockingListener();
+        start(4, Duration.ofSeconds(30), listener);
+
+        bus.publish(event(0));
+        assertTrue(listener.entered.await(5, TimeUnit.SECONDS));
+        Thread publisher = new Thread(() -> {
+            for (long i = 1; i < 6; i++) {
+                bus.publish(event(i));
+            }
+        });
+        publisher.start();
+        await(() -> registry.get("shareit.events.publish.waits").functionTimer().count() == 1);
+
+        assertTrue(publisher.isAlive());
+        assertEquals(4, registry.get("shareit.events.published").functionCounter().count());
+        assertEquals(0, registry.get("shareit.events.buffer.remaining").gauge().value());
+        assertEquals(4, registry.get("shareit.events.consumer.lag").gauge().value());
+
+        listener.release.countDown();
+        publisher.join(TimeUnit.SECONDS.toMillis(5));
+        await(() -> listener.events.size() == 6);
+        assertEquals(LongStream.range(0, 6).boxed().collect(Collectors.toList()), listener.ids());
+        assertTrue(registry.get("shareit.events.publish.waits").functionTimer().totalTime(TimeUnit.NANOSECONDS) > 0);
+        await(() -> registry.get("shareit.events.buffer.remaining").gauge().value() == 4);
+        assertEquals(0, registry.get("shareit.events.consumer.lag").gauge().value());
+    }
+
+    @Test
+    void publish_whenManyPublishersOutpaceListeners_thenEveryEventDeliveredInPublicationOrder()
+            throws InterruptedException {
+        int publishers = 4;
+        int perPublisher = 5000;
+        RecordingListener fast = new RecordingListener("fast");
+        RecordingListener slow = new RecordingListener("slow") {
+            @Override
+            public void onEvents(List<DomainEvent> events) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                super.onEvents(events);
+            }
+        };
+        start(8, Duration.ofSeconds(30), fast, slow);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < publishers; p++) {
+            long publisher = p;
+            Thread thread = new Thread(() -> {
+                for (long i = 0; i < perPublisher; i++) {
+                    bus.publish(new DomainEvent(DomainEvent.Type.BOOKING_CREATED, i, publisher, null));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        await(() -> fast.events.size() == publishers * perPublisher && slow.events.size() == publishers * perPublisher);
+
+        assertEquals(fast.events, slow.events);
+        for (long p = 0; p < publishers; p++) {
+            long publisher = p;
+            assertEquals(LongStream.range(0, perPublisher).boxed().collect(Collectors.toList()),
+                    slow.events.stream().filter(event -> event.getUserId() == publisher)
+                            .map(DomainEvent::getId).collect(Collectors.toList()));
+        }
+        assertEquals(publishers * perPublisher, registry.get("shareit.events.published").functionCounter().count());
+        assertTrue(registry.get("shareit.events.publish.waits").functionTimer().count() > 0);
+    }
+
+    @Test
+    void publish_whenBufferFullPastTimeout_thenDropsEventAndListenersResync() throws InterruptedException {
+        BlockingListener listener = new BlockingListener();
+        start(4, Duration.ofMillis(20), listener);
+
+        bus.publish(event(0));
+        assertTrue(listener.entered.await(5, TimeUnit.SECONDS));
+        for (long i = 1; i < 5; i++) {
+            bus.publish(event(i));
+        }
+
+        assertEquals(1, registry.get("shareit.events.dropped").functionCounter().count());
+        assertEquals(4, registry.get("shareit.events.published").functionCounter().count());
+        assertEquals(0, listener.resyncs.get());
+
+        listener.release.countDown();
+        await(() -> listener.events.size() == 4);
+        assertEquals(List.of(0L, 1L, 2L, 3L), listener.ids());
+        assertEquals(1, listener.resyncs.get());
+        assertEquals(List.of(1, 3), listener.batchSizes);
+        assertEquals(List.of(1), listener.resyncedBeforeBatch);
+    }
+
+    @Test
+    void publish_whenListenerIdle_thenWokenWithoutWaitingForIdleTimeout() {
+        RecordingListener listener = new RecordingListener("idle");
+        start(DomainEventBus.BUFFER_SIZE, listener);
+
+        long started = System.nanoTime();
+        for (long i = 0; i < 10; i++) {
+            bus.publish(event(i));
+            long count = i + 1;
+            await(() -> listener.events.size() == count);
+        }
+
+        // woken by the publisher each time, ten idle timeouts would take a second
+        assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    void publish_whenListenerFails_thenLaterEventsStillDelivered() {
+        RecordingListener listener = new RecordingListener("failing") {
+            @Override
+            public void onEvents(List<DomainEvent> events) {
+                if (events.get(0).getId() == 0) throw new IllegalStateException("projection failed");
+                super.onEvents(events);
+            }
+        };
+        start(DomainEventBus.BUFFER_SIZE, listener);
+
+        bus.publish(event(0));
+        await(() -> registry.get("shareit.events.consumer.errors").functionCounter().count() == 1);
+        bus.publish(event(1));
+        await(() -> !listener.events.isEmpty());
+
+        assertEquals(List.of(1L), listener.ids());
+    }
+
+    @Test
+    void publishAfterCommit_whenTransactionActive_thenPublishedOnCommitOnly() {
+        start(DomainEventBus.BUFFER_SIZE);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bus.publishAfterCommit(event(0));
+            bus.publishAfterCommit(event(1));
+            assertEquals(0, registry.get("shareit.events.published").functionCounter().count());
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.get(0).afterCommit();
+            synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, registry.get("shareit.events.published").functionCounter().count());
+    }
+
+    @Test
+    void publishAfterCommit_whenNoTransaction_thenPublishedAtOnce() {
+        start(DomainEventBus.BUFFER_SIZE);
+
+        bus.publishAfterCommit(event(0));
+
+        assertEquals(1, registry.get("shareit.events.published").functionCounter().count());
+    }
+
+    private void start(int bufferSize, DomainEventListener... listeners) {
+        start(bufferSize, Duration.ofMillis(100), listeners);
+    }
+
+    private void start(int bufferSize, Duration publishTimeout, DomainEventListener... listeners) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        for (DomainEventListener listener : listeners) {
+            beanFactory.addBean(listener.getName(), listener);
+        }
+        beanFactory.addBean("meterRegistry", registry);
+        bus = new DomainEventBus(beanFactory.getBeanProvider(DomainEventListener.class),
+                beanFactory.getBeanProvider(MeterRegistry.class), bufferSize, publishTimeout);
+        bus.start();
+    }
+
+    private static DomainEvent event(long id) {
+        return new DomainEvent(DomainEvent.Type.BOOKING_CREATED, id, 1L, null);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+
+    private static class RecordingListener implements DomainEventListener {
+        private final String name;
+        final List<DomainEvent> events = new CopyOnWriteArrayList<>();
+        final List<String> threads = new CopyOnWriteArrayList<>();
+
+        RecordingListener(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void onEvents(List<DomainEvent> events) {
+            threads.add(Thread.currentThread().getName());
+            this.events.addAll(events);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        List<Long> ids() {
+            return events.stream().map(DomainEvent::getId).collect(Collectors.toList());
+        }
+    }
+
+    private static class BlockingListener implements DomainEventListener {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        final List<DomainEvent> events = new CopyOnWriteArrayList<>();
+        final AtomicInteger resyncs = new AtomicInteger();
+        final List<Integer> resyncedBeforeBatch = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onEvents(List<DomainEvent> events) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batchSizes.add(events.size());
+            this.events.addAll(events);
+        }
+
+        @Override
+        public void resync() {
+            resyncs.incrementAndGet();
+            resyncedBeforeBatch.add(batchSizes.size());
+        }
+
+        List<Long> ids() {
+            return events.stream().map(DomainEvent::getId).collect(Collectors.toList());
+        }
+    }
+}
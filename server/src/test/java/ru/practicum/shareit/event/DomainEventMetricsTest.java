@@ -0,0 +1,37 @@
+package ru.practicum.shareit.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DomainEventMetricsTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void onEvents_thenCountsEveryEventByType() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", registry);
+        DomainEventMetrics metrics = new DomainEventMetrics(beanFactory.getBeanProvider(MeterRegistry.class));
+
+        metrics.onEvents(List.of(event(DomainEvent.Type.BOOKING_CREATED), event(DomainEvent.Type.BOOKING_APPROVED)));
+        metrics.onEvents(List.of(event(DomainEvent.Type.BOOKING_CREATED)));
+
+        assertEquals(2, count(DomainEvent.Type.BOOKING_CREATED));
+        assertEquals(1, count(DomainEvent.Type.BOOKING_APPROVED));
+        assertEquals(0, count(DomainEvent.Type.ITEM_CREATED));
+    }
+
+    private double count(DomainEvent.Type type) {
+        return registry.get("shareit.domain.changes").tag("type", type.name()).counter().count();
+    }
+
+    private static DomainEvent event(DomainEvent.Type type) {
+        return new DomainEvent(type, 1L, 1L, null);
+    }
+}
@@ -0,0 +1,148 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.sql.QueryBudget;
+import ru.practicum.shareit.sql.QueryBudgetExtension;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(QueryBudgetExtension.class)
+@DataJpaTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ExportServiceImpl.class, JacksonAutoConfiguration.class})
+class ExportServiceTest {
+
+    private static final int USERS_COUNT = 30;
+
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+    private User owner;
+    private User booker;
+    private Item item;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS_COUNT; i++) {
+            users.add(new User(null, "user" + i, "user" + i + "@mail.com"));
+        }
+        users = userRepository.saveAll(users);
+        owner = users.get(0);
+        booker = users.get(1);
+        item = itemRepository.save(new Item(null, owner, "drill", "desc", true, null));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @QueryBudget(1)
+    void exportUsers_thenOneJsonLinePerUserInIdOrder() throws IOException {
+        List<JsonNode> lines = export(ExportService::exportUsers);
+
+        assertEquals(USERS_COUNT, lines.size());
+        assertEquals(owner.getId(), lines.get(0).get("id").asLong());
+        assertEquals("user29@mail.com", lines.get(USERS_COUNT - 1).get("email").asText());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @QueryBudget(value = 7, maxRepeats = 1)
+    void exportItemsBookingsAndComments_thenRowsCarryTheirReferences() throws IOException {
+        bookingRepository.save(new Booking(null, item, booker, start, start.plusDays(1), BookingStatus.APPROVED));
+        commentRepository.save(new Comment(null, "great", booker, item, start));
+
+        JsonNode exportedItem = export(ExportService::exportItems).get(0);
+        assertEquals("drill", exportedItem.get("name").asText());
+        assertEquals(owner.getId(), exportedItem.get("ownerId").asLong());
+
+        JsonNode booking = export(ExportService::exportBookings).get(0);
+        assertEquals("APPROVED", booking.get("status").asText());
+        assertEquals("2030-01-01T10:00:00", booking.get("start").asText());
+        assertEquals(booker.getId(), booking.get("booker").get("id").asLong());
+        assertEquals(item.getId(), booking.get("item").get("id").asLong());
+
+        JsonNode comment = export(ExportService::exportComments).get(0);
+        assertEquals("great", comment.get("text").asText());
+        assertEquals(booker.getName(), comment.get("authorName").asText());
+        assertEquals(item.getId(), comment.get("itemId").asLong());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @QueryBudget(1)
+    void exportBookings_whenTableEmpty_thenNothingWritten() throws IOException {
+        assertTrue(export(ExportService::exportBookings).isEmpty());
+    }
+
+    private List<JsonNode> export(Export export) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.to(exportService, out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private interface Export {
+        void to(ExportService service, ByteArrayOutputStream out) throws IOException;
+    }
+}
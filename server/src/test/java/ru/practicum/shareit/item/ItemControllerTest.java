@@ -9,18 +9,25 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.batch.BatchResult;
+import ru.practicum.shareit.booking.dto.TimeIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoAvailability;
 import ru.practicum.shareit.item.dto.ItemDtoBooking;
+import ru.practicum.shareit.pagination.CursorPage;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -41,7 +48,8 @@ class ItemControllerTest {
             true,
             null,
             null,
-            new HashSet<>(),
+            new ArrayList<>(),
+            0,
             null);
 
     ItemDto itemDto = new ItemDto("nameDto",
@@ -54,8 +62,8 @@ class ItemControllerTest {
     @SneakyThrows
     @Test
     void getAllItems() {
-        when(itemService.getAllItems(anyLong(), anyInt(), anyInt()))
-                .thenReturn(Collections.singletonList(itemDtoBooking));
+        when(itemService.getAllItems(anyLong(), anyInt(), any(), anyInt()))
+                .thenReturn(new CursorPage<>(Collections.singletonList(itemDtoBooking), null));
 
         mvc.perform(get("/items")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -67,15 +75,15 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[0].available").value("true"))
                 .andExpect(jsonPath("$[0].description").value("desc1"));
 
-        verify(itemService).getAllItems(anyLong(), anyInt(), anyInt());
+        verify(itemService).getAllItems(anyLong(), anyInt(), any(), anyInt());
     }
 
     @SneakyThrows
     @Test
     void searchItem_whenTextValid_thenReturnedStatusOk() {
 
-        when(itemService.search(any(), any(), any()))
-                .thenReturn(Collections.singletonList(itemDto));
+        when(itemService.search(any(), any(), any(), any(), any(), any()))
+                .thenReturn(new CursorPage<>(Collections.singletonList(itemDto), null));
 
         mvc.perform(get("/items/search")
                         .param("text", "Dto")
@@ -87,7 +95,44 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[0].available").value("true"))
                 .andExpect(jsonPath("$[0].description").value("descDto"));
 
-        verify(itemService).search(any(), any(), any());
+        verify(itemService).search(any(), any(), any(), any(), any(), any());
+    }
+
+    @SneakyThrows
+    @Test
+    void searchItem_whenWindowGiven_thenFlagsReturned() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = from.plusDays(1);
+        when(itemService.search("dto", 0, null, 10, from, to))
+                .thenReturn(new CursorPage<>(Collections.singletonList(new ItemDtoAvailability(itemDto, true)), null));
+
+        mvc.perform(get("/items/search")
+                        .param("text", "Dto")
+                        .param("availableFrom", "2030-01-01T10:00:00")
+                        .param("availableTo", "2030-01-02T10:00:00")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(2L))
+                .andExpect(jsonPath("$[0].freeInWindow").value(true));
+    }
+
+    @SneakyThrows
+    @Test
+    void getAvailability() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = from.plusDays(1);
+        TimeIntervalDto busy = new TimeIntervalDto(from.plusHours(2), from.plusHours(4));
+        when(itemService.getAvailability(1L, from, to)).thenReturn(new ItemAvailabilityDto(1L, from, to,
+                List.of(busy), List.of(new TimeIntervalDto(from, busy.getStart()), new TimeIntervalDto(busy.getEnd(), to))));
+
+        mvc.perform(get("/items/{itemId}/availability", 1L)
+                        .param("from", "2030-01-01T10:00:00")
+                        .param("to", "2030-01-02T10:00:00")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId").value(1L))
+                .andExpect(jsonPath("$.busy.length()").value(1))
+                .andExpect(jsonPath("$.free.length()").value(2));
     }
 
     @SneakyThrows
@@ -190,4 +235,42 @@ class ItemControllerTest {
         verify(itemService).createComment(any(), anyLong(), anyLong());
     }
 
-}
\ No newline at end of file
+    @SneakyThrows
+    @Test
+    void addBatch_whenOneItemRejected_thenReturnedResultPerElement() {
+        when(itemService.addNewItems(anyLong(), anyList()))
+                .thenReturn(List.of(BatchResult.failure(0, 400, "name: must not be blank"),
+                        BatchResult.success(1, itemDto)));
+
+        mvc.perform(post("/items/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(mapper.writeValueAsString(List.of(itemDto, itemDto))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(400))
+                .andExpect(jsonPath("$[0].body").doesNotExist())
+                .andExpect(jsonPath("$[1].body.name").value("nameDto"));
+
+        verify(itemService).addNewItems(eq(1L), anyList());
+    }
+
+    @SneakyThrows
+    @Test
+    void getComments_thenPageAndNextCursorReturned() {
+        CommentDto commentDto = new CommentDto(5L, "comment", "user", LocalDateTime.now());
+        when(itemService.getComments(anyLong(), anyInt(), any(), anyInt()))
+                .thenReturn(new CursorPage<>(List.of(commentDto), "next"));
+
+        mvc.perform(get("/items/{itemId}/comments", 2L)
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, "next"))
+                .andExpect(jsonPath("$[0].id").value(5L))
+                .andExpect(jsonPath("$[0].authorName").value("user"));
+
+        verify(itemService).getComments(2L, 0, null, 1);
+    }
+}
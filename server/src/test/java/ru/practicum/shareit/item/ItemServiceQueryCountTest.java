@@ -0,0 +1,145 @@
+package ru.practicum.shareit.item;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.batch.BatchExecutor;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingTimelineIndex;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.event.DomainEventBus;
+import ru.practicum.shareit.item.comment.LatestCommentsCache;
+import ru.practicum.shareit.item.dto.ItemDtoBooking;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.sql.QueryBudget;
+import ru.practicum.shareit.sql.QueryBudgetExtension;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ExtendWith(QueryBudgetExtension.class)
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@TestPropertySource(properties = {"spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import({ItemServiceImpl.class, BookingTimelineIndex.class, ItemSearchIndex.class, ItemMapper.class, CommentMapper.class,
+        BatchExecutor.class, LatestCommentsCache.class, DomainEventBus.class, PrimaryReads.class})
+class ItemServiceQueryCountTest {
+
+    private static final int ITEMS_COUNT = 20;
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = em.persist(new User(null, "owner", "owner@mail.com"));
+        User booker = em.persist(new User(null, "booker", "booker@mail.com"));
+
+        for (int i = 0; i < ITEMS_COUNT; i++) {
+            User requestor = em.persist(new User(null, "requestor" + i, "requestor" + i + "@mail.com"));
+            ItemRequest request = em.persist(new ItemRequest(null, "request " + i, requestor, LocalDateTime.now()));
+            Item item = em.persist(new Item(null, owner, "item " + i, "desc " + i, true, request));
+
+            em.persist(new Booking(null, item, booker, LocalDateTime.now().minusDays(3),
+                    LocalDateTime.now().minusDays(2), BookingStatus.APPROVED));
+            em.persist(new Booking(null, item, booker, LocalDateTime.now().minusDays(2),
+                    LocalDateTime.now().minusDays(1), BookingStatus.APPROVED));
+            em.persist(new Booking(null, item, booker, LocalDateTime.now().plusDays(1),
+                    LocalDateTime.now().plusDays(2), BookingStatus.APPROVED));
+            em.persist(new Booking(null, item, booker, LocalDateTime.now().plusDays(3),
+                    LocalDateTime.now().plusDays(4), BookingStatus.APPROVED));
+            em.persist(new Comment(null, "comment " + i, booker, item, LocalDateTime.now()));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void getAllItems_whenPageGrows_thenQueryCountStaysConstant() {
+        long smallPageQueries = countQueries(2);
+        long mediumPageQueries = countQueries(10);
+        long largePageQueries = countQueries(ITEMS_COUNT);
+
+        assertEquals(smallPageQueries, mediumPageQueries);
+        assertEquals(smallPageQueries, largePageQueries);
+        assertTrue(largePageQueries <= 4, "items, booking timelines and comments only");
+    }
+
+    @Test
+    @QueryBudget(value = 4, maxRepeats = 1)
+    void getAllItems_thenLastAndNextBookingsAndCommentsAreStitched() {
+        List<ItemDtoBooking> items = itemService.getAllItems(owner.getId(), 0, null, ITEMS_COUNT).getContent();
+
+        assertEquals(ITEMS_COUNT, items.size());
+        for (ItemDtoBooking item : items) {
+            assertNotNull(item.getLastBooking());
+            assertNotNull(item.getNextBooking());
+            assertEquals(1, item.getComments().size());
+            assertEquals(1, item.getCommentsCount());
+            assertNotNull(item.getRequestItemId());
+        }
+        assertTrue(items.get(0).getLastBooking().getId() < items.get(0).getNextBooking().getId());
+        assertEquals(items.get(0).getLastBooking().getId() + 1, items.get(0).getNextBooking().getId());
+    }
+
+    @Test
+    void getAllItems_whenFollowingCursors_thenEveryItemReturnedOnce() {
+        Set<Long> seen = new HashSet<>();
+        CursorPage<ItemDtoBooking> page = itemService.getAllItems(owner.getId(), 0, null, 3);
+        int pages = 1;
+        seen.addAll(ids(page));
+        while (page.getNextCursor() != null) {
+            page = itemService.getAllItems(owner.getId(), 0, page.getNextCursor(), 3);
+            pages++;
+            seen.addAll(ids(page));
+        }
+
+        assertEquals(ITEMS_COUNT, seen.size());
+        assertEquals((ITEMS_COUNT + 2) / 3, pages);
+    }
+
+    private List<Long> ids(CursorPage<ItemDtoBooking> page) {
+        return page.getContent().stream().map(ItemDtoBooking::getId).collect(Collectors.toList());
+    }
+
+    private long countQueries(int size) {
+        em.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ItemDtoBooking> items = itemService.getAllItems(owner.getId(), 0, null, size).getContent();
+
+        assertEquals(size, items.size());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -6,31 +6,42 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingTimelineIndex;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
-import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.dto.TimeIntervalDto;
 import ru.practicum.shareit.error.ItemNotFoundException;
 import ru.practicum.shareit.error.UserNotFoundException;
+import ru.practicum.shareit.event.DomainEvent;
+import ru.practicum.shareit.event.DomainEventBus;
+import ru.practicum.shareit.item.comment.LatestCommentsCache;
 import ru.practicum.shareit.item.dao.CommentRepository;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoAvailability;
 import ru.practicum.shareit.item.dto.ItemDtoBooking;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
+import javax.validation.ValidationException;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
@@ -38,6 +49,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -49,11 +61,11 @@ class ItemServiceTest {
     Booking booking = new Booking(1L, item, user, LocalDateTime.now(),
             LocalDateTime.now().plusHours(6), BookingStatus.WAITING);
     BookingResponseDto bookingResponseDto = new BookingResponseDto(1L, LocalDateTime.now(),
-            LocalDateTime.now().plusHours(6), BookingStatus.WAITING, user, item);
+            LocalDateTime.now().plusHours(6), BookingStatus.WAITING, user.getId(), user.getName(), item.getId(), item.getName());
     Comment comment = new Comment(1L, "text", user, item, LocalDateTime.now());
     ItemDto itemDto = new ItemDto("item", "desc", true, 1L, 1L, null);
     ItemDtoRequest itemDtoRequest = new ItemDtoRequest(1L, "item", "desc", true, null);
-    ItemDtoBooking itemDtoBooking = new ItemDtoBooking(1L, "item", "desc", true, null, null, Collections.emptySet(), null);
+    ItemDtoBooking itemDtoBooking = new ItemDtoBooking(1L, "item", "desc", true, null, null, Collections.emptyList(), 0, null);
     BookingDto bookingDto = new BookingDto(1L, 1L, LocalDateTime.now(),
             LocalDateTime.now().plusHours(6), BookingStatus.WAITING, 1L);
     BookingItemDto bookingItemDto = new BookingItemDto(1L, 1L);
@@ -70,13 +82,19 @@ class ItemServiceTest {
     @Mock
     private CommentRepository commentRepository;
     @Mock
-    private BookingMapper bookingMapper;
-    @Mock
     private ItemMapper itemMapper;
     @Mock
     private ItemRequestRepository itemRequestRepository;
     @Mock
     private CommentMapper commentMapper;
+    @Mock
+    private BookingTimelineIndex bookingTimelineIndex;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private LatestCommentsCache latestCommentsCache;
+    @Mock
+    private DomainEventBus eventBus;
 
     @Test
     void addNewItem_whenUserExistAndItemRequestNotNull_thenOk() {
@@ -84,7 +102,6 @@ class ItemServiceTest {
         item.setRequest(itemRequest);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(userRepository.getById(1L)).thenReturn(user);
         when(itemRequestRepository.findById(1L)).thenReturn(Optional.of(itemRequest));
         when(itemRepository.save(any())).thenReturn(item);
         when(itemMapper.toItem(any(), any(), any())).thenReturn(item);
@@ -101,7 +118,6 @@ class ItemServiceTest {
     void addNewItem_whenUserExistAndItemRequestNull_thenOk() {
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(userRepository.getById(1L)).thenReturn(user);
         when(itemRepository.save(any())).thenReturn(item);
         when(itemMapper.toItem(any(), any(), any())).thenReturn(item);
         when(itemMapper.toDto(any(), anyLong(), anyLong())).thenReturn(itemDto);
@@ -110,6 +126,8 @@ class ItemServiceTest {
 
         assertEquals(itemDto.toString(), actual.toString());
         verify(itemRepository).save(any());
+        verify(bookingTimelineIndex).addItem(1L);
+        verify(itemSearchIndex).index(item);
 
     }
 
@@ -126,6 +144,8 @@ class ItemServiceTest {
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         itemService.deleteItem(1L, 1L);
         verify(itemRepository).deleteById(1L);
+        verify(bookingTimelineIndex).removeItem(1L);
+        verify(itemSearchIndex).delete(1L);
     }
 
     @Test
@@ -147,7 +167,10 @@ class ItemServiceTest {
 
         assertEquals(itemDtoToPatch.toString(), actual.toString());
         verify(itemRepository).save(any());
-        verify(itemRepository, atLeastOnce()).findById(anyLong());
+        verify(itemRepository).findById(anyLong());
+        verify(itemSearchIndex).index(any());
+        verify(eventBus).publishAfterCommit(argThat(event -> event.getType() == DomainEvent.Type.ITEM_PATCHED
+                && event.getPayload() == itemDtoToPatch));
     }
 
     @Test
@@ -163,9 +186,9 @@ class ItemServiceTest {
         when(itemRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ItemNotFoundException.class, () -> itemService.getItem(1L, 1L));
-        verify(bookingRepository, never()).getLastBookingByItemId(anyLong());
-        verify(bookingRepository, never()).getNextBookingByItemId(anyLong());
-        verify(commentRepository, never()).findAllByItem_Id(anyLong());
+        verify(bookingTimelineIndex, never()).findLastBooking(anyLong(), any());
+        verify(bookingTimelineIndex, never()).findNextBooking(anyLong(), any());
+        verify(latestCommentsCache, never()).get(anyLong());
     }
 
     @Test
@@ -174,11 +197,9 @@ class ItemServiceTest {
 
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         when(itemMapper.toDtoBooking(item)).thenReturn(itemDtoBooking);
-        when(bookingRepository.getNextBookingByItemId(anyLong())).thenReturn(Optional.of(booking));
-        when(bookingMapper.bookingToItem(booking)).thenReturn(bookingItemDto);
-        when(bookingRepository.getLastBookingByItemId(anyLong())).thenReturn(Optional.empty());
-        when(commentRepository.findAllByItem_Id(1L)).thenReturn(Collections.singletonList(comment));
-        when(commentMapper.toDto(any())).thenReturn(commentDto);
+        when(bookingTimelineIndex.findNextBooking(anyLong(), any())).thenReturn(Optional.of(bookingItemDto));
+        when(bookingTimelineIndex.findLastBooking(anyLong(), any())).thenReturn(Optional.empty());
+        when(latestCommentsCache.get(1L)).thenReturn(new LatestCommentsCache.ItemComments(List.of(commentDto), 1));
 
         ItemDtoBooking actual = itemService.getItem(1L, 1L);
         assertEquals(itemDtoBooking.toString(), actual.toString());
@@ -191,11 +212,9 @@ class ItemServiceTest {
 
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         when(itemMapper.toDtoBooking(item)).thenReturn(itemDtoBooking);
-        when(bookingRepository.getLastBookingByItemId(anyLong())).thenReturn(Optional.of(booking));
-        when(bookingMapper.bookingToItem(booking)).thenReturn(bookingItemDto);
-        when(bookingRepository.getNextBookingByItemId(anyLong())).thenReturn(Optional.empty());
-        when(commentRepository.findAllByItem_Id(1L)).thenReturn(Collections.singletonList(comment));
-        when(commentMapper.toDto(any())).thenReturn(commentDto);
+        when(bookingTimelineIndex.findLastBooking(anyLong(), any())).thenReturn(Optional.of(bookingItemDto));
+        when(bookingTimelineIndex.findNextBooking(anyLong(), any())).thenReturn(Optional.empty());
+        when(latestCommentsCache.get(1L)).thenReturn(new LatestCommentsCache.ItemComments(List.of(commentDto), 1));
 
         ItemDtoBooking actual = itemService.getItem(1L, 1L);
         assertEquals(itemDtoBooking.toString(), actual.toString());
@@ -206,11 +225,9 @@ class ItemServiceTest {
 
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         when(itemMapper.toDtoBooking(item)).thenReturn(itemDtoBooking);
-        when(bookingRepository.getLastBookingByItemId(anyLong())).thenReturn(Optional.of(booking));
-        when(bookingMapper.bookingToItem(booking)).thenReturn(bookingItemDto);
-        when(bookingRepository.getNextBookingByItemId(anyLong())).thenReturn(Optional.empty());
-        when(commentRepository.findAllByItem_Id(1L)).thenReturn(Collections.singletonList(comment));
-        when(commentMapper.toDto(any())).thenReturn(commentDto);
+        when(bookingTimelineIndex.findLastBooking(anyLong(), any())).thenReturn(Optional.of(bookingItemDto));
+        when(bookingTimelineIndex.findNextBooking(anyLong(), any())).thenReturn(Optional.empty());
+        when(latestCommentsCache.get(1L)).thenReturn(new LatestCommentsCache.ItemComments(List.of(commentDto), 1));
 
         ItemDtoBooking actual = itemService.getItem(1L, 2L);
         assertEquals(itemDtoBooking.toString(), actual.toString());
@@ -218,18 +235,17 @@ class ItemServiceTest {
 
     @Test
     void search_whenTextIsBlank_thenReturnedEmptyList() {
-        List<ItemDto> actual = itemService.search("", 0, 10);
+        List<ItemDto> actual = itemService.search("", 0, null, 10, null, null).getContent();
         assertEquals(Collections.emptyList(), actual);
-        verify(itemRepository, never()).searchByDescriptionAndName(anyString(), any());
+        verify(itemSearchIndex, never()).search(anyString(), any(), anyInt(), anyInt());
     }
 
     @Test
     void search_whenTextIsNotBlank_thenReturnedList() {
-        when(itemRepository.searchByDescriptionAndName(anyString(), any()))
-                .thenReturn(new PageImpl<Item>(Collections.singletonList(item)));
-        when(itemMapper.toDto(any(), anyLong(), anyLong())).thenReturn(itemDto);
+        when(itemSearchIndex.search("safd", null, 20, 10))
+                .thenReturn(new CursorPage<>(Collections.singletonList(itemDto), null));
 
-        List<ItemDto> actual = itemService.search("safd", 0, 10);
+        List<ItemDto> actual = itemService.search("safd", 20, null, 10, null, null).getContent();
 
         assertFalse(actual.isEmpty());
         assertEquals(itemDto.toString(), actual.get(0).toString());
@@ -279,6 +295,86 @@ class ItemServiceTest {
 
         CommentDto actual = itemService.createComment(commentDto, 1L, 1L);
         assertEquals(commentDto, actual);
+        verify(latestCommentsCache).add(1L, commentDto);
+    }
+
+    @Test
+    void getComments_whenItemNotFound_thenThrow() {
+        when(itemRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ItemNotFoundException.class, () -> itemService.getComments(1L, 0, null, 10));
+        verify(commentRepository, never()).findItemComments(anyLong(), any(), anyLong(), any());
+    }
+
+    @Test
+    void getComments_whenMoreCommentsExist_thenNextCursorPointsAfterLastComment() {
+        when(bookingTimelineIndex.contains(1L)).thenReturn(true);
+        when(commentRepository.findItemComments(eq(1L), any(), eq(Long.MAX_VALUE), any()))
+                .thenReturn(new SliceImpl<>(List.of(commentDto), PageRequest.of(0, 1), true));
+
+        CursorPage<CommentDto> page = itemService.getComments(1L, 0, null, 1);
+
+        assertEquals(List.of(commentDto), page.getContent());
+        assertEquals(Cursor.of(commentDto.getCreated(), commentDto.getId()).encode(), page.getNextCursor());
+    }
+
+    @Test
+    void getAvailability_whenWindowInverted_thenThrowValidationException() {
+        LocalDateTime from = LocalDateTime.now();
+
+        assertThrows(ValidationException.class, () -> itemService.getAvailability(1L, from, from.minusHours(1)));
+        verifyNoInteractions(bookingTimelineIndex);
+    }
+
+    @Test
+    void getAvailability_whenItemNotFound_thenThrow() {
+        LocalDateTime from = LocalDateTime.now();
+        when(bookingTimelineIndex.contains(1L)).thenReturn(false);
+        when(itemRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ItemNotFoundException.class, () -> itemService.getAvailability(1L, from, from.plusDays(1)));
+    }
+
+    @Test
+    void getAvailability_thenFreeIntervalsComplementBusyOnes() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(1);
+        when(bookingTimelineIndex.contains(1L)).thenReturn(true);
+        when(bookingTimelineIndex.findBusyIntervals(1L, from, to)).thenReturn(List.of(
+                new TimeIntervalDto(from, from.plusHours(2)),
+                new TimeIntervalDto(from.plusHours(5), from.plusHours(6))));
+
+        ItemAvailabilityDto actual = itemService.getAvailability(1L, from, to);
+
+        assertEquals(List.of(new TimeIntervalDto(from.plusHours(2), from.plusHours(5)),
+                new TimeIntervalDto(from.plusHours(6), to)), actual.getFree());
+        assertEquals(2, actual.getBusy().size());
+        verify(itemRepository, never()).existsById(any());
+    }
+
+    @Test
+    void search_whenWindowGiven_thenItemsFlaggedFromIndex() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusDays(1);
+        ItemDto other = new ItemDto("other", "desc", true, 2L, 1L, null);
+        when(itemSearchIndex.search("item", null, 0, 10)).thenReturn(new CursorPage<>(List.of(itemDto, other), null));
+        when(bookingTimelineIndex.isFree(1L, from, to)).thenReturn(true);
+        when(bookingTimelineIndex.isFree(2L, from, to)).thenReturn(false);
+
+        List<ItemDto> actual = itemService.search("item", 0, null, 10, from, to).getContent();
+
+        assertTrue(((ItemDtoAvailability) actual.get(0)).isFreeInWindow());
+        assertFalse(((ItemDtoAvailability) actual.get(1)).isFreeInWindow());
+        verify(bookingTimelineIndex).preload(List.of(1L, 2L));
+    }
+
+    @Test
+    void search_whenNoWindow_thenIndexPageReturnedAsIs() {
+        CursorPage<ItemDto> page = new CursorPage<>(List.of(itemDto), null);
+        when(itemSearchIndex.search("item", null, 0, 10)).thenReturn(page);
+
+        assertSame(page, itemService.search("item", 0, null, 10, null, null));
+        verifyNoInteractions(bookingTimelineIndex);
     }
 
 
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.item.comment;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Import({LatestCommentsCache.class, PrimaryReads.class})
+class LatestCommentsCacheTest {
+
+    private static final int COMMENTS_COUNT = 15;
+
+    @Autowired
+    private LatestCommentsCache cache;
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+    private User author;
+    private Item popular;
+    private Item quiet;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User owner = em.persist(new User(null, "owner", "owner@mail.com"));
+        author = em.persist(new User(null, "author", "author@mail.com"));
+        popular = em.persist(new Item(null, owner, "drill", "desc", true, null));
+        quiet = em.persist(new Item(null, owner, "saw", "desc", true, null));
+        for (int i = 0; i < COMMENTS_COUNT; i++) {
+            em.persist(new Comment(null, "comment " + i, author, popular, start.plusMinutes(i)));
+        }
+        em.flush();
+        em.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAll_thenLatestCommentsNewestFirstAndTotalCount() {
+        Map<Long, LatestCommentsCache.ItemComments> comments = cache.getAll(List.of(popular.getId(), quiet.getId()));
+
+        LatestCommentsCache.ItemComments popularComments = comments.get(popular.getId());
+        assertEquals(COMMENTS_COUNT, popularComments.getCount());
+        assertEquals(LatestCommentsCache.LATEST_COMMENTS, popularComments.getLatest().size());
+        assertEquals("comment 14", popularComments.getLatest().get(0).getText());
+        assertEquals("comment 5", popularComments.getLatest().get(LatestCommentsCache.LATEST_COMMENTS - 1).getText());
+        assertEquals("author", popularComments.getLatest().get(0).getAuthorName());
+        assertEquals(0, comments.get(quiet.getId()).getCount());
+        assertTrue(comments.get(quiet.getId()).getLatest().isEmpty());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void get_whenCached_thenNoQuery() {
+        cache.get(popular.getId());
+        statistics.clear();
+
+        assertEquals(COMMENTS_COUNT, cache.get(popular.getId()).getCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void add_whenCached_thenNewCommentFirstAndOldestDropped() {
+        cache.get(popular.getId());
+        cache.add(popular.getId(), new CommentDto(1000L, "newest", "author", start.plusDays(1)));
+        statistics.clear();
+
+        LatestCommentsCache.ItemComments comments = cache.get(popular.getId());
+
+        assertEquals(COMMENTS_COUNT + 1, comments.getCount());
+        assertEquals(LatestCommentsCache.LATEST_COMMENTS, comments.getLatest().size());
+        assertEquals("newest", comments.getLatest().get(0).getText());
+        assertEquals("comment 6", comments.getLatest().get(LatestCommentsCache.LATEST_COMMENTS - 1).getText());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void add_whenNotCached_thenLoadedFromDatabaseLater() {
+        Comment comment = em.persistAndFlush(new Comment(null, "first", author, quiet, start));
+        cache.add(quiet.getId(), new CommentDto(comment.getId(), "first", "author", start));
+
+        LatestCommentsCache.ItemComments comments = cache.get(quiet.getId());
+
+        assertEquals(1, comments.getCount());
+        assertEquals(List.of(comment.getId()), comments.getLatest().stream()
+                .map(CommentDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void add_whenLoadAlreadyHasComment_thenCountedOnce() {
+        Comment comment = em.persistAndFlush(new Comment(null, "first", author, quiet, start));
+        cache.get(quiet.getId());
+        cache.add(quiet.getId(), new CommentDto(comment.getId(), "first", "author", start));
+
+        LatestCommentsCache.ItemComments comments = cache.get(quiet.getId());
+
+        assertEquals(1, comments.getCount());
+        assertEquals(List.of(comment.getId()), comments.getLatest().stream()
+                .map(CommentDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void evict_thenReloaded() {
+        cache.get(popular.getId());
+        cache.evict(popular.getId());
+        statistics.clear();
+
+        assertEquals(COMMENTS_COUNT, cache.get(popular.getId()).getCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
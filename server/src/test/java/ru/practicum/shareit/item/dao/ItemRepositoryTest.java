@@ -1,14 +1,19 @@
 package ru.practicum.shareit.item.dao;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoRequest;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.sql.QueryBudget;
+import ru.practicum.shareit.sql.QueryBudgetExtension;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -16,6 +21,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+@ExtendWith(QueryBudgetExtension.class)
 @DataJpaTest
 @AutoConfigureTestDatabase
 @ActiveProfiles("test")
@@ -37,13 +43,14 @@ class ItemRepositoryTest {
     }
 
     @Test
+    @QueryBudget(4)
     void findItemByOwnerId() {
         em.persist(user1);
         em.persist(user2);
         em.persist(itemRequest);
         em.persist(item1);
         em.persist(item2);
-        List<Item> actualItem = itemRepository.findItemByOwnerId(user1.getId(), p).toList();
+        List<Item> actualItem = itemRepository.findItemByOwnerId(user1.getId(), Long.MAX_VALUE, p).toList();
 
         assertFalse(actualItem.isEmpty());
 
@@ -52,35 +59,41 @@ class ItemRepositoryTest {
     }
 
     @Test
-    void searchByDescriptionAndName() {
+    @QueryBudget(4)
+    void findAllForSearch() {
         em.persist(user1);
         em.persist(user2);
         em.persist(itemRequest);
         em.persist(item1);
         em.persist(item2);
 
-        List<Item> actualItem = itemRepository.searchByDescriptionAndName("pam", p).toList();
-        assertFalse(actualItem.isEmpty());
+        List<ItemDto> actualItems = itemRepository.findAllForSearch();
 
-        assertEquals(1, actualItem.size());
-        assertEquals("desc1 pam pam pam", actualItem.get(0).getDescription());
+        assertEquals(2, actualItems.size());
+        ItemDto withoutRequest = actualItems.stream().filter(item -> item.getId() == item1.getId()).findFirst().orElseThrow();
+        ItemDto withRequest = actualItems.stream().filter(item -> item.getId() == item2.getId()).findFirst().orElseThrow();
+        assertEquals("desc1 pam pam pam", withoutRequest.getDescription());
+        assertEquals(user1.getId(), withoutRequest.getOwnerId());
+        assertNull(withoutRequest.getRequestId());
+        assertFalse(withRequest.getAvailable());
+        assertEquals(itemRequest.getId(), withRequest.getRequestId());
 
     }
 
     @Test
-    void findAllByRequest_Id() {
+    @QueryBudget(7)
+    void findAllByRequestIds() {
         em.persist(user1);
         em.persist(user2);
         em.persist(itemRequest);
         em.persist(item1);
         em.persist(item2);
 
-        List<Item> actualItem = itemRepository.findAllByRequest_Id(itemRequest.getId());
-
-        assertFalse(actualItem.isEmpty());
-
-        assertEquals(1, actualItem.size());
-        assertEquals("desc2 CAAAAT", actualItem.get(0).getDescription());
+        List<ItemDtoRequest> actualItems = itemRepository.findAllByRequestIds(List.of(itemRequest.getId(), 100L));
 
+        assertEquals(1, actualItems.size());
+        assertEquals(item2.getId(), actualItems.get(0).getId());
+        assertEquals(itemRequest.getId(), actualItems.get(0).getRequestId());
+        assertFalse(actualItems.get(0).isAvailable());
     }
-}
\ No newline at end of file
+}
@@ -22,7 +22,7 @@ class ItemMapperTest {
     ItemDto itemDto = new ItemDto("name", "desc", true, 1L, 1L, null);
     BookingItemDto booking1 = new BookingItemDto(1L, 1L);
     ItemDtoBooking itemDtoBooking = new ItemDtoBooking(1L, "name", "desc", true, booking1,
-            null, Collections.emptySet(), null);
+            null, Collections.emptyList(), 0, null);
     ItemDtoRequest itemDtoRequest = new ItemDtoRequest(1L, "name", "desc", true, null);
 
     ItemRequest itemRequest = new ItemRequest(1L, "request", user, LocalDateTime.now());
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    User user = new User(1L, "user", "user@mail.com");
+    @Mock
+    private ItemRepository itemRepository;
+    @InjectMocks
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(itemRepository.findAllForSearch()).thenReturn(List.of(
+                new ItemDto("iTem1 purrrrr", "desc1 pam pam pam", true, 1L, 1L, null),
+                new ItemDto("iTem2 NAme", "desc2 CAAAAT", false, 2L, 2L, 1L),
+                new ItemDto("Дрель", "Простая дрель", true, 3L, 1L, null),
+                new ItemDto("Отвертка", "Аккумуляторная дрель-отвертка", true, 4L, 2L, 1L)));
+        index.rebuild();
+    }
+
+    @Test
+    void search_whenMatchedInDescription_thenOnlyAvailableReturned() {
+        List<ItemDto> actual = index.search("pam", null, 0, 10).getContent();
+
+        assertEquals(1, actual.size());
+        assertEquals("desc1 pam pam pam", actual.get(0).getDescription());
+        assertTrue(index.search("caaaat", null, 0, 10).getContent().isEmpty());
+    }
+
+    @Test
+    void search_whenMatchedInNameAndDescription_thenNameMatchRankedFirst() {
+        List<Long> actual = ids(index.search("дрел", null, 0, 10).getContent());
+
+        assertEquals(List.of(3L, 4L), actual);
+    }
+
+    @Test
+    void search_whenQueryShorterThanGram_thenSubstringMatched() {
+        assertEquals(List.of(1L), ids(index.search("m1", null, 0, 10).getContent()));
+        assertEquals(List.of(3L, 4L), ids(index.search("Ь", null, 0, 10).getContent()));
+        assertTrue(index.search("z", null, 0, 10).getContent().isEmpty());
+    }
+
+    @Test
+    void search_whenNoMatches_thenEmpty() {
+        assertTrue(index.search("молоток", null, 0, 10).getContent().isEmpty());
+        assertTrue(index.search("pam pum", null, 0, 10).getContent().isEmpty());
+    }
+
+    @Test
+    void search_withOffsetAndLimit() {
+        assertEquals(List.of(3L), ids(index.search("дрел", null, 0, 1).getContent()));
+        assertEquals(List.of(4L), ids(index.search("дрел", null, 1, 1).getContent()));
+        assertTrue(index.search("дрел", null, 2, 1).getContent().isEmpty());
+    }
+
+    @Test
+    void rebuild_whenItemsChangeWhileLoading_thenChangesKeptAndOldIndexServesSearches() {
+        when(itemRepository.findAllForSearch()).thenAnswer(invocation -> {
+            assertEquals(List.of(3L, 4L), ids(index.search("дрел", null, 0, 10).getContent()));
+            index.index(new Item(3L, user, "Перфоратор", "Мощный", true, null));
+            index.delete(1L);
+            index.index(new Item(5L, user, "Шуруповерт", "Простой", true, null));
+            return List.of(
+                    new ItemDto("iTem1 purrrrr", "desc1 pam pam pam", true, 1L, 1L, null),
+                    new ItemDto("Дрель", "Простая дрель", true, 3L, 1L, null),
+                    new ItemDto("Отвертка", "Аккумуляторная дрель-отвертка", true, 4L, 2L, 1L));
+        });
+
+        index.rebuild();
+
+        assertEquals(List.of(4L), ids(index.search("дрел", null, 0, 10).getContent()));
+        assertEquals(List.of(3L), ids(index.search("перфо", null, 0, 10).getContent()));
+        assertEquals(List.of(5L), ids(index.search("шуруп", null, 0, 10).getContent()));
+        assertTrue(index.search("pam", null, 0, 10).getContent().isEmpty());
+    }
+
+    @Test
+    void index_whenItemPatched_thenOldTextNoLongerMatches() {
+        Item patched = new Item(3L, user, "Перфоратор", "Мощный", true, null);
+
+        index.index(patched);
+
+        assertEquals(List.of(4L), ids(index.search("дрел", null, 0, 10).getContent()));
+        ItemDto actual = index.search("перфо", null, 0, 10).getContent().get(0);
+        assertEquals(3L, actual.getId());
+        assertEquals(1L, actual.getOwnerId());
+    }
+
+    @Test
+    void index_whenItemBecomesAvailable_thenReturned() {
+        index.index(new Item(2L, user, "iTem2 NAme", "desc2 CAAAAT", true, null));
+
+        assertEquals(List.of(2L), ids(index.search("caaaat", null, 0, 10).getContent()));
+    }
+
+    @Test
+    void delete_thenItemNoLongerReturned() {
+        index.delete(1L);
+
+        assertTrue(index.search("pam", null, 0, 10).getContent().isEmpty());
+        assertTrue(index.search("m1", null, 0, 10).getContent().isEmpty());
+    }
+
+    private List<Long> ids(List<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void search_whenCursorGiven_thenContinuesAfterIt() {
+        CursorPage<ItemDto> first = index.search("дрел", null, 0, 1);
+
+        assertEquals(List.of(3L), ids(first.getContent()));
+        assertNotNull(first.getNextCursor());
+
+        CursorPage<ItemDto> second = index.search("дрел", Cursor.decode(first.getNextCursor(), null), 0, 1);
+
+        assertEquals(List.of(4L), ids(second.getContent()));
+        assertNull(second.getNextCursor());
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@ActiveProfiles("test")
+class ServiceMetricsAspectTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void prometheus_thenServiceRepositoryAndRequestTimingsWithPercentiles() throws Exception {
+        User user = userRepository.save(new User(null, "user", "user@mail.com"));
+        mvc.perform(get("/users/{id}", user.getId())).andExpect(status().isOk());
+        mvc.perform(get("/users/{id}", user.getId() + 1000)).andExpect(status().isNotFound());
+
+        String scrape = mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(scrape.contains("shareit_service_invocations_seconds_count{exception=\"none\",method=\"getById\","
+                + "outcome=\"SUCCESS\",service=\"UserService\",} 1.0"), scrape);
+        assertTrue(scrape.contains("shareit_service_invocations_seconds_count{exception=\"UserNotFoundException\","
+                + "method=\"getById\",outcome=\"ERROR\",service=\"UserService\",} 1.0"), scrape);
+        assertTrue(scrape.contains("shareit_service_invocations_seconds{exception=\"none\",method=\"getById\","
+                + "outcome=\"SUCCESS\",service=\"UserService\",quantile=\"0.99\",}"), scrape);
+        assertTrue(scrape.contains("shareit_service_invocations_seconds_bucket{exception=\"none\",method=\"getById\","
+                + "outcome=\"SUCCESS\",service=\"UserService\",le=\"+Inf\",} 1.0"), scrape);
+        assertTrue(scrape.contains("spring_data_repository_invocations_seconds_bucket{exception=\"None\","
+                + "method=\"findById\",repository=\"UserRepository\",state=\"SUCCESS\",le=\"+Inf\","), scrape);
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{exception=\"None\",method=\"GET\","
+                + "outcome=\"SUCCESS\",status=\"200\",uri=\"/users/{id}\",le=\"+Inf\",} 1.0"), scrape);
+    }
+}
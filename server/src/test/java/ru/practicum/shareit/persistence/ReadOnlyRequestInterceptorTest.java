@@ -0,0 +1,70 @@
+package ru.practicum.shareit.persistence;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadOnlyRequestInterceptorTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private Session session;
+    private ReadOnlyRequestInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new ReadOnlyRequestInterceptor(entityManagerFactory);
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+    }
+
+    @Test
+    void preHandle_whenGet_thenSessionReadOnlyWithManualFlush() {
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/items/1"),
+                new MockHttpServletResponse(), null));
+
+        verify(session).setDefaultReadOnly(true);
+        verify(session).setHibernateFlushMode(FlushMode.MANUAL);
+    }
+
+    @Test
+    void preHandle_whenWrite_thenSessionUnchanged() {
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("PATCH", "/items/1"),
+                new MockHttpServletResponse(), null));
+
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void preHandle_whenNoRequestPersistenceContext_thenNothingToDo() {
+        TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/items/1"),
+                new MockHttpServletResponse(), null));
+    }
+}
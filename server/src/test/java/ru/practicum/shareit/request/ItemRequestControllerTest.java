@@ -10,6 +10,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.time.LocalDateTime;
@@ -19,6 +20,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -89,8 +91,8 @@ class ItemRequestControllerTest {
     @SneakyThrows
     @Test
     void getAllRequests() {
-        when(itemRequestService.getAllItemRequests(anyLong(), anyInt(), anyInt()))
-                .thenReturn(Collections.singletonList(request));
+        when(itemRequestService.getAllItemRequests(1L, 0, null, 10))
+                .thenReturn(new CursorPage<>(Collections.singletonList(request), "next"));
 
         mvc.perform(get("/requests/all")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -98,8 +100,9 @@ class ItemRequestControllerTest {
                         .header("X-Sharer-User-Id", 1L))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(1L))
-                .andExpect(jsonPath("$[0].description").value(request.getDescription()));
+                .andExpect(jsonPath("$[0].description").value(request.getDescription()))
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, "next"));
 
-        verify(itemRequestService).getAllItemRequests(anyLong(), anyInt(), anyInt());
+        verify(itemRequestService).getAllItemRequests(1L, 0, null, 10);
     }
 }
\ No newline at end of file
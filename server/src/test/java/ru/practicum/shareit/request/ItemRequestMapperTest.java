@@ -1,17 +1,23 @@
 package ru.practicum.shareit.request;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDtoRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.sql.QueryBudget;
+import ru.practicum.shareit.sql.QueryBudgetExtension;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+@ExtendWith(QueryBudgetExtension.class)
 @SpringBootTest
 class ItemRequestMapperTest {
     User owner = new User(1L, "name", "mail@mail.com");
@@ -22,6 +28,7 @@ class ItemRequestMapperTest {
     ItemRequestMapper itemRequestMapper;
 
     @Test
+    @QueryBudget(0)
     void dtoToItemRequest() {
         ItemRequest actualItemRequest = itemRequestMapper.dtoToItemRequest(itemRequestDto, owner);
 
@@ -33,10 +40,13 @@ class ItemRequestMapperTest {
     }
 
     @Test
+    @QueryBudget(0)
     void toDto() {
-        ItemRequestDto actualItemRequest = itemRequestMapper.toDto(itemRequest);
+        ItemDtoRequest item = new ItemDtoRequest(2L, "item", "item desc", true, 1L);
+        ItemRequestDto actualItemRequest = itemRequestMapper.toDto(itemRequest, List.of(item));
 
         assertEquals(1L, actualItemRequest.getId());
+        assertEquals(List.of(item), actualItemRequest.getItems());
         assertEquals("desc", actualItemRequest.getDescription());
         assertEquals(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd hh:mm")), actualItemRequest.getCreated().format(DateTimeFormatter.ofPattern("yyyy/MM/dd hh:mm")));
 
@@ -2,12 +2,16 @@ package ru.practicum.shareit.request;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.sql.QueryBudget;
+import ru.practicum.shareit.sql.QueryBudgetExtension;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -15,6 +19,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+@ExtendWith(QueryBudgetExtension.class)
 @DataJpaTest
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.AUTO_CONFIGURED)
@@ -61,6 +66,7 @@ class ItemRequestRepositoryTest {
     }
 
     @Test
+    @QueryBudget(3)
     void findAllByOwnerId() {
         List<ItemRequest> actualList = itemRequestRepository.findAllByOwnerId(1L);
 
@@ -70,8 +76,11 @@ class ItemRequestRepositoryTest {
     }
 
     @Test
+    @QueryBudget(3)
     void findAllExtendUserId() {
-        List<ItemRequest> actualList = itemRequestRepository.findAllExtendUserId(1L, PageRequest.of(0, 10)).toList();
+        Cursor first = Cursor.ASCENDING_START;
+        List<ItemRequest> actualList = itemRequestRepository
+                .findAllExtendUserId(1L, first.getTime(), first.getId(), PageRequest.of(0, 10)).toList();
 
         assertFalse(actualList.isEmpty());
         assertEquals(1, actualList.size());
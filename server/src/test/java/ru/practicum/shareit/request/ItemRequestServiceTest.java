@@ -6,12 +6,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import ru.practicum.shareit.error.ItemNotFoundException;
 import ru.practicum.shareit.error.UserNotFoundException;
+import ru.practicum.shareit.event.DomainEvent;
+import ru.practicum.shareit.event.DomainEventBus;
+import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.FromSizeRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
@@ -22,6 +26,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -41,13 +46,18 @@ class ItemRequestServiceTest {
     private ItemRequestRepository itemRequestRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private DomainEventBus eventBus;
 
     @Test
     void getItemRequestById_whenUserAndItemRequestAreExists() {
 
         when(userRepository.findById(eq(1L))).thenReturn(Optional.of(user));
         when(itemRequestRepository.findById(eq(1L))).thenReturn(Optional.of(itemRequest));
-        when(itemRequestMapper.toDto(itemRequest)).thenReturn(itemRequestDto);
+        when(itemRepository.findAllByRequestIds(List.of(1L))).thenReturn(List.of(itemDtoRequest));
+        when(itemRequestMapper.toDto(itemRequest, List.of(itemDtoRequest))).thenReturn(itemRequestDto);
 
         ItemRequestDto actual = itemRequestService.getItemRequestById(1L, 1L);
 
@@ -77,7 +87,7 @@ class ItemRequestServiceTest {
     void save_whenUserExist_thenOk() {
         when(userRepository.findById(eq(1L))).thenReturn(Optional.of(user));
         when(itemRequestMapper.dtoToItemRequest(eq(itemRequestDto), eq(user))).thenReturn(itemRequest);
-        when(itemRequestMapper.toDto(eq(itemRequest))).thenReturn(itemRequestDto);
+        when(itemRequestMapper.toDto(eq(itemRequest), eq(Collections.emptyList()))).thenReturn(itemRequestDto);
         when(itemRequestRepository.save(eq(itemRequest))).thenReturn(itemRequest);
 
         ItemRequestDto actual = itemRequestService.save(itemRequestDto, 1L);
@@ -85,7 +95,9 @@ class ItemRequestServiceTest {
         verify(userRepository).findById(1L);
         verify(itemRequestRepository).save(any());
         verify(itemRequestMapper).dtoToItemRequest(any(), any());
-        verify(itemRequestMapper).toDto(any());
+        verify(itemRequestMapper).toDto(any(), any());
+        verify(itemRepository, never()).findAllByRequestIds(any());
+        verify(eventBus).publishAfterCommit(argThat(event -> event.getType() == DomainEvent.Type.REQUEST_CREATED));
 
         assertEquals(itemRequestDto.toString(), actual.toString());
 
@@ -104,7 +116,8 @@ class ItemRequestServiceTest {
     void getAllItemRequestsByOwnerId_whenOwnerExist_thenOk() {
         when(userRepository.findById(eq(1L))).thenReturn(Optional.of(user));
         when(itemRequestRepository.findAllByOwnerId(eq(1L))).thenReturn(Collections.singletonList(itemRequest));
-        when(itemRequestMapper.toDto(itemRequest)).thenReturn(itemRequestDto);
+        when(itemRepository.findAllByRequestIds(List.of(1L))).thenReturn(List.of(itemDtoRequest));
+        when(itemRequestMapper.toDto(itemRequest, List.of(itemDtoRequest))).thenReturn(itemRequestDto);
 
         List<ItemRequestDto> actual = itemRequestService.getAllItemRequestsByOwnerId(1L);
 
@@ -123,25 +136,30 @@ class ItemRequestServiceTest {
 
     @Test
     void getAllItemRequests_whenRepositoryIsEmpty_thenReturnedEmptyList() {
-        when(itemRequestRepository.findAllExtendUserId(1L, PageRequest.of(0, 10))).thenReturn(Page.empty());
-        List<ItemRequestDto> actual = itemRequestService.getAllItemRequests(1L, 0, 10);
-
-        assertEquals(Collections.emptyList(), actual);
-        verify(itemRequestRepository).findAllExtendUserId(any(), any());
-        verify(itemRequestMapper, never()).toDto(any());
+        when(itemRequestRepository.findAllExtendUserId(1L, Cursor.ASCENDING_START.getTime(), 0L,
+                FromSizeRequest.of(0, 10, null))).thenReturn(new SliceImpl<>(Collections.emptyList()));
+        CursorPage<ItemRequestDto> actual = itemRequestService.getAllItemRequests(1L, 0, null, 10);
+
+        assertEquals(Collections.emptyList(), actual.getContent());
+        assertNull(actual.getNextCursor());
+        verify(itemRequestRepository).findAllExtendUserId(any(), any(), any(), any());
+        verify(itemRequestMapper, never()).toDto(any(), any());
+        verify(itemRepository, never()).findAllByRequestIds(any());
     }
 
     @Test
     void getAllItemRequests_whenRepositoryIsNotEmpty_thenReturnedSingletonList() {
-        when(itemRequestRepository.findAllExtendUserId(1L, PageRequest.of(0, 10)))
-                .thenReturn(new PageImpl<ItemRequest>(Collections.singletonList(itemRequest)));
+        when(itemRequestRepository.findAllExtendUserId(1L, Cursor.ASCENDING_START.getTime(), 0L,
+                FromSizeRequest.of(0, 10, null)))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(itemRequest)));
 
-        when(itemRequestMapper.toDto(itemRequest)).thenReturn(itemRequestDto);
+        when(itemRepository.findAllByRequestIds(List.of(1L))).thenReturn(Collections.emptyList());
+        when(itemRequestMapper.toDto(itemRequest, Collections.emptyList())).thenReturn(itemRequestDto);
 
-        List<ItemRequestDto> actual = itemRequestService.getAllItemRequests(1L, 0, 10);
+        CursorPage<ItemRequestDto> actual = itemRequestService.getAllItemRequests(1L, 0, null, 10);
 
-        assertEquals(Collections.singletonList(itemRequestDto), actual);
-        verify(itemRequestRepository).findAllExtendUserId(any(), any());
-        verify(itemRequestMapper).toDto(itemRequest);
+        assertEquals(Collections.singletonList(itemRequestDto), actual.getContent());
+        verify(itemRequestRepository).findAllExtendUserId(any(), any(), any(), any());
+        verify(itemRequestMapper).toDto(itemRequest, Collections.emptyList());
     }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.sql;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the test when its body runs more SQL statements than {@link #value()}, or runs one statement
+ * shape more often than {@link #maxRepeats()}. Setup and teardown methods are not counted.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface QueryBudget {
+
+    int value();
+
+    int maxRepeats() default Integer.MAX_VALUE;
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.sql;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getTestMethod()
+                .map(method -> method.getAnnotation(QueryBudget.class))
+                .ifPresent(budget -> context.getStore(NAMESPACE)
+                        .put(context.getUniqueId(), StatementCounter.open(budget.maxRepeats())));
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        StatementCounter.Scope scope = context.getStore(NAMESPACE)
+                .remove(context.getUniqueId(), StatementCounter.Scope.class);
+        if (scope == null) return;
+        scope.close();
+        QueryBudget budget = context.getRequiredTestMethod().getAnnotation(QueryBudget.class);
+        assertTrue(scope.getRepeated().isEmpty(), () -> "Statements repeated more than " + budget.maxRepeats()
+                + " times: " + scope.getRepeated());
+        assertTrue(scope.getCount() <= budget.value(), () -> "Ran " + scope.getCount() + " statements, budget is "
+                + budget.value());
+    }
+}
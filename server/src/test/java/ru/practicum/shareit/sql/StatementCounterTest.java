@@ -0,0 +1,60 @@
+package ru.practicum.shareit.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementCounterTest {
+
+    private static final String SELECT_USER = "select * from users where id=?";
+
+    @Test
+    void record_whenNoScope_thenIgnored() {
+        StatementCounter.record(SELECT_USER);
+
+        try (StatementCounter.Scope scope = StatementCounter.open(5)) {
+            assertEquals(0, scope.getCount());
+        }
+    }
+
+    @Test
+    void record_whenScopesNested_thenCountedInEveryOpenScope() {
+        try (StatementCounter.Scope outer = StatementCounter.open(5)) {
+            StatementCounter.record(SELECT_USER);
+            try (StatementCounter.Scope inner = StatementCounter.open(5)) {
+                StatementCounter.record(SELECT_USER);
+                assertEquals(1, inner.getCount());
+            }
+            StatementCounter.record(SELECT_USER);
+
+            assertEquals(3, outer.getCount());
+        }
+    }
+
+    @Test
+    void record_whenShapeRepeatsAboveThreshold_thenCallSiteKept() {
+        try (StatementCounter.Scope scope = StatementCounter.open(2)) {
+            for (int i = 0; i < 3; i++) {
+                StatementCounter.record("select * from items where id in (?, ?, ?)");
+                StatementCounter.record("select  *\n from items where id in (?, ?)");
+            }
+            StatementCounter.record(SELECT_USER);
+
+            Map<String, Set<String>> repeated = scope.getRepeated();
+            assertEquals(Set.of("select * from items where id in (?, ...)"), repeated.keySet());
+            assertEquals(6, scope.getCount("select * from items where id in (?, ...)"));
+            String callSite = repeated.values().iterator().next().iterator().next();
+            assertTrue(callSite.startsWith(StatementCounterTest.class.getName()
+                    + ".record_whenShapeRepeatsAboveThreshold_thenCallSiteKept"), callSite);
+        }
+    }
+
+    @Test
+    void shape_thenParameterListsAndWhitespaceCollapsed() {
+        assertEquals("select * from users where id=? and email in (?, ...)",
+                StatementCounter.shape("select *\n    from users where id=? and email in (?,?,  ?)"));
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.sql;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(OutputCaptureExtension.class)
+class StatementCountingInterceptorTest {
+
+    private final StatementCountingProperties properties = new StatementCountingProperties();
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/requests/all");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void request_whenHeaderEnabled_thenStatementCountReturned() {
+        properties.setHeader(true);
+        StatementCountingInterceptor interceptor = new StatementCountingInterceptor(properties);
+
+        interceptor.preHandle(request, response, null);
+        StatementCounter.record("select * from users where id=?");
+        StatementCounter.record("select * from requests where id=?");
+        interceptor.postHandle(request, response, null, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertEquals("2", response.getHeader(StatementCountingInterceptor.HEADER));
+    }
+
+    @Test
+    void request_whenHeaderDisabled_thenNoHeader() {
+        StatementCountingInterceptor interceptor = new StatementCountingInterceptor(properties);
+
+        interceptor.preHandle(request, response, null);
+        StatementCounter.record("select * from users where id=?");
+        interceptor.postHandle(request, response, null, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertNull(response.getHeader(StatementCountingInterceptor.HEADER));
+    }
+
+    @Test
+    void request_whenStatementRepeatsAboveThreshold_thenWarnedWithCallSite(CapturedOutput output) {
+        properties.setRepeatThreshold(3);
+        StatementCountingInterceptor interceptor = new StatementCountingInterceptor(properties);
+
+        interceptor.preHandle(request, response, null);
+        for (int i = 0; i < 4; i++) {
+            StatementCounter.record("select * from items where request_id=?");
+        }
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertTrue(output.getOut().contains("GET /requests/all ran 4 statements, 4 times: "
+                + "select * from items where request_id=?, from [" + StatementCountingInterceptorTest.class.getName()
+                + ".request_whenStatementRepeatsAboveThreshold_thenWarnedWithCallSite"), output.getOut());
+    }
+
+    @Test
+    void afterCompletion_thenScopeClosed() {
+        StatementCountingInterceptor interceptor = new StatementCountingInterceptor(properties);
+        interceptor.preHandle(request, response, null);
+        StatementCounter.Scope scope = StatementCountingInterceptor.scope(request);
+        interceptor.afterCompletion(request, response, null, null);
+
+        StatementCounter.record("select * from users where id=?");
+
+        assertEquals(0, scope.getCount());
+        assertNull(StatementCountingInterceptor.scope(request));
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.user;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void findById_whenEntityLoadedOnce_thenServedFromCacheWithoutStatements() {
+        User user = userRepository.save(new User(null, "user", "user@mail.com"));
+        ItemRequest request = itemRequestRepository.save(new ItemRequest(null, "desc", user, LocalDateTime.now()));
+        Item item = itemRepository.save(new Item(null, user, "item", "desc", true, request));
+        itemRepository.findById(item.getId()); // warm the cache through a load rather than relying on inserts
+        statistics.clear();
+
+        assertTrue(userRepository.findById(user.getId()).isPresent());
+        assertTrue(itemRequestRepository.findById(request.getId()).isPresent());
+        assertEquals("item", itemRepository.findById(item.getId()).orElseThrow().getName());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(region("users").getHitCount() > 0);
+        assertTrue(region("requests").getHitCount() > 0);
+        assertTrue(region("items").getHitCount() > 0);
+    }
+
+    @Test
+    void findById_whenEntityUpdatedOrDeleted_thenCacheStaysCoherent() {
+        User user = userRepository.save(new User(null, "user", "user@mail.com"));
+        userRepository.findById(user.getId());
+
+        user.setName("updated");
+        userRepository.save(user);
+        assertEquals("updated", userRepository.findById(user.getId()).orElseThrow().getName());
+
+        userRepository.deleteById(user.getId());
+        assertTrue(userRepository.findById(user.getId()).isEmpty());
+    }
+
+    private CacheRegionStatistics region(String name) {
+        return statistics.getDomainDataRegionStatistics(name);
+    }
+}
@@ -9,15 +9,19 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.batch.BatchResult;
 import ru.practicum.shareit.error.UserNotFoundException;
+import ru.practicum.shareit.sql.StatementCountingInterceptor;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -56,6 +60,7 @@ class UserControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string(StatementCountingInterceptor.HEADER, "0"))
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.name").value("user"))
                 .andExpect(jsonPath("$.email").value("user@user.ru"));
@@ -106,7 +111,9 @@ class UserControllerTest {
     @SneakyThrows
     @Test
     void deleteUser() {
-        mvc.perform(delete("/users/{userId}", 1L)).andExpect(status().isOk());
+        mvc.perform(delete("/users/{userId}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(StatementCountingInterceptor.HEADER, "0"));
 
         verify(userService).delete(1L);
     }
@@ -126,5 +133,21 @@ class UserControllerTest {
 
     }
 
+    @SneakyThrows
+    @Test
+    void postBatch_whenOneEmailExists_thenReturnedResultPerElement() {
+        when(userService.saveUsers(anyList()))
+                .thenReturn(List.of(BatchResult.success(0, userDto),
+                        BatchResult.failure(1, 409, "Email already exists: user@user.ru")));
+
+        mvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(List.of(userDto, userDto))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].body.email").value("user@user.ru"))
+                .andExpect(jsonPath("$[1].status").value(409));
 
-}
\ No newline at end of file
+        verify(userService).saveUsers(anyList());
+    }
+}
@@ -80,7 +80,7 @@ class UserServiceTest {
 
         assertEquals(actualUser, userDto);
         verify(userRepository).findById(anyLong());
-        verify(userRepository).getById(anyLong());
+        verify(userRepository, never()).getById(anyLong());
         verify(userMapper).toUserDto(any());
 
     }